@@ -0,0 +1,20 @@
+package net.smartcosmos.cluster.gateway;
+
+import java.util.concurrent.CompletableFuture;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+/**
+ * Definition for a class to contact the auth server without blocking the calling thread.
+ */
+public interface AsyncAuthenticationClient {
+
+    /**
+     * Request the OAuth2 Token for the user with the provided username and password.
+     *
+     * @param username the username provided
+     * @param password the password provided
+     * @return a future that completes with the OAUth2 JWT based token, or exceptionally with the authentication failure
+     */
+    CompletableFuture<OAuth2AccessToken> getOauthTokenAsync(String username, String password);
+}
@@ -10,7 +10,9 @@ public interface AuthenticationClient {
     String PARAM_GRANT_TYPE = "grant_type";
     String PARAM_USERNAME = "username";
     String PARAM_PASSWORD = "password";
+    String PARAM_REFRESH_TOKEN = "refresh_token";
     String GRANT_TYPE_PASSWORD = "password";
+    String GRANT_TYPE_REFRESH_TOKEN = "refresh_token";
     /**
      * Get the OAuth2 Token for the user with the provided username and password.
      *
@@ -19,4 +21,12 @@ public interface AuthenticationClient {
      * @return the OAUth2 JWT based token
      */
     OAuth2AccessToken getOauthToken(String username, String password);
+
+    /**
+     * Get a new OAuth2 Token using the refresh token of a previously issued token.
+     *
+     * @param refreshToken the value of the refresh token
+     * @return the OAUth2 JWT based token
+     */
+    OAuth2AccessToken refreshOauthToken(String refreshToken);
 }
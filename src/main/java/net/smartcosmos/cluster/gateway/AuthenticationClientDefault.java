@@ -1,16 +1,23 @@
 package net.smartcosmos.cluster.gateway;
 
+import java.io.UnsupportedEncodingException;
 import java.net.URI;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
 
 import lombok.extern.slf4j.Slf4j;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
 import org.springframework.security.authentication.InternalAuthenticationServiceException;
 import org.springframework.security.core.AuthenticationException;
 import org.springframework.security.oauth2.common.OAuth2AccessToken;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.HttpMessageConverterExtractor;
+import org.springframework.web.client.RequestCallback;
 import org.springframework.web.client.RestClientException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.web.util.UriComponentsBuilder;
@@ -18,16 +25,23 @@ import org.springframework.web.util.UriComponentsBuilder;
 import net.smartcosmos.cluster.gateway.config.AuthenticationServerConnectionProperties;
 
 /**
- * Connect to the Authentication service and get an OAuthToken for the basic auth credentials provided.
+ * <p>Connect to the Authentication service and get an OAuthToken for the basic auth credentials provided.</p>
+ * <p>The token endpoint URI is only resolved again if the configured Auth Server location changes, and the grant parameters are sent as a
+ * form-encoded request body, so that credentials never appear in a URI.</p>
  */
 @Slf4j
 @Service
 @EnableConfigurationProperties({ AuthenticationServerConnectionProperties.class })
 public class AuthenticationClientDefault implements AuthenticationClient {
 
+    private static final MediaType FORM_URLENCODED = MediaType.APPLICATION_FORM_URLENCODED;
+
     private final AuthenticationServerConnectionProperties authServerConnectionProperties;
     private RestTemplate authServerRestTemplate;
 
+    private volatile TokenEndpoint tokenEndpoint;
+    private volatile HttpMessageConverterExtractor<OAuth2AccessToken> tokenExtractor;
+
     @Autowired
     public AuthenticationClientDefault(
         @Qualifier("authServerRestTemplate") RestTemplate authServerRestTemplate,
@@ -40,27 +54,107 @@ public class AuthenticationClientDefault implements AuthenticationClient {
     @Override
     public OAuth2AccessToken getOauthToken(String username, String password) throws AuthenticationException {
 
-        String authServerUri = authServerConnectionProperties.getLocationUri();
-        URI uri = UriComponentsBuilder.fromHttpUrl(authServerUri)
-            .pathSegment(PATH_OAUTH_TOKEN_REQUEST)
-            .queryParam(PARAM_GRANT_TYPE, GRANT_TYPE_PASSWORD)
-            .queryParam(PARAM_USERNAME, username)
-            .queryParam(PARAM_PASSWORD, password)
-            .build()
-            .toUri();
-        log.debug("Connecting to {} using username: {} to authenticate user.", authServerUri, username);
+        URI uri = getTokenEndpointUri();
+        log.debug("Connecting to {} using username: {} to authenticate user.", uri, username);
 
         try {
-            return authServerRestTemplate.postForObject(uri, null, OAuth2AccessToken.class);
+            return requestToken(uri, PARAM_GRANT_TYPE, GRANT_TYPE_PASSWORD, PARAM_USERNAME, username, PARAM_PASSWORD, password);
         } catch (RestClientException e) {
-            String message = String.format("Authenticating user %s with request %s failed: %s",
-                                           username,
-                                           uri.toString()
-                                               .replace(PARAM_PASSWORD + "=" + password, PARAM_PASSWORD + "=[PROTECTED]"),
-                                           e.toString());
+            String message = String.format("Authenticating user %s with request %s failed: %s", username, uri, e.toString());
             log.warn(message);
             log.debug(message, e);
             throw new InternalAuthenticationServiceException(message, e);
         }
     }
+
+    @Override
+    public OAuth2AccessToken refreshOauthToken(String refreshToken) throws AuthenticationException {
+
+        URI uri = getTokenEndpointUri();
+        log.debug("Connecting to {} to refresh token.", uri);
+
+        try {
+            return requestToken(uri, PARAM_GRANT_TYPE, GRANT_TYPE_REFRESH_TOKEN, PARAM_REFRESH_TOKEN, refreshToken);
+        } catch (RestClientException e) {
+            String message = String.format("Refreshing token with request %s failed: %s", uri, e.toString());
+            log.warn(message);
+            log.debug(message, e);
+            throw new InternalAuthenticationServiceException(message, e);
+        }
+    }
+
+    /**
+     * Gets the URI of the token endpoint of the Auth Server, which is resolved once per configured Auth Server location.
+     *
+     * @return the URI
+     */
+    protected URI getTokenEndpointUri() {
+
+        String locationUri = authServerConnectionProperties.getLocationUri();
+        TokenEndpoint endpoint = tokenEndpoint;
+        if (endpoint == null || !endpoint.locationUri.equals(locationUri)) {
+            endpoint = new TokenEndpoint(locationUri, UriComponentsBuilder.fromHttpUrl(locationUri)
+                .pathSegment(PATH_OAUTH_TOKEN_REQUEST)
+                .build()
+                .toUri());
+            tokenEndpoint = endpoint;
+        }
+        return endpoint.uri;
+    }
+
+    private OAuth2AccessToken requestToken(URI uri, String... parameters) {
+
+        final byte[] body = encodeForm(parameters);
+        RequestCallback requestCallback = request -> {
+            request.getHeaders()
+                .setContentType(FORM_URLENCODED);
+            request.getHeaders()
+                .setContentLength(body.length);
+            request.getBody()
+                .write(body);
+        };
+
+        if (tokenExtractor == null) {
+            tokenExtractor = new HttpMessageConverterExtractor<>(OAuth2AccessToken.class, authServerRestTemplate.getMessageConverters());
+        }
+        return authServerRestTemplate.execute(uri, HttpMethod.POST, requestCallback, tokenExtractor);
+    }
+
+    /**
+     * Encodes name/value pairs as {@code application/x-www-form-urlencoded} body.
+     *
+     * @param parameters alternating names and values
+     * @return the UTF-8 encoded body
+     */
+    static byte[] encodeForm(String... parameters) {
+
+        StringBuilder form = new StringBuilder(128);
+        try {
+            for (int i = 0; i < parameters.length; i += 2) {
+                if (i > 0) {
+                    form.append('&');
+                }
+                form.append(URLEncoder.encode(parameters[i], StandardCharsets.UTF_8.name()))
+                    .append('=')
+                    .append(URLEncoder.encode(String.valueOf(parameters[i + 1]), StandardCharsets.UTF_8.name()));
+            }
+        } catch (UnsupportedEncodingException e) {
+            // every Java platform is required to support UTF-8
+            throw new IllegalStateException(e);
+        }
+        return form.toString()
+            .getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static class TokenEndpoint {
+
+        private final String locationUri;
+        private final URI uri;
+
+        TokenEndpoint(String locationUri, URI uri) {
+
+            this.locationUri = locationUri;
+            this.uri = uri;
+        }
+    }
 }
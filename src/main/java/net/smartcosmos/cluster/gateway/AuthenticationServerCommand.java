@@ -0,0 +1,56 @@
+package net.smartcosmos.cluster.gateway;
+
+import java.util.function.Supplier;
+
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+/**
+ * <p>Hystrix command requesting an OAuth2 access token from the Auth Server, using the command key {@value #COMMAND_KEY}.</p>
+ * <p>Rejected credentials are no failure of the Auth Server: the {@link BadCredentialsException} is passed on wrapped in a
+ * {@link HystrixBadRequestException}, so that it neither counts towards the circuit breaker nor triggers the fallback. Any other failure,
+ * a timeout or an open circuit returns the fallback token, which may be {@code null}.</p>
+ */
+public class AuthenticationServerCommand extends HystrixCommand<OAuth2AccessToken> {
+
+    public static final String COMMAND_KEY = "smartcosmos-auth-server";
+
+    private final AuthenticationClient authenticationClient;
+    private final String username;
+    private final String password;
+    private final Supplier<OAuth2AccessToken> fallbackToken;
+
+    public AuthenticationServerCommand(
+        Setter setter,
+        AuthenticationClient authenticationClient,
+        String username,
+        String password,
+        Supplier<OAuth2AccessToken> fallbackToken) {
+
+        super(setter);
+
+        this.authenticationClient = authenticationClient;
+        this.username = username;
+        this.password = password;
+        this.fallbackToken = fallbackToken;
+    }
+
+    @Override
+    protected OAuth2AccessToken run() throws Exception {
+
+        try {
+            return authenticationClient.getOauthToken(username, password);
+        } catch (BadCredentialsException e) {
+            throw new HystrixBadRequestException(e.getMessage(), e);
+        }
+    }
+
+    @Override
+    protected OAuth2AccessToken getFallback() {
+
+        return fallbackToken.get();
+    }
+}
@@ -0,0 +1,20 @@
+package net.smartcosmos.cluster.gateway;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown if an authentication request cannot be processed, because the Auth Server did not answer in time or the gateway does not accept
+ * any more pending authentication requests.
+ */
+public class AuthenticationServerUnavailableException extends AuthenticationServiceException {
+
+    public AuthenticationServerUnavailableException(String msg) {
+
+        super(msg);
+    }
+
+    public AuthenticationServerUnavailableException(String msg, Throwable t) {
+
+        super(msg, t);
+    }
+}
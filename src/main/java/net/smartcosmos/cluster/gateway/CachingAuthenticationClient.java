@@ -0,0 +1,222 @@
+package net.smartcosmos.cluster.gateway;
+
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+import com.netflix.hystrix.HystrixCommand;
+import com.netflix.hystrix.HystrixCommandGroupKey;
+import com.netflix.hystrix.HystrixCommandKey;
+import com.netflix.hystrix.HystrixCommandProperties;
+import com.netflix.hystrix.HystrixCommandProperties.ExecutionIsolationStrategy;
+import com.netflix.hystrix.exception.HystrixBadRequestException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.context.annotation.Primary;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.core.AuthenticationException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.stereotype.Service;
+
+import net.smartcosmos.cluster.gateway.cache.OAuthTokenCache;
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+/**
+ * <p>Authentication client that answers token requests from the {@link OAuthTokenCache} and only contacts the Auth Server (using the default
+ * {@link AuthenticationClient}) if there is no usable token cached for the provided credentials.</p>
+ * <p>Concurrent requests for the same credentials are coalesced: only the first caller triggers a request to the Auth Server, all others share
+ * its result or failure.</p>
+ * <p>Requests to the Auth Server are performed by a dedicated, bounded thread pool. Callers of {@link #getOauthToken(String, String)} wait
+ * slightly longer than the configured timeout of the command, so that the fallback of a command that timed out still reaches them, and a
+ * slow Auth Server does not hold gateway worker threads indefinitely. If the request is still queued when the caller gives up, the caller
+ * applies the fallback itself, and the queued request is answered with the fallback once it reaches a thread.</p>
+ * <p>Each request is executed as {@link AuthenticationServerCommand}, so that a circuit breaker stops contacting a failing Auth Server. Since
+ * the requests already run on the dedicated thread pool, the command uses semaphore isolation by default (configurable with the Hystrix
+ * properties of the command key {@value AuthenticationServerCommand#COMMAND_KEY}). If the Auth Server fails, a cached token that has not
+ * expired yet is returned, or an {@link AuthenticationServerUnavailableException} is thrown, depending on the configured fallback.</p>
+ */
+@Slf4j
+@Primary
+@Service
+public class CachingAuthenticationClient implements AuthenticationClient, AsyncAuthenticationClient, DisposableBean {
+
+    private static final String THREAD_NAME_PREFIX = "gateway-authentication-";
+    // time for the fallback to complete the request once the command timed out
+    private static final long FALLBACK_MARGIN = 100L;
+
+    private final AuthenticationClient authenticationClient;
+    private final OAuthTokenCache tokenCache;
+    private final ConcurrentMap<String, CompletableFuture<OAuth2AccessToken>> inFlightRequests = new ConcurrentHashMap<>();
+    private final ThreadPoolExecutor executor;
+    private final long timeout;
+    private final long maximumWait;
+    private final PreAuthorizationFilterProperties.Fallback fallback;
+    private final HystrixCommand.Setter commandSetter;
+
+    @Autowired
+    public CachingAuthenticationClient(
+        @Qualifier("authenticationClientDefault") AuthenticationClient authenticationClient,
+        OAuthTokenCache tokenCache,
+        PreAuthorizationFilterProperties properties) {
+
+        this.authenticationClient = authenticationClient;
+        this.tokenCache = tokenCache;
+
+        PreAuthorizationFilterProperties.Authentication authenticationProperties = properties.getAuthentication();
+        timeout = authenticationProperties.getTimeout();
+        maximumWait = timeout + FALLBACK_MARGIN;
+        fallback = authenticationProperties.getFallback();
+        commandSetter = HystrixCommand.Setter.withGroupKey(HystrixCommandGroupKey.Factory.asKey(AuthenticationServerCommand.COMMAND_KEY))
+            .andCommandKey(HystrixCommandKey.Factory.asKey(AuthenticationServerCommand.COMMAND_KEY))
+            .andCommandPropertiesDefaults(HystrixCommandProperties.Setter()
+                                              .withExecutionIsolationStrategy(ExecutionIsolationStrategy.SEMAPHORE)
+                                              .withExecutionIsolationSemaphoreMaxConcurrentRequests(authenticationProperties.getPoolSize())
+                                              .withExecutionTimeoutInMilliseconds((int) timeout));
+        executor = new ThreadPoolExecutor(authenticationProperties.getPoolSize(),
+                                          authenticationProperties.getPoolSize(),
+                                          60L,
+                                          TimeUnit.SECONDS,
+                                          new ArrayBlockingQueue<>(authenticationProperties.getQueueSize()),
+                                          new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+        executor.allowCoreThreadTimeOut(true);
+    }
+
+    @Override
+    public OAuth2AccessToken getOauthToken(String username, String password) throws AuthenticationException {
+
+        try {
+            return getOauthTokenAsync(username, password).get(maximumWait, TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new InternalAuthenticationServiceException(e.getCause()
+                                                                 .toString(), e.getCause());
+        } catch (TimeoutException e) {
+            // the request did not get a thread in time, so the command could not time out and fall back either
+            OAuth2AccessToken token = getFallbackToken(tokenCache.getKey(username, password));
+            if (token != null) {
+                log.debug("Token request for user {} is still pending, using cached token.", username);
+                return token;
+            }
+            throw new AuthenticationServerUnavailableException(String.format("No response from Auth Server within %d ms", maximumWait), e);
+        } catch (InterruptedException e) {
+            Thread.currentThread()
+                .interrupt();
+            throw new InternalAuthenticationServiceException("Interrupted while waiting for token request", e);
+        }
+    }
+
+    @Override
+    public CompletableFuture<OAuth2AccessToken> getOauthTokenAsync(String username, String password) {
+
+        String key = tokenCache.getKey(username, password);
+        OAuth2AccessToken token = tokenCache.get(key);
+        if (token != null) {
+            log.trace("Using cached token for user {}.", username);
+            return CompletableFuture.completedFuture(token);
+        }
+
+        CompletableFuture<OAuth2AccessToken> request = new CompletableFuture<>();
+        CompletableFuture<OAuth2AccessToken> inFlightRequest = inFlightRequests.putIfAbsent(key, request);
+        if (inFlightRequest != null) {
+            log.trace("Joining token request in flight for user {}.", username);
+            return inFlightRequest;
+        }
+
+        long queued = System.nanoTime();
+        try {
+            executor.execute(() -> requestToken(key, username, password, request, queued));
+        } catch (RejectedExecutionException e) {
+            inFlightRequests.remove(key, request);
+            request.completeExceptionally(new AuthenticationServerUnavailableException("Too many pending authentication requests", e));
+        }
+        return request;
+    }
+
+    @Override
+    public OAuth2AccessToken refreshOauthToken(String refreshToken) throws AuthenticationException {
+
+        return authenticationClient.refreshOauthToken(refreshToken);
+    }
+
+    /**
+     * Gets the number of distinct credentials for which a token request to the Auth Server is currently in flight.
+     *
+     * @return the number of requests in flight
+     */
+    public int getInFlightRequestCount() {
+
+        return inFlightRequests.size();
+    }
+
+    private void requestToken(String key, String username, String password, CompletableFuture<OAuth2AccessToken> request, long queued) {
+
+        // the request is removed before it is completed, so that callers arriving afterwards either hit the cache or start a new request
+        try {
+            if (TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - queued) > timeout) {
+                // the callers give up before the command could time out, so the Auth Server is not contacted anymore
+                OAuth2AccessToken token = getFallbackToken(key);
+                if (token == null) {
+                    throw new AuthenticationServerUnavailableException(String.format("Token request waited more than %d ms for a thread",
+                                                                                     timeout));
+                }
+                log.debug("Token request waited too long for a thread, using cached token for user {}.", username);
+                inFlightRequests.remove(key, request);
+                request.complete(token);
+                return;
+            }
+
+            AuthenticationServerCommand command = new AuthenticationServerCommand(commandSetter,
+                                                                                  authenticationClient,
+                                                                                  username,
+                                                                                  password,
+                                                                                  () -> getFallbackToken(key));
+            OAuth2AccessToken token = command.execute();
+            if (token == null) {
+                throw new AuthenticationServerUnavailableException(String.format("Auth Server request failed: %s",
+                                                                                 command.getExecutionEvents()),
+                                                                   command.getFailedExecutionException());
+            }
+            if (command.isResponseFromFallback()) {
+                log.debug("Auth Server request failed, using cached token for user {}: {}", username, command.getExecutionEvents());
+            } else {
+                tokenCache.put(key, username, token);
+            }
+            inFlightRequests.remove(key, request);
+            request.complete(token);
+        } catch (HystrixBadRequestException e) {
+            inFlightRequests.remove(key, request);
+            request.completeExceptionally(e.getCause() != null ? e.getCause() : e);
+        } catch (HystrixRuntimeException e) {
+            inFlightRequests.remove(key, request);
+            request.completeExceptionally(new AuthenticationServerUnavailableException(String.format("Auth Server request failed: %s",
+                                                                                                     e.getFailureType()), e));
+        } catch (Throwable t) {
+            inFlightRequests.remove(key, request);
+            request.completeExceptionally(t);
+        }
+    }
+
+    private OAuth2AccessToken getFallbackToken(String key) {
+
+        return fallback == PreAuthorizationFilterProperties.Fallback.CACHED_TOKEN ? tokenCache.getUnexpired(key) : null;
+    }
+
+    @Override
+    public void destroy() {
+
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,39 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.Getter;
+
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+/**
+ * <p>Entry of the {@link OAuthTokenCache}: the token, the user it was issued for, when the credentials were last verified by the Auth Server
+ * and its hit count.</p>
+ * <p>The password is never kept, tokens are only renewed in the background using their refresh token. A renewed token keeps the time of
+ * the original authentication, so the entry still expires after the maximum time to live.</p>
+ */
+@Getter
+public class CachedToken {
+
+    private final OAuth2AccessToken token;
+    private final String username;
+    private final long authenticatedAt;
+    private final LongAdder hits = new LongAdder();
+
+    CachedToken(OAuth2AccessToken token, String username, long authenticatedAt) {
+
+        this.token = token;
+        this.username = username;
+        this.authenticatedAt = authenticatedAt;
+    }
+
+    public long getHitCount() {
+
+        return hits.sum();
+    }
+
+    void hit() {
+
+        hits.increment();
+    }
+}
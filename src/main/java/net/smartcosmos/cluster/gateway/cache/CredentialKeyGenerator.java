@@ -0,0 +1,58 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.util.Base64;
+
+/**
+ * <p>Derives cache keys from Basic Auth credentials.</p>
+ * <p>The key is a SHA-256 hash of username and password, salted with a random value generated per instance, so that neither the plaintext
+ * password nor an unsalted hash of it is ever kept in memory as part of a cache key.</p>
+ */
+public class CredentialKeyGenerator {
+
+    private static final String HASH_ALGORITHM = "SHA-256";
+    private static final int SALT_LENGTH = 16;
+
+    private final byte[] salt;
+
+    public CredentialKeyGenerator() {
+
+        salt = new byte[SALT_LENGTH];
+        new SecureRandom().nextBytes(salt);
+    }
+
+    /**
+     * Generates the cache key for the given credentials.
+     *
+     * @param username the username
+     * @param password the password
+     * @return the Base64 encoded salted hash
+     */
+    public String generateKey(String username, String password) {
+
+        MessageDigest digest = getDigest();
+        digest.update(salt);
+        digest.update(String.valueOf(username)
+                          .getBytes(StandardCharsets.UTF_8));
+        // separator byte, so that "ab" + "c" and "a" + "bc" do not collide
+        digest.update((byte) 0);
+        digest.update(String.valueOf(password)
+                          .getBytes(StandardCharsets.UTF_8));
+
+        return Base64.getEncoder()
+            .encodeToString(digest.digest());
+    }
+
+    private static MessageDigest getDigest() {
+
+        try {
+            return MessageDigest.getInstance(HASH_ALGORITHM);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+}
@@ -0,0 +1,252 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Date;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.cache.RemovalListener;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+/**
+ * <p>Bounded cache of OAuth2 access tokens, keyed by a salted hash of the Basic Auth credentials they were issued for.</p>
+ * <p>A cached token is only handed out as long as it does not expire within the configured expiry margin. Entries are evicted by size (least
+ * recently used first) and after the configured maximum time to live. The time to live counts from the authentication with the credentials,
+ * so entries whose token was refreshed in the background expire as well. Hits, misses and evictions are published as metrics.</p>
+ */
+@Component
+@EnableConfigurationProperties({ PreAuthorizationFilterProperties.class })
+public class OAuthTokenCache implements PublicMetrics {
+
+    private static final String METRIC_PREFIX = "gateway.token-cache.";
+
+    private final boolean enabled;
+    private final long expiryMarginMillis;
+    private final long maximumTimeToLiveMillis;
+    private final CredentialKeyGenerator keyGenerator;
+    private final Cache<String, CachedToken> cache;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder evictions = new LongAdder();
+
+    @Autowired
+    public OAuthTokenCache(PreAuthorizationFilterProperties properties) {
+
+        PreAuthorizationFilterProperties.TokenCache cacheProperties = properties.getTokenCache();
+
+        enabled = cacheProperties.isEnabled();
+        expiryMarginMillis = TimeUnit.SECONDS.toMillis(cacheProperties.getExpiryMargin());
+        maximumTimeToLiveMillis = TimeUnit.SECONDS.toMillis(cacheProperties.getMaximumTimeToLive());
+        keyGenerator = new CredentialKeyGenerator();
+
+        RemovalListener<String, CachedToken> removalListener = notification -> {
+            if (notification.wasEvicted()) {
+                evictions.increment();
+            }
+        };
+        cache = CacheBuilder.newBuilder()
+            .maximumSize(cacheProperties.getMaximumSize())
+            .expireAfterWrite(cacheProperties.getMaximumTimeToLive(), TimeUnit.SECONDS)
+            .removalListener(removalListener)
+            .build();
+    }
+
+    public boolean isEnabled() {
+
+        return enabled;
+    }
+
+    /**
+     * Gets the cache key for the given credentials.
+     *
+     * @param username the username
+     * @param password the password
+     * @return the key
+     */
+    public String getKey(String username, String password) {
+
+        return keyGenerator.generateKey(username, password);
+    }
+
+    /**
+     * Gets the cached token for a key, if it is still usable.
+     *
+     * @param key the key of the credentials
+     * @return the token, or {@code null} if there is no cached token or it is about to expire
+     */
+    public OAuth2AccessToken get(String key) {
+
+        if (!enabled) {
+            return null;
+        }
+
+        CachedToken entry = getEntry(key);
+        if (entry != null && isUsable(entry.getToken())) {
+            entry.hit();
+            hits.increment();
+            return entry.getToken();
+        }
+
+        // tokens within the expiry margin are kept, they may still be handed out by getUnexpired() or refreshed in the background
+        if (entry != null && entry.getToken()
+            .isExpired()) {
+            cache.invalidate(key);
+        }
+        misses.increment();
+        return null;
+    }
+
+    /**
+     * Gets the cached token for a key as long as it has not expired, ignoring the expiry margin. Meant as a fallback if no new token can be
+     * retrieved.
+     *
+     * @param key the key of the credentials
+     * @return the token, or {@code null} if there is no cached token or it has expired
+     */
+    public OAuth2AccessToken getUnexpired(String key) {
+
+        if (!enabled) {
+            return null;
+        }
+
+        CachedToken entry = getEntry(key);
+        if (entry != null && !entry.getToken()
+            .isExpired()) {
+            return entry.getToken();
+        }
+        return null;
+    }
+
+    /**
+     * Gets the cache entry for a key, regardless of the expiration of its token.
+     *
+     * @param key the key of the credentials
+     * @return the entry, or {@code null} if there is none or its maximum time to live has passed
+     */
+    public CachedToken getEntry(String key) {
+
+        CachedToken entry = cache.getIfPresent(key);
+        if (entry != null && !isWithinTimeToLive(entry)) {
+            cache.invalidate(key);
+            return null;
+        }
+        return entry;
+    }
+
+    /**
+     * Caches a token retrieved with the credentials for a key, unless it is already about to expire.
+     *
+     * @param key the key of the credentials
+     * @param username the username the token was issued for
+     * @param token the token
+     */
+    public void put(String key, String username, OAuth2AccessToken token) {
+
+        if (token != null) {
+            put(key, new CachedToken(token, username, System.currentTimeMillis()));
+        }
+    }
+
+    /**
+     * Replaces the token of an entry with one retrieved with its refresh token. The entry keeps the time of the authentication with the
+     * credentials, and is removed instead if its maximum time to live has passed.
+     *
+     * @param key the key of the credentials
+     * @param entry the entry whose token was refreshed
+     * @param token the refreshed token
+     */
+    public void putRefreshed(String key, CachedToken entry, OAuth2AccessToken token) {
+
+        if (!isWithinTimeToLive(entry)) {
+            cache.invalidate(key);
+        } else if (token != null) {
+            put(key, new CachedToken(token, entry.getUsername(), entry.getAuthenticatedAt()));
+        }
+    }
+
+    void put(String key, CachedToken entry) {
+
+        if (enabled && isUsable(entry.getToken())) {
+            cache.put(key, entry);
+        }
+    }
+
+    /**
+     * Checks if the credentials of an entry were verified by the Auth Server within the maximum time to live.
+     *
+     * @param entry the entry
+     * @return {@code true} if the entry may still be used or refreshed
+     */
+    public boolean isWithinTimeToLive(CachedToken entry) {
+
+        return System.currentTimeMillis() - entry.getAuthenticatedAt() < maximumTimeToLiveMillis;
+    }
+
+    /**
+     * Removes the cached token for a key.
+     *
+     * @param key the key of the credentials
+     */
+    public void invalidate(String key) {
+
+        cache.invalidate(key);
+    }
+
+    /**
+     * Gets the keys of all entries that were requested at least {@code minimumHits} times since they were stored, and whose token expires
+     * within the given time.
+     *
+     * @param expiresWithinMillis the time in milliseconds
+     * @param minimumHits the minimum number of hits
+     * @return the keys
+     */
+    public List<String> getHotKeysExpiringWithin(long expiresWithinMillis, long minimumHits) {
+
+        long threshold = System.currentTimeMillis() + expiresWithinMillis;
+
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, CachedToken> entry : cache.asMap()
+            .entrySet()) {
+            Date expiration = entry.getValue()
+                .getToken()
+                .getExpiration();
+            if (expiration != null && expiration.getTime() < threshold && entry.getValue()
+                                                                               .getHitCount() >= minimumHits
+                && isWithinTimeToLive(entry.getValue())) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    protected boolean isUsable(OAuth2AccessToken token) {
+
+        Date expiration = token.getExpiration();
+        return expiration == null || expiration.getTime() - System.currentTimeMillis() > expiryMarginMillis;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(METRIC_PREFIX + "size", cache.size()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "hit", hits.sum()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "miss", misses.sum()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "eviction", evictions.sum()));
+        return metrics;
+    }
+}
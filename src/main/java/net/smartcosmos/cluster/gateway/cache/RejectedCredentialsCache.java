@@ -0,0 +1,242 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+/**
+ * <p>Short-lived memory of authentication failures, so that clients repeatedly sending rejected credentials are answered locally instead of
+ * contacting the Auth Server on every attempt.</p>
+ * <p>After a failure, the credentials are rejected for a back-off period that starts with {@code initial-back-off} and doubles with every
+ * further failure, up to {@code maximum-back-off}. Client addresses are tracked the same way, but only blocked after
+ * {@code address-threshold} failures, and only for credentials that did not authenticate successfully recently, so that valid clients
+ * behind the same proxy or NAT as a misbehaving one are not locked out. Every success from an address halves its failure count.
+ * Credentials are tracked by a salted hash only.</p>
+ * <p>Failures are forgotten twice the maximum back-off after the last one.</p>
+ */
+@Component
+@EnableConfigurationProperties({ PreAuthorizationFilterProperties.class })
+public class RejectedCredentialsCache implements PublicMetrics {
+
+    private static final String METRIC_PREFIX = "gateway.rejection-cache.";
+
+    private final boolean enabled;
+    private final long initialBackOff;
+    private final long maximumBackOff;
+    private final int addressThreshold;
+    private final Set<String> trustedProxies;
+    private final CredentialKeyGenerator keyGenerator;
+    private final Cache<String, FailureRecord> credentialFailures;
+    private final Cache<String, FailureRecord> addressFailures;
+    private final Cache<String, Boolean> authenticatedCredentials;
+
+    private final LongAdder rejectedCredentials = new LongAdder();
+    private final LongAdder rejectedAddresses = new LongAdder();
+
+    @Autowired
+    public RejectedCredentialsCache(PreAuthorizationFilterProperties properties) {
+
+        PreAuthorizationFilterProperties.RejectionCache cacheProperties = properties.getRejectionCache();
+
+        enabled = cacheProperties.isEnabled();
+        initialBackOff = cacheProperties.getInitialBackOff();
+        maximumBackOff = cacheProperties.getMaximumBackOff();
+        addressThreshold = cacheProperties.getAddressThreshold();
+        trustedProxies = new HashSet<>(cacheProperties.getTrustedProxies());
+        keyGenerator = new CredentialKeyGenerator();
+
+        // failures are forgotten twice the maximum back-off after the last one, lookups of rejected requests don't extend them
+        credentialFailures = CacheBuilder.newBuilder()
+            .maximumSize(cacheProperties.getMaximumSize())
+            .expireAfterWrite(2 * maximumBackOff, TimeUnit.MILLISECONDS)
+            .build();
+        addressFailures = CacheBuilder.newBuilder()
+            .maximumSize(cacheProperties.getMaximumSize())
+            .expireAfterWrite(2 * maximumBackOff, TimeUnit.MILLISECONDS)
+            .build();
+        authenticatedCredentials = CacheBuilder.newBuilder()
+            .maximumSize(cacheProperties.getMaximumSize())
+            .expireAfterWrite(2 * maximumBackOff, TimeUnit.MILLISECONDS)
+            .build();
+    }
+
+    /**
+     * Gets the address of the client that sent a request. If the request was sent by a trusted proxy, the client address is the last
+     * address in the {@code X-Forwarded-For} header that is not a trusted proxy itself.
+     *
+     * @param remoteAddress the address the request was received from
+     * @param forwardedFor the value of the {@code X-Forwarded-For} header, may be {@code null}
+     * @return the client address
+     */
+    public String getClientAddress(String remoteAddress, String forwardedFor) {
+
+        if (StringUtils.isEmpty(forwardedFor) || !trustedProxies.contains(remoteAddress)) {
+            return remoteAddress;
+        }
+
+        String[] addresses = StringUtils.split(forwardedFor, ',');
+        for (int i = addresses.length - 1; i >= 0; i--) {
+            String address = addresses[i].trim();
+            if (!trustedProxies.contains(address) || i == 0) {
+                return address;
+            }
+        }
+        return remoteAddress;
+    }
+
+    /**
+     * Gets the key for the given credentials.
+     *
+     * @param username the username
+     * @param password the password
+     * @return the key
+     */
+    public String getKey(String username, String password) {
+
+        return keyGenerator.generateKey(username, password);
+    }
+
+    /**
+     * Checks if a request has to be rejected without contacting the Auth Server.
+     *
+     * @param key the key of the credentials
+     * @param address the client address, may be {@code null}
+     * @return {@code true} if the credentials are currently backing off, or the client address is and the credentials did not authenticate
+     * successfully recently
+     */
+    public boolean isRejected(String key, String address) {
+
+        if (!enabled) {
+            return false;
+        }
+
+        long now = System.currentTimeMillis();
+
+        FailureRecord credentialRecord = credentialFailures.getIfPresent(key);
+        if (credentialRecord != null && credentialRecord.isBlocked(now)) {
+            rejectedCredentials.increment();
+            return true;
+        }
+
+        FailureRecord addressRecord = StringUtils.isNotEmpty(address) ? addressFailures.getIfPresent(address) : null;
+        if (addressRecord != null && addressRecord.isBlocked(now) && authenticatedCredentials.getIfPresent(key) == null) {
+            rejectedAddresses.increment();
+            return true;
+        }
+
+        return false;
+    }
+
+    /**
+     * Records an authentication failure and extends the back-off of the credentials and the client address.
+     *
+     * @param key the key of the credentials
+     * @param address the client address, may be {@code null}
+     */
+    public void recordFailure(String key, String address) {
+
+        if (!enabled) {
+            return;
+        }
+
+        long now = System.currentTimeMillis();
+
+        recordFailure(credentialFailures, key, now, 1);
+        if (StringUtils.isNotEmpty(address)) {
+            recordFailure(addressFailures, address, now, addressThreshold);
+        }
+    }
+
+    /**
+     * Forgets the failures of credentials after a successful authentication, remembers them as valid and reduces the failures of the client
+     * address.
+     *
+     * @param key the key of the credentials
+     * @param address the client address, may be {@code null}
+     */
+    public void recordSuccess(String key, String address) {
+
+        if (!enabled) {
+            return;
+        }
+
+        if (authenticatedCredentials.getIfPresent(key) == null) {
+            authenticatedCredentials.put(key, Boolean.TRUE);
+        }
+        if (credentialFailures.size() > 0) {
+            credentialFailures.invalidate(key);
+        }
+        if (addressFailures.size() > 0 && StringUtils.isNotEmpty(address)) {
+            FailureRecord addressRecord = addressFailures.getIfPresent(address);
+            if (addressRecord != null) {
+                addressRecord.recordSuccess(addressThreshold);
+            }
+        }
+    }
+
+    private void recordFailure(Cache<String, FailureRecord> cache, String key, long now, int threshold) {
+
+        // compute counts as write, so that the entry expires relative to the last failure
+        cache.asMap()
+            .compute(key, (k, record) -> {
+                FailureRecord failureRecord = record != null ? record : new FailureRecord();
+                failureRecord.recordFailure(now, threshold);
+                return failureRecord;
+            });
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(METRIC_PREFIX + "credentials.size", credentialFailures.size()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "addresses.size", addressFailures.size()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "credentials.rejected", rejectedCredentials.sum()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "addresses.rejected", rejectedAddresses.sum()));
+        return metrics;
+    }
+
+    private class FailureRecord {
+
+        private int failures;
+        private long blockedUntil;
+
+        synchronized boolean isBlocked(long now) {
+
+            return now < blockedUntil;
+        }
+
+        synchronized void recordFailure(long now, int threshold) {
+
+            failures++;
+            if (failures >= threshold) {
+                // cap the exponent, the back-off reaches its maximum long before
+                int exponent = Math.min(failures - threshold, 30);
+                blockedUntil = now + Math.min(initialBackOff << exponent, maximumBackOff);
+            }
+        }
+
+        synchronized void recordSuccess(int threshold) {
+
+            failures /= 2;
+            if (failures < threshold) {
+                blockedUntil = 0;
+            }
+        }
+    }
+}
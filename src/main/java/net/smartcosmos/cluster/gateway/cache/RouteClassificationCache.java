@@ -0,0 +1,151 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+import static org.apache.commons.lang.StringUtils.isNotBlank;
+
+/**
+ * <p>Remembers the route matching a request path, so that the Ant path matching against all configured routes is not repeated on every
+ * request. The {@code NotFoundFilter} uses the matched route to answer unmatched requests, the {@code PreAuthorizationFilter} to find
+ * routes that are handled locally by the gateway (forwarding route), so a request is matched at most once for both.</p>
+ * <p>Paths without a matching route are not cached, so that requests to arbitrary paths cannot evict the routes of valid requests.</p>
+ * <p>The cache is cleared on {@link RoutesRefreshedEvent}, and on discovery heartbeats if the located routes have changed: a route of a
+ * newly discovered service may take over paths that matched a forwarding route before. Heartbeats that don't change the routes keep the
+ * cache.</p>
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties({ PreAuthorizationFilterProperties.class })
+public class RouteClassificationCache implements PublicMetrics {
+
+    private static final String METRIC_PREFIX = "gateway.route-cache.";
+    private static final String LOCAL_HANDLING_PREFIX = "forward:";
+
+    private final RouteLocator routeLocator;
+    private final boolean enabled;
+    private final Cache<String, Route> matchingRoutes;
+    private volatile List<Route> routes = Collections.emptyList();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public RouteClassificationCache(RouteLocator routeLocator, PreAuthorizationFilterProperties properties) {
+
+        PreAuthorizationFilterProperties.RouteCache cacheProperties = properties.getRouteCache();
+
+        this.routeLocator = routeLocator;
+        enabled = cacheProperties.isEnabled();
+        matchingRoutes = CacheBuilder.newBuilder()
+            .maximumSize(cacheProperties.getMaximumSize())
+            .build();
+    }
+
+    /**
+     * Checks if the given path matches a route that is handled locally, i.e. whose location starts with {@code forward:}.
+     *
+     * @param path the request path within the application
+     * @return {@code true} if the path matches a forwarding route
+     */
+    public boolean isForwardingRoute(String path) {
+
+        Route route = getMatchingRoute(path);
+        if (route != null && isNotBlank(route.getLocation())) {
+            return route.getLocation()
+                .startsWith(LOCAL_HANDLING_PREFIX);
+        }
+        return false;
+    }
+
+    /**
+     * Gets the route matching the given path.
+     *
+     * @param path the request path within the application
+     * @return the matching route, or {@code null} if no route matches
+     */
+    public Route getMatchingRoute(String path) {
+
+        if (!enabled || path == null) {
+            return routeLocator.getMatchingRoute(path);
+        }
+
+        Route route = matchingRoutes.getIfPresent(path);
+        if (route != null) {
+            hits.increment();
+            return route;
+        }
+
+        misses.increment();
+        route = routeLocator.getMatchingRoute(path);
+        if (route != null) {
+            matchingRoutes.put(path, route);
+        }
+        return route;
+    }
+
+    /**
+     * Clears the cache if the Zuul routes were refreshed.
+     *
+     * @param event the event
+     */
+    @EventListener
+    public void onRoutesRefreshed(RoutesRefreshedEvent event) {
+
+        log.debug("Zuul routes refreshed, clearing route classification cache");
+        invalidateAll();
+    }
+
+    /**
+     * Clears the cache on discovery heartbeats if the routes have changed, since routes of newly discovered services are added by the route
+     * locator.
+     *
+     * @param event the event
+     */
+    @EventListener
+    public void onHeartbeat(HeartbeatEvent event) {
+
+        // the order of the routes is compared as well, since it decides which route matches first
+        List<Route> currentRoutes = routeLocator.getRoutes();
+        if (!currentRoutes.equals(routes)) {
+            log.debug("Zuul routes changed, clearing route classification cache");
+            routes = currentRoutes;
+            invalidateAll();
+        }
+    }
+
+    public void invalidateAll() {
+
+        matchingRoutes.invalidateAll();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(METRIC_PREFIX + "size", matchingRoutes.size()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "hit", hits.sum()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "miss", misses.sum()));
+        return metrics;
+    }
+}
@@ -0,0 +1,140 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.AuthenticationClient;
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+/**
+ * <p>Renews cached tokens of hot credentials in the background before they expire, so that frequent clients never wait for the Auth Server on
+ * the request path.</p>
+ * <p>Credentials are hot if their cached token was requested at least {@code hot-threshold} times since it was stored. Tokens are renewed
+ * using their refresh token. Tokens without refresh token are left to expire, since the password needed for a new grant is not kept. Once
+ * the credentials were last verified more than {@code maximum-time-to-live} seconds ago, tokens are no longer refreshed, so that a changed
+ * password or a revoked user takes effect.</p>
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties({ PreAuthorizationFilterProperties.class })
+public class TokenRefresher implements InitializingBean, DisposableBean, PublicMetrics {
+
+    private static final String METRIC_PREFIX = "gateway.token-refresh.";
+    private static final String THREAD_NAME_PREFIX = "gateway-token-refresh-";
+
+    private final AuthenticationClient authenticationClient;
+    private final OAuthTokenCache tokenCache;
+    private final PreAuthorizationFilterProperties.TokenRefresh refreshProperties;
+    private final ScheduledThreadPoolExecutor executor;
+    private final Set<String> pendingRefreshes = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder refreshed = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+
+    @Autowired
+    public TokenRefresher(
+        @Qualifier("authenticationClientDefault") AuthenticationClient authenticationClient,
+        OAuthTokenCache tokenCache,
+        PreAuthorizationFilterProperties properties) {
+
+        this.authenticationClient = authenticationClient;
+        this.tokenCache = tokenCache;
+        this.refreshProperties = properties.getTokenRefresh();
+
+        executor = new ScheduledThreadPoolExecutor(refreshProperties.getConcurrency(), new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        if (refreshProperties.isEnabled() && tokenCache.isEnabled()) {
+            executor.scheduleWithFixedDelay(this::refreshHotTokens,
+                                            refreshProperties.getInterval(),
+                                            refreshProperties.getInterval(),
+                                            TimeUnit.SECONDS);
+        }
+    }
+
+    /**
+     * Schedules a refresh for every hot token that expires within the configured lead time.
+     */
+    public void refreshHotTokens() {
+
+        try {
+            for (String key : tokenCache.getHotKeysExpiringWithin(TimeUnit.SECONDS.toMillis(refreshProperties.getLeadTime()),
+                                                                  refreshProperties.getHotThreshold())) {
+                if (pendingRefreshes.add(key)) {
+                    executor.execute(() -> refresh(key));
+                }
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic execution
+            log.warn("Checking for tokens to refresh failed: {}", e.toString());
+        }
+    }
+
+    protected void refresh(String key) {
+
+        try {
+            // entries past their maximum time to live are removed, the next request has to authenticate with the credentials again
+            CachedToken entry = tokenCache.getEntry(key);
+            if (entry == null) {
+                return;
+            }
+
+            OAuth2AccessToken token = entry.getToken();
+            if (token.getRefreshToken() == null) {
+                return;
+            }
+
+            OAuth2AccessToken newToken = authenticationClient.refreshOauthToken(token.getRefreshToken()
+                                                                                    .getValue());
+            tokenCache.putRefreshed(key, entry, newToken);
+            refreshed.increment();
+            log.debug("Refreshed token for user {}.", entry.getUsername());
+        } catch (BadCredentialsException e) {
+            // the refresh token is no longer valid, the next request has to authenticate again
+            tokenCache.invalidate(key);
+            failed.increment();
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.debug("Refreshing token failed: {}", e.toString());
+        } finally {
+            pendingRefreshes.remove(key);
+        }
+    }
+
+    @Override
+    public void destroy() {
+
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(METRIC_PREFIX + "success", refreshed.sum()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "failure", failed.sum()));
+        return metrics;
+    }
+}
@@ -19,4 +19,37 @@ public class AuthenticationServerConnectionProperties {
     private String locationUri = "http://smartcosmos-auth-server";
     private String name = "ServiceUserNameThatWillFail";
     private String password = "DefaultServicePasswordThatWillFail";
+
+    /**
+     * Maximum number of pooled connections per Auth Server instance.
+     */
+    private int maxConnectionsPerRoute = 50;
+    /**
+     * Maximum number of pooled connections in total.
+     */
+    private int maxConnectionsTotal = 200;
+    /**
+     * Milliseconds to wait for a connection to be established.
+     */
+    private int connectTimeout = 2000;
+    /**
+     * Milliseconds to wait for data on an established connection.
+     */
+    private int readTimeout = 10000;
+    /**
+     * Milliseconds to wait for a free connection from the pool.
+     */
+    private int connectionRequestTimeout = 2000;
+    /**
+     * Milliseconds after which idle connections are evicted from the pool.
+     */
+    private long idleConnectionTimeout = 30000;
+    /**
+     * Milliseconds a connection is kept alive if the Auth Server does not send a Keep-Alive header.
+     */
+    private long keepAlive = 60000;
+    /**
+     * Maximum number of bytes read from an error response body, the connection is discarded if the body is larger.
+     */
+    private int maxErrorBodySize = 64 * 1024;
 }
@@ -0,0 +1,70 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+import org.springframework.http.client.ClientHttpRequestInterceptor;
+import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.util.Base64Utils;
+
+/**
+ * <p>Adds the Basic Auth header of the gateway service user to requests to the Auth Server.</p>
+ * <p>The header value is computed once and reused for every request. It is only computed again if the credentials in the
+ * {@link AuthenticationServerConnectionProperties} were replaced, e.g. when the properties were rebound after a configuration refresh.</p>
+ */
+class BasicAuthorizationInterceptor implements ClientHttpRequestInterceptor {
+
+    private static final String BASIC_AUTHENTICATION_HEADER = "Basic ";
+
+    private final AuthenticationServerConnectionProperties authServerConnectionProperties;
+    private volatile AuthorizationHeader authorizationHeader;
+
+    BasicAuthorizationInterceptor(AuthenticationServerConnectionProperties authServerConnectionProperties) {
+
+        this.authServerConnectionProperties = authServerConnectionProperties;
+        this.authorizationHeader = new AuthorizationHeader(authServerConnectionProperties.getName(), authServerConnectionProperties.getPassword());
+    }
+
+    @Override
+    public ClientHttpResponse intercept(
+        HttpRequest request, byte[] body,
+        ClientHttpRequestExecution execution) throws IOException {
+
+        request.getHeaders()
+            .set(HttpHeaders.AUTHORIZATION, getHeaderValue());
+        return execution.execute(request, body);
+    }
+
+    String getHeaderValue() {
+
+        AuthorizationHeader header = authorizationHeader;
+        String username = authServerConnectionProperties.getName();
+        String password = authServerConnectionProperties.getPassword();
+
+        // rebinding the properties sets new String instances, so comparing references is sufficient and cheap
+        if (header.username != username || header.password != password) {
+            header = new AuthorizationHeader(username, password);
+            authorizationHeader = header;
+        }
+        return header.value;
+    }
+
+    private static final class AuthorizationHeader {
+
+        private final String username;
+        private final String password;
+        private final String value;
+
+        private AuthorizationHeader(String username, String password) {
+
+            this.username = username;
+            this.password = password;
+
+            String token = Base64Utils.encodeToString((username + ":" + (password == null ? "" : password)).getBytes(StandardCharsets.UTF_8));
+            this.value = BASIC_AUTHENTICATION_HEADER + token;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties read from the configuration files to tune the adaptive limit of concurrent requests per downstream service.
+ */
+@Data
+@ConfigurationProperties("smartcosmos.gateway.concurrency-limit")
+public class ConcurrencyLimitProperties {
+
+    private boolean enabled = false;
+    /**
+     * Limit of concurrent requests a service starts with.
+     */
+    private int initialLimit = 200;
+    /**
+     * Lower bound of the limit.
+     */
+    private int minLimit = 20;
+    /**
+     * Upper bound of the limit.
+     */
+    private int maxLimit = 2000;
+    /**
+     * Factor applied to the limit if a request failed or took considerably longer than usual, at most once per average latency.
+     */
+    private double backoffRatio = 0.9;
+    /**
+     * A request counts as overload if its latency exceeds the average latency by this factor.
+     */
+    private double latencyTolerance = 2.0;
+    /**
+     * Weight of a new sample in the moving average of the latency.
+     */
+    private double smoothing = 0.01;
+}
@@ -0,0 +1,26 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties read from the configuration files to control the logging of failed requests.
+ */
+@Data
+@ConfigurationProperties("smartcosmos.gateway.error-logging")
+public class ErrorLoggingProperties {
+
+    /**
+     * Seconds between two summaries of the failed requests.
+     */
+    private int interval = 60;
+    /**
+     * Number of failed requests per interval that are logged individually at WARN level.
+     */
+    private int samplesPerInterval = 10;
+    /**
+     * Maximum number of distinct route/service/status/exception combinations that are counted separately.
+     */
+    private int maximumKeys = 1000;
+}
@@ -0,0 +1,28 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.http.HttpStatus;
+
+/**
+ * Properties read from the configuration files to map routing exceptions to the status of the error response. The mappings are added to the
+ * default mappings of the {@code ExceptionStatusClassifier}, or replace them for the same key.
+ */
+@Data
+@ConfigurationProperties("smartcosmos.gateway.exception-status")
+public class ExceptionStatusProperties {
+
+    /**
+     * Status per fully qualified exception class name, subclasses are mapped the same unless mapped themselves.
+     */
+    private Map<String, HttpStatus> exceptions = new HashMap<>();
+    /**
+     * Status per Hystrix failure type, for Hystrix commands failing without a mapped exception.
+     */
+    private Map<HystrixRuntimeException.FailureType, HttpStatus> hystrixFailures = new HashMap<>();
+}
@@ -1,33 +1,41 @@
 package net.smartcosmos.cluster.gateway.config;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Collections;
+import java.util.Arrays;
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.conn.ConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClientBuilder;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.web.ServerProperties;
 import org.springframework.boot.context.embedded.undertow.UndertowDeploymentInfoCustomizer;
 import org.springframework.boot.context.embedded.undertow.UndertowEmbeddedServletContainerFactory;
 import org.springframework.boot.context.properties.EnableConfigurationProperties;
-import org.springframework.cloud.netflix.ribbon.RibbonClientHttpRequestFactory;
-import org.springframework.cloud.netflix.ribbon.SpringClientFactory;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerInterceptor;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.context.annotation.Profile;
-import org.springframework.http.HttpHeaders;
-import org.springframework.http.HttpRequest;
-import org.springframework.http.client.ClientHttpRequestExecution;
 import org.springframework.http.client.ClientHttpRequestInterceptor;
-import org.springframework.http.client.ClientHttpResponse;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
 import org.springframework.http.client.InterceptingClientHttpRequestFactory;
 import org.springframework.security.config.annotation.authentication.configuration.EnableGlobalAuthentication;
 import org.springframework.security.config.annotation.authentication.configurers.GlobalAuthenticationConfigurerAdapter;
 import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
 import org.springframework.security.crypto.password.PasswordEncoder;
-import org.springframework.util.Base64Utils;
 import org.springframework.web.client.RestTemplate;
 
 import net.smartcosmos.cluster.gateway.rest.AuthenticationErrorHandler;
+import net.smartcosmos.cluster.gateway.rest.InstrumentedConnectionManager;
+import net.smartcosmos.cluster.gateway.routing.TrieRouteLocator;
 
 /**
  * Configuration class for Gateway.
@@ -38,6 +46,8 @@ import net.smartcosmos.cluster.gateway.rest.AuthenticationErrorHandler;
 @Profile("!test")
 public class GatewayConfiguration extends GlobalAuthenticationConfigurerAdapter {
 
+    private static final String AUTH_SERVER_POOL_METRIC_PREFIX = "gateway.auth-server.pool.";
+
     @Autowired
     private AuthenticationServerConnectionProperties securityResourceProperties;
 
@@ -47,12 +57,6 @@ public class GatewayConfiguration extends GlobalAuthenticationConfigurerAdapter
         return new BCryptPasswordEncoder();
     }
 
-    @Bean
-    public RibbonClientHttpRequestFactory ribbonClientHttpRequestFactory(SpringClientFactory clientFactory) {
-
-        return new RibbonClientHttpRequestFactory(clientFactory);
-    }
-
     /**
      * Need to configure Undertow to allow non standard wrappers or the exception gets lost in the noise.  This way the
      * exception will bubble out to the custom error controller.
@@ -67,43 +71,85 @@ public class GatewayConfiguration extends GlobalAuthenticationConfigurerAdapter
         return factory;
     }
 
+    /**
+     * Replaces the default {@link DiscoveryClientRouteLocator} of the Zuul proxy by one that looks up routes in an index instead of matching
+     * every route pattern in turn.
+     *
+     * @return the route locator
+     */
     @Bean
-    @Autowired
-    public RestTemplate authServerRestTemplate(
-        RibbonClientHttpRequestFactory ribbonClientHttpRequestFactory,
-        AuthenticationErrorHandler authenticationErrorHandler,
-        AuthenticationServerConnectionProperties authServerConnectionProperties) {
+    @ConditionalOnProperty(prefix = "smartcosmos.gateway.route-index", name = "enabled", matchIfMissing = true)
+    public DiscoveryClientRouteLocator discoveryRouteLocator(
+        ServerProperties serverProperties,
+        DiscoveryClient discoveryClient,
+        ZuulProperties zuulProperties,
+        ServiceRouteMapper serviceRouteMapper) {
+
+        return new TrieRouteLocator(serverProperties.getServletPrefix(), discoveryClient, zuulProperties, serviceRouteMapper);
+    }
 
-        List<ClientHttpRequestInterceptor> interceptors = Collections.<ClientHttpRequestInterceptor>singletonList(
-            new BasicAuthorizationInterceptor(authServerConnectionProperties.getName(),
-                                              authServerConnectionProperties.getPassword()));
-        RestTemplate restTemplate = new RestTemplate(new InterceptingClientHttpRequestFactory(ribbonClientHttpRequestFactory, interceptors));
-        restTemplate.setErrorHandler(authenticationErrorHandler);
+    /**
+     * Pooled connection manager for requests to the Auth Server, publishing the pool utilisation as metrics.
+     *
+     * @param authServerConnectionProperties the Auth Server connection properties
+     * @return the connection manager
+     */
+    @Bean(destroyMethod = "shutdown")
+    public InstrumentedConnectionManager authServerConnectionManager(AuthenticationServerConnectionProperties authServerConnectionProperties) {
 
-        return restTemplate;
+        InstrumentedConnectionManager connectionManager = new InstrumentedConnectionManager(AUTH_SERVER_POOL_METRIC_PREFIX, -1);
+        connectionManager.setMaxTotal(authServerConnectionProperties.getMaxConnectionsTotal());
+        connectionManager.setDefaultMaxPerRoute(authServerConnectionProperties.getMaxConnectionsPerRoute());
+        return connectionManager;
     }
 
-    private static class BasicAuthorizationInterceptor implements ClientHttpRequestInterceptor {
-
-        private static final String BASIC_AUTHENTICATION_HEADER = "Basic ";
-        private final String username;
-        private final String password;
+    @Bean(destroyMethod = "close")
+    public CloseableHttpClient authServerHttpClient(
+        InstrumentedConnectionManager authServerConnectionManager,
+        AuthenticationServerConnectionProperties authServerConnectionProperties) {
 
-        BasicAuthorizationInterceptor(String username, String password) {
+        RequestConfig requestConfig = RequestConfig.custom()
+            .setConnectTimeout(authServerConnectionProperties.getConnectTimeout())
+            .setSocketTimeout(authServerConnectionProperties.getReadTimeout())
+            .setConnectionRequestTimeout(authServerConnectionProperties.getConnectionRequestTimeout())
+            .build();
+
+        final long keepAlive = authServerConnectionProperties.getKeepAlive();
+        ConnectionKeepAliveStrategy keepAliveStrategy = (response, context) -> {
+            long serverKeepAlive = DefaultConnectionKeepAliveStrategy.INSTANCE.getKeepAliveDuration(response, context);
+            return serverKeepAlive > 0 ? serverKeepAlive : keepAlive;
+        };
+
+        return HttpClientBuilder.create()
+            .setConnectionManager(authServerConnectionManager)
+            .setDefaultRequestConfig(requestConfig)
+            .setKeepAliveStrategy(keepAliveStrategy)
+            .evictExpiredConnections()
+            .evictIdleConnections(authServerConnectionProperties.getIdleConnectionTimeout(), TimeUnit.MILLISECONDS)
+            .disableCookieManagement()
+            .build();
+    }
 
-            this.username = username;
-            this.password = (password == null ? "" : password);
-        }
+    /**
+     * The template for requests to the Auth Server. Requests are load balanced by Ribbon and sent through the pooled Auth Server HTTP client.
+     *
+     * @return the rest template
+     */
+    @Bean
+    @Autowired
+    public RestTemplate authServerRestTemplate(
+        CloseableHttpClient authServerHttpClient,
+        LoadBalancerClient loadBalancerClient,
+        AuthenticationErrorHandler authenticationErrorHandler,
+        AuthenticationServerConnectionProperties authServerConnectionProperties) {
 
-        @Override
-        public ClientHttpResponse intercept(
-            HttpRequest request, byte[] body,
-            ClientHttpRequestExecution execution) throws IOException {
+        List<ClientHttpRequestInterceptor> interceptors = Arrays.asList(
+            new LoadBalancerInterceptor(loadBalancerClient),
+            new BasicAuthorizationInterceptor(authServerConnectionProperties));
+        RestTemplate restTemplate = new RestTemplate(new InterceptingClientHttpRequestFactory(
+            new HttpComponentsClientHttpRequestFactory(authServerHttpClient), interceptors));
+        restTemplate.setErrorHandler(authenticationErrorHandler);
 
-            String token = Base64Utils.encodeToString((this.username + ":" + this.password).getBytes(StandardCharsets.UTF_8));
-            request.getHeaders()
-                .add(HttpHeaders.AUTHORIZATION, BASIC_AUTHENTICATION_HEADER + token);
-            return execution.execute(request, body);
-        }
+        return restTemplate;
     }
 }
@@ -0,0 +1,45 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties read from the configuration files to validate bearer tokens in the gateway.
+ */
+@Data
+@ConfigurationProperties("smartcosmos.gateway.jwt-validation")
+public class JwtValidationProperties {
+
+    private boolean enabled = false;
+    /**
+     * URI of a JSON Web Key Set with the public keys of the Auth Server, requested through the Auth Server client. If set, the key store is
+     * not used.
+     */
+    private String jwkSetUri;
+    /**
+     * Key store containing the key pair the Auth Server signs tokens with.
+     */
+    private String keyStore = "classpath:smartcosmos.jks";
+    private String keyStorePassword;
+    private String keyAlias = "smartcosmos";
+    /**
+     * Minimum seconds between requests for the key set if a token is signed with an unknown key.
+     */
+    private int jwkSetRefreshInterval = 60;
+    private ClaimsCache claimsCache = new ClaimsCache();
+
+    @Data
+    public static class ClaimsCache {
+
+        private boolean enabled = true;
+        /**
+         * Maximum number of tokens whose verified claims are cached.
+         */
+        private long maximumSize = 10000;
+        /**
+         * Seconds after which verified claims are removed from the cache, even if the token has not expired yet.
+         */
+        private long maximumTimeToLive = 3600;
+    }
+}
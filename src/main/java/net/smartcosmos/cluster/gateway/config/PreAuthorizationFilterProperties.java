@@ -0,0 +1,144 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties read from the configuration files to tune the {@code PreAuthorizationFilter} and the authentication path behind it.
+ */
+@Data
+@ConfigurationProperties("smartcosmos.gateway.pre-authorization-filter")
+public class PreAuthorizationFilterProperties {
+
+    private boolean enabled = true;
+    private TokenCache tokenCache = new TokenCache();
+    private Authentication authentication = new Authentication();
+    private TokenRefresh tokenRefresh = new TokenRefresh();
+    private RejectionCache rejectionCache = new RejectionCache();
+    private RouteCache routeCache = new RouteCache();
+
+    /**
+     * Settings of the cache holding OAuth2 access tokens retrieved for Basic Auth credentials.
+     */
+    @Data
+    public static class TokenCache {
+
+        private boolean enabled = true;
+        /**
+         * Maximum number of credentials for which a token is cached.
+         */
+        private long maximumSize = 10000;
+        /**
+         * Upper bound in seconds for keeping a token, regardless of its own expiration. Counts from the authentication with the credentials,
+         * tokens refreshed in the background don't extend it.
+         */
+        private long maximumTimeToLive = 3600;
+        /**
+         * Cached tokens are no longer handed out if they expire within this number of seconds.
+         */
+        private int expiryMargin = 30;
+    }
+
+    /**
+     * Settings of the thread pool performing the requests to the Auth Server.
+     */
+    @Data
+    public static class Authentication {
+
+        /**
+         * Maximum number of concurrent requests to the Auth Server.
+         */
+        private int poolSize = 20;
+        /**
+         * Maximum number of requests waiting for a free thread, further requests are rejected.
+         */
+        private int queueSize = 200;
+        /**
+         * Milliseconds a gateway worker thread waits for the result of an authentication request.
+         */
+        private long timeout = 5000;
+        /**
+         * Answer if the Auth Server fails or its circuit is open: {@code CACHED_TOKEN} hands out a cached token that is within the expiry
+         * margin but not yet expired, {@code UNAVAILABLE} always returns <i>Service Unavailable</i>.
+         */
+        private Fallback fallback = Fallback.CACHED_TOKEN;
+    }
+
+    public enum Fallback {
+        CACHED_TOKEN,
+        UNAVAILABLE
+    }
+
+    /**
+     * Settings of the background refresh of cached tokens that are frequently used.
+     */
+    @Data
+    public static class TokenRefresh {
+
+        private boolean enabled = true;
+        /**
+         * Seconds before expiration at which a token is refreshed. Should exceed the token cache expiry margin.
+         */
+        private int leadTime = 60;
+        /**
+         * Maximum number of concurrent refresh requests to the Auth Server.
+         */
+        private int concurrency = 2;
+        /**
+         * Seconds between two checks for tokens to refresh.
+         */
+        private int interval = 10;
+        /**
+         * Minimum number of cache hits since a token was stored, for its credentials to be considered hot.
+         */
+        private int hotThreshold = 2;
+    }
+
+    /**
+     * Settings of the cache of rejected credentials and client addresses, which are answered locally for a while.
+     */
+    @Data
+    public static class RejectionCache {
+
+        private boolean enabled = true;
+        /**
+         * Maximum number of credentials and addresses for which failures are tracked.
+         */
+        private long maximumSize = 10000;
+        /**
+         * Milliseconds for which credentials are rejected locally after their first failure, doubled with every further failure.
+         */
+        private long initialBackOff = 1000;
+        /**
+         * Upper bound in milliseconds of the back-off.
+         */
+        private long maximumBackOff = 300000;
+        /**
+         * Number of failures from a client address after which requests from this address with credentials that did not authenticate
+         * successfully recently are rejected locally.
+         */
+        private int addressThreshold = 20;
+        /**
+         * Addresses of proxies or load balancers in front of the gateway. For requests from these addresses, the client address is taken
+         * from the {@code X-Forwarded-For} header.
+         */
+        private List<String> trustedProxies = new ArrayList<>();
+    }
+
+    /**
+     * Settings of the cache remembering whether request paths match a route that is handled locally.
+     */
+    @Data
+    public static class RouteCache {
+
+        private boolean enabled = true;
+        /**
+         * Maximum number of request paths for which the route classification is cached.
+         */
+        private long maximumSize = 10000;
+    }
+}
@@ -0,0 +1,30 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnMissingBean;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import net.smartcosmos.cluster.gateway.limit.RateLimitStore;
+import net.smartcosmos.cluster.gateway.limit.StripedTokenBucketStore;
+
+/**
+ * Configuration of the rate limiting storage.
+ */
+@Configuration
+@EnableConfigurationProperties({ RateLimitProperties.class })
+public class RateLimitConfiguration {
+
+    /**
+     * Keeps the token buckets in memory, unless another {@link RateLimitStore} is configured for cluster-wide limits.
+     *
+     * @param rateLimitProperties the rate limit properties
+     * @return the store
+     */
+    @Bean
+    @ConditionalOnMissingBean(RateLimitStore.class)
+    public RateLimitStore rateLimitStore(RateLimitProperties rateLimitProperties) {
+
+        return new StripedTokenBucketStore(rateLimitProperties);
+    }
+}
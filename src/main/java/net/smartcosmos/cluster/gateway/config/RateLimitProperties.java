@@ -0,0 +1,62 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import lombok.Data;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * Properties read from the configuration files to limit the request rate per tenant and per user.
+ */
+@Data
+@ConfigurationProperties("smartcosmos.gateway.rate-limit")
+public class RateLimitProperties {
+
+    private boolean enabled = false;
+    /**
+     * Name of the token claim that identifies the tenant.
+     */
+    private String tenantClaim = "tenantUrn";
+    /**
+     * Name of the token claim that identifies the user.
+     */
+    private String userClaim = "userUrn";
+    private Bucket tenant = new Bucket(1000, 500);
+    private Bucket user = new Bucket(200, 100);
+    /**
+     * Limit per remote address for requests whose token was neither verified by the JWT validation nor obtained by the gateway, since their
+     * claims cannot be trusted. Behind a load balancer, all clients share its address: set the capacity to {@code 0} and enable the JWT
+     * validation instead.
+     */
+    private Bucket address = new Bucket(200, 100);
+    /**
+     * Number of locks guarding the in-memory buckets.
+     */
+    private int stripes = 64;
+    /**
+     * Maximum number of in-memory buckets, buckets not used for a minute are removed anyway.
+     */
+    private long maximumSize = 100000;
+
+    @Data
+    public static class Bucket {
+
+        /**
+         * Maximum number of requests in a burst, {@code 0} disables the limit.
+         */
+        private long capacity;
+        /**
+         * Number of requests per second the bucket is refilled with.
+         */
+        private double refillRate;
+
+        public Bucket() {
+
+        }
+
+        public Bucket(long capacity, double refillRate) {
+
+            this.capacity = capacity;
+            this.refillRate = refillRate;
+        }
+    }
+}
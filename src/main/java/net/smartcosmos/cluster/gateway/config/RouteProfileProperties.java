@@ -0,0 +1,103 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import org.springframework.boot.context.properties.ConfigurationProperties;
+
+/**
+ * <p>Properties read from the configuration files to assign Hystrix and Ribbon tuning profiles to Zuul routes.</p>
+ * <p>Routes are assigned to a profile by route ID or service ID in {@code routes}. Routes without an assignment get the
+ * {@code default-profile}, if one is set, and otherwise keep the plain Hystrix and Ribbon configuration.</p>
+ */
+@Data
+@ConfigurationProperties("smartcosmos.gateway.route-profiles")
+public class RouteProfileProperties {
+
+    public static final String PROFILE_INTERACTIVE = "interactive";
+    public static final String PROFILE_BULK = "bulk";
+    public static final String PROFILE_STREAMING = "streaming";
+    public static final String PROFILE_LOW_LATENCY = "low-latency";
+
+    private boolean enabled = true;
+    /**
+     * Profile applied to routes without an assignment, none if empty.
+     */
+    private String defaultProfile;
+    /**
+     * Profile names by route ID or service ID.
+     */
+    private Map<String, String> routes = new HashMap<>();
+    /**
+     * Available profiles by name, predefined are {@value #PROFILE_INTERACTIVE}, {@value #PROFILE_BULK}, {@value #PROFILE_STREAMING} and
+     * {@value #PROFILE_LOW_LATENCY}.
+     */
+    private Map<String, Profile> profiles = defaultProfiles();
+
+    private static Map<String, Profile> defaultProfiles() {
+
+        Map<String, Profile> profiles = new LinkedHashMap<>();
+        profiles.put(PROFILE_INTERACTIVE, new Profile(15000, 1000, 5000, 0, 1, false, Isolation.THREAD, 0));
+        profiles.put(PROFILE_BULK, new Profile(3600000, 2000, 3500000, 0, 0, false, Isolation.THREAD, 0));
+        profiles.put(PROFILE_STREAMING, new Profile(600000, 1000, 590000, 0, 0, false, Isolation.THREAD, 0));
+        // no retries: the Hystrix timeout cannot interrupt semaphore isolated requests, so it has to cover a single attempt only
+        profiles.put(PROFILE_LOW_LATENCY, new Profile(2000, 500, 1000, 0, 0, false, Isolation.SEMAPHORE, 200));
+        return profiles;
+    }
+
+    /**
+     * Hystrix and Ribbon settings applied to the routes of a profile. There is no thread pool size, since the Ribbon commands of all Zuul
+     * routes share one Hystrix thread pool.
+     */
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Profile {
+
+        /**
+         * Hystrix execution timeout in milliseconds. It is raised to the longest time the Ribbon timeouts and retries allow, so that no
+         * request is answered with <i>Gateway Timeout</i> while a retry is still running.
+         */
+        private int timeout = 15000;
+        /**
+         * Ribbon connect timeout in milliseconds.
+         */
+        private int connectTimeout = 1000;
+        /**
+         * Ribbon read timeout in milliseconds.
+         */
+        private int readTimeout = 5000;
+        /**
+         * Number of retries on the same server.
+         */
+        private int maxAutoRetries = 0;
+        /**
+         * Number of further servers to try.
+         */
+        private int maxAutoRetriesNextServer = 1;
+        /**
+         * Whether requests with other methods than GET are retried.
+         */
+        private boolean okToRetryOnAllOperations = false;
+        /**
+         * Hystrix isolation of the requests: {@code THREAD} hands them to the Hystrix thread pool, {@code SEMAPHORE} executes them on the
+         * gateway worker thread and only limits the number of concurrent requests.
+         */
+        private Isolation isolation = Isolation.THREAD;
+        /**
+         * Maximum number of concurrent requests with {@code SEMAPHORE} isolation, further requests are rejected with <i>Service
+         * Unavailable</i>.
+         */
+        private int maxConcurrentRequests = 100;
+    }
+
+    public enum Isolation {
+        THREAD,
+        SEMAPHORE
+    }
+}
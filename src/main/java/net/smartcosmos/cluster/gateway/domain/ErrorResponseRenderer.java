@@ -0,0 +1,94 @@
+package net.smartcosmos.cluster.gateway.domain;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import com.fasterxml.jackson.core.io.JsonStringEncoder;
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+
+import org.springframework.http.HttpStatus;
+
+/**
+ * <p>Renders {@link ErrorResponse} JSON bodies without an {@code ObjectMapper}.</p>
+ * <p>The fixed part of a response ({@code status}, {@code error} and {@code message}) is rendered once per status and message and kept, so
+ * that only the timestamp and the path are written per response. Only a bounded number of distinct messages is kept. The output has the
+ * same fields in the same order as the serialized {@link ErrorResponse}, {@code null} values are omitted. Instances are thread-safe.</p>
+ */
+public class ErrorResponseRenderer {
+
+    private static final String TIMESTAMP_FIELD = "{\"timestamp\":";
+    private static final String PATH_FIELD = ",\"path\":\"";
+    private static final String END = "}";
+    private static final int MAXIMUM_FRAGMENTS = 256;
+
+    private final ConcurrentMap<Fragment, String> fragments = new ConcurrentHashMap<>();
+
+    /**
+     * Renders the JSON body of an error response.
+     *
+     * @param statusCode the HTTP status
+     * @param message the message, omitted if {@code null}
+     * @param path the request path, omitted if {@code null}
+     * @return the JSON string
+     */
+    public String render(HttpStatus statusCode, String message, String path) {
+
+        return render(System.currentTimeMillis(), statusCode, message, path);
+    }
+
+    String render(long timestamp, HttpStatus statusCode, String message, String path) {
+
+        String fragment = getFragment(statusCode, message);
+
+        StringBuilder json = new StringBuilder(TIMESTAMP_FIELD.length() + 13 + fragment.length() + (path != null ? path.length() + 12 : 1));
+        json.append(TIMESTAMP_FIELD)
+            .append(timestamp)
+            .append(fragment);
+        if (path != null) {
+            json.append(PATH_FIELD)
+                .append(JsonStringEncoder.getInstance()
+                            .quoteAsString(path))
+                .append('"');
+        }
+        return json.append(END)
+            .toString();
+    }
+
+    private String getFragment(HttpStatus statusCode, String message) {
+
+        Fragment key = new Fragment(statusCode, message);
+        String fragment = fragments.get(key);
+        if (fragment == null) {
+            // messages containing exception details vary, only a bounded number of fragments is kept
+            fragment = fragments.size() < MAXIMUM_FRAGMENTS ? fragments.computeIfAbsent(key, Fragment::render) : key.render();
+        }
+        return fragment;
+    }
+
+    @EqualsAndHashCode
+    @AllArgsConstructor
+    private static final class Fragment {
+
+        private final HttpStatus statusCode;
+        private final String message;
+
+        private String render() {
+
+            StringBuilder json = new StringBuilder();
+            json.append(",\"status\":")
+                .append(statusCode.value())
+                .append(",\"error\":\"")
+                .append(JsonStringEncoder.getInstance()
+                            .quoteAsString(statusCode.getReasonPhrase()))
+                .append('"');
+            if (message != null) {
+                json.append(",\"message\":\"")
+                    .append(JsonStringEncoder.getInstance()
+                                .quoteAsString(message))
+                    .append('"');
+            }
+            return json.toString();
+        }
+    }
+}
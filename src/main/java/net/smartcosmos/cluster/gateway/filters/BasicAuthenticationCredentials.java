@@ -0,0 +1,148 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Arrays;
+
+import lombok.Getter;
+
+/**
+ * <p>Credentials of a HTTP Basic Authentication header.</p>
+ * <p>The header value is parsed in a single pass: the Base64 encoded part is decoded directly from the header value into one byte array,
+ * which is then split into username and password at the first colon. Apart from the two resulting Strings no intermediate objects are
+ * created. Decoding follows the rules of {@link java.util.Base64#getDecoder()}.</p>
+ */
+@Getter
+public final class BasicAuthenticationCredentials {
+
+    private static final String BASIC_AUTHENTICATION_TYPE = "Basic";
+    private static final byte CREDENTIALS_SEPARATOR = ':';
+    private static final char PADDING = '=';
+
+    private static final int[] DECODE_TABLE = new int[128];
+
+    static {
+        Arrays.fill(DECODE_TABLE, -1);
+        String alphabet = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+        for (int i = 0; i < alphabet.length(); i++) {
+            DECODE_TABLE[alphabet.charAt(i)] = i;
+        }
+    }
+
+    private static final BasicAuthenticationCredentials MALFORMED = new BasicAuthenticationCredentials(null, null);
+
+    private final String username;
+    private final String password;
+
+    private BasicAuthenticationCredentials(String username, String password) {
+
+        this.username = username;
+        this.password = password;
+    }
+
+    /**
+     * Checks if the header could not be decoded into username and password.
+     *
+     * @return {@code true} if the header is malformed
+     */
+    public boolean isMalformed() {
+
+        return this == MALFORMED;
+    }
+
+    /**
+     * Parses the value of an {@code Authorization} header.
+     *
+     * @param header the header value
+     * @return {@code null} if the header is no Basic Authentication header, the credentials otherwise (which are {@link #isMalformed()
+     * malformed} if the header value cannot be decoded or contains no colon)
+     */
+    public static BasicAuthenticationCredentials parse(String header) {
+
+        if (header == null || !header.startsWith(BASIC_AUTHENTICATION_TYPE)) {
+            return null;
+        }
+
+        // equivalent to String.trim() without creating a substring
+        int start = BASIC_AUTHENTICATION_TYPE.length();
+        int end = header.length();
+        while (start < end && header.charAt(start) <= ' ') {
+            start++;
+        }
+        while (end > start && header.charAt(end - 1) <= ' ') {
+            end--;
+        }
+
+        byte[] decoded = decode(header, start, end);
+        if (decoded == null) {
+            return MALFORMED;
+        }
+
+        for (int i = 0; i < decoded.length; i++) {
+            // a colon byte is never part of a multi-byte UTF-8 sequence
+            if (decoded[i] == CREDENTIALS_SEPARATOR) {
+                return new BasicAuthenticationCredentials(new String(decoded, 0, i, StandardCharsets.UTF_8),
+                                                          new String(decoded, i + 1, decoded.length - i - 1, StandardCharsets.UTF_8));
+            }
+        }
+        return MALFORMED;
+    }
+
+    /**
+     * Decodes a Base64 encoded range of a String.
+     *
+     * @return the decoded bytes, or {@code null} if the range is no valid Base64
+     */
+    private static byte[] decode(String source, int start, int end) {
+
+        int length = end - start;
+        if (length == 0) {
+            return new byte[0];
+        }
+        if (length < 2) {
+            return null;
+        }
+
+        // determine the number of data characters, i.e. without padding
+        int dataLength = length;
+        if (source.charAt(end - 1) == PADDING) {
+            dataLength--;
+            if (source.charAt(end - 2) == PADDING) {
+                dataLength--;
+            }
+        }
+
+        // padding is only allowed to complete the last 4-character unit
+        int remainder = dataLength % 4;
+        if (remainder == 1 || (dataLength != length && (length % 4 != 0 || remainder == 0))) {
+            return null;
+        }
+
+        byte[] decoded = new byte[dataLength / 4 * 3 + (remainder == 0 ? 0 : remainder - 1)];
+        int bits = 0;
+        int count = 0;
+        int position = 0;
+        for (int i = start; i < start + dataLength; i++) {
+            char c = source.charAt(i);
+            int value = c < DECODE_TABLE.length ? DECODE_TABLE[c] : -1;
+            if (value < 0) {
+                return null;
+            }
+            bits = (bits << 6) | value;
+            if (++count == 4) {
+                decoded[position++] = (byte) (bits >> 16);
+                decoded[position++] = (byte) (bits >> 8);
+                decoded[position++] = (byte) bits;
+                bits = 0;
+                count = 0;
+            }
+        }
+
+        if (count == 2) {
+            decoded[position] = (byte) (bits >> 4);
+        } else if (count == 3) {
+            decoded[position++] = (byte) (bits >> 10);
+            decoded[position] = (byte) (bits >> 2);
+        }
+        return decoded;
+    }
+}
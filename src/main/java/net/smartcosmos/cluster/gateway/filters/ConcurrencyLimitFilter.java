@@ -0,0 +1,89 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import net.smartcosmos.cluster.gateway.domain.ErrorResponseRenderer;
+import net.smartcosmos.cluster.gateway.limit.AdaptiveConcurrencyLimit;
+import net.smartcosmos.cluster.gateway.limit.ConcurrencyLimiter;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
+
+/**
+ * <p>Filter that limits the concurrent requests to each downstream service. It runs after the route of the request has been determined, and
+ * answers requests exceeding the current {@link AdaptiveConcurrencyLimit} of the service with <i>Service Unavailable</i> right away.</p>
+ * <p>The permit acquired for a request is released by the {@link ConcurrencyLimitReleaseFilter}.</p>
+ */
+@Service
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.concurrency-limit", name = "enabled")
+public class ConcurrencyLimitFilter extends ZuulFilter {
+
+    private static final String FILTER_TYPE_PRE = "pre";
+    // after the PreDecorationFilter, which determines the service ID
+    private static final Integer FILTER_ORDER = 6;
+
+    static final String CTX_SERVICE_ID = "serviceId";
+    static final String CTX_CONCURRENCY_LIMIT = "concurrencyLimit";
+    static final String CTX_CONCURRENCY_LIMIT_START = "concurrencyLimitStart";
+
+    private static final ErrorResponseRenderer ERROR_RESPONSE_RENDERER = new ErrorResponseRenderer();
+
+    private final ConcurrencyLimiter concurrencyLimiter;
+
+    @Autowired
+    public ConcurrencyLimitFilter(ConcurrencyLimiter concurrencyLimiter) {
+
+        this.concurrencyLimiter = concurrencyLimiter;
+    }
+
+    @Override
+    public String filterType() {
+
+        return FILTER_TYPE_PRE;
+    }
+
+    @Override
+    public int filterOrder() {
+
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.sendZuulResponse() && ctx.get(CTX_SERVICE_ID) != null;
+    }
+
+    @Override
+    public Object run() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        AdaptiveConcurrencyLimit limit = concurrencyLimiter.getLimit((String) ctx.get(CTX_SERVICE_ID));
+        if (limit.tryAcquire()) {
+            ctx.set(CTX_CONCURRENCY_LIMIT, limit);
+            ctx.set(CTX_CONCURRENCY_LIMIT_START, System.nanoTime());
+        } else {
+            setErrorResponse(SERVICE_UNAVAILABLE, "Service overloaded");
+        }
+        return null;
+    }
+
+    protected void setErrorResponse(HttpStatus statusCode, String message) {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseStatusCode(statusCode.value());
+        ctx.addZuulResponseHeader(CONTENT_TYPE, APPLICATION_JSON_UTF8_VALUE);
+        if (ctx.getResponseBody() == null) {
+            ctx.setResponseBody(ERROR_RESPONSE_RENDERER.render(statusCode, message, ctx.getRequest().getServletPath()));
+            ctx.setSendZuulResponse(false);
+        }
+    }
+}
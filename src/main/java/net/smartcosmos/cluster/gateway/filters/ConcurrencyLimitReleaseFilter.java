@@ -0,0 +1,85 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Service;
+
+import net.smartcosmos.cluster.gateway.limit.AdaptiveConcurrencyLimit;
+
+import static net.smartcosmos.cluster.gateway.filters.ConcurrencyLimitFilter.CTX_CONCURRENCY_LIMIT;
+import static net.smartcosmos.cluster.gateway.filters.ConcurrencyLimitFilter.CTX_CONCURRENCY_LIMIT_START;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_STATUS_CODE;
+
+/**
+ * Filter that releases the permit acquired by the {@link ConcurrencyLimitFilter} once the downstream service has answered, and reports the
+ * latency and outcome of the request to the {@link AdaptiveConcurrencyLimit}. Zuul runs the post filters also if routing the request failed.
+ * It runs first of all post filters, since a post filter throwing an exception skips the remaining ones; should the permit be held anyway
+ * once Zuul is done, the {@link ConcurrencyLimitServletFilter} releases it.
+ */
+@Service
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.concurrency-limit", name = "enabled")
+public class ConcurrencyLimitReleaseFilter extends ZuulFilter {
+
+    private static final String FILTER_TYPE_POST = "post";
+    // before the ErrorResponseFilter, SendErrorFilter and SendResponseFilter, so that the latency doesn't include writing the response
+    private static final Integer FILTER_ORDER = -3;
+
+    private static final int STATUS_TOO_MANY_REQUESTS = 429;
+    private static final int STATUS_SERVICE_UNAVAILABLE = 503;
+    private static final int STATUS_GATEWAY_TIMEOUT = 504;
+
+    @Override
+    public String filterType() {
+
+        return FILTER_TYPE_POST;
+    }
+
+    @Override
+    public int filterOrder() {
+
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+
+        return RequestContext.getCurrentContext()
+                   .get(CTX_CONCURRENCY_LIMIT) != null;
+    }
+
+    @Override
+    public Object run() {
+
+        release(RequestContext.getCurrentContext());
+        return null;
+    }
+
+    /**
+     * Releases the permit held by the request, if any. The permit is removed from the context, so that it is released only once.
+     *
+     * @param ctx the context of the request
+     */
+    static void release(RequestContext ctx) {
+
+        AdaptiveConcurrencyLimit limit = (AdaptiveConcurrencyLimit) ctx.remove(CTX_CONCURRENCY_LIMIT);
+        Long start = (Long) ctx.remove(CTX_CONCURRENCY_LIMIT_START);
+        if (limit != null && start != null) {
+            // routing filters report failures in the error attributes instead of throwing
+            boolean failed = ctx.getThrowable() != null
+                             || ctx.containsKey(ATTR_ERROR_STATUS_CODE)
+                             || isOverloadStatus(ctx.getResponseStatusCode());
+            limit.release(System.nanoTime() - start, failed);
+        }
+    }
+
+    /**
+     * Checks if the status of the response of the service signals overload. Other server errors are failures of the application, a service
+     * answering them is not overloaded.
+     */
+    private static boolean isOverloadStatus(int status) {
+
+        return status == STATUS_TOO_MANY_REQUESTS || status == STATUS_SERVICE_UNAVAILABLE || status == STATUS_GATEWAY_TIMEOUT;
+    }
+}
@@ -0,0 +1,41 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.io.IOException;
+import javax.servlet.FilterChain;
+import javax.servlet.ServletException;
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.zuul.context.RequestContext;
+
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import static net.smartcosmos.cluster.gateway.filters.ConcurrencyLimitFilter.CTX_CONCURRENCY_LIMIT;
+
+/**
+ * <p>Servlet filter that releases the permit acquired by the {@link ConcurrencyLimitFilter} if it is still held once Zuul handled the
+ * request. This is the case if an exception skipped the {@link ConcurrencyLimitReleaseFilter}, e.g. if an error filter failed.</p>
+ * <p>The filter obtains the Zuul context before Zuul does, since Zuul removes it from the thread when it is done.</p>
+ */
+@Component
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.concurrency-limit", name = "enabled")
+public class ConcurrencyLimitServletFilter extends OncePerRequestFilter {
+
+    @Override
+    protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain filterChain)
+        throws ServletException, IOException {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        try {
+            filterChain.doFilter(request, response);
+        } finally {
+            if (ctx.get(CTX_CONCURRENCY_LIMIT) != null) {
+                ConcurrencyLimitReleaseFilter.release(ctx);
+            }
+            // requests not handled by Zuul leave the context created above on the thread
+            ctx.unset();
+        }
+    }
+}
@@ -0,0 +1,80 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Service;
+
+import net.smartcosmos.cluster.gateway.domain.ErrorResponse;
+import net.smartcosmos.cluster.gateway.domain.ErrorResponseRenderer;
+import net.smartcosmos.cluster.gateway.resource.GatewayErrorController;
+import net.smartcosmos.cluster.gateway.resource.RoutingErrorHandler;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
+
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_STATUS_CODE;
+
+/**
+ * <p>Filter that answers requests whose routing failed with an {@link ErrorResponse} right away. Otherwise Zuul's {@code SendErrorFilter}
+ * forwards them to the {@link GatewayErrorController}, which dispatches the request through Spring MVC once more just to render the error.</p>
+ * <p>The failure is classified and logged by the {@link RoutingErrorHandler} just like in the controller, only the servlet forward and the
+ * serialization by the message converters are skipped. The controller remains in place for errors that don't pass through Zuul.</p>
+ */
+@Service
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.error-response-filter", name = "enabled", matchIfMissing = true)
+public class ErrorResponseFilter extends ZuulFilter {
+
+    private static final String FILTER_TYPE_POST = "post";
+    // before the SendErrorFilter, but after the ConcurrencyLimitReleaseFilter, which evaluates the status of the service response
+    private static final Integer FILTER_ORDER = -2;
+
+    // marker of the SendErrorFilter to not forward the request
+    static final String CTX_SEND_ERROR_FILTER_RAN = "sendErrorFilter.ran";
+
+    private static final ErrorResponseRenderer ERROR_RESPONSE_RENDERER = new ErrorResponseRenderer();
+
+    private final RoutingErrorHandler routingErrorHandler;
+
+    @Autowired
+    public ErrorResponseFilter(RoutingErrorHandler routingErrorHandler) {
+
+        this.routingErrorHandler = routingErrorHandler;
+    }
+
+    @Override
+    public String filterType() {
+
+        return FILTER_TYPE_POST;
+    }
+
+    @Override
+    public int filterOrder() {
+
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        return ctx.containsKey(ATTR_ERROR_STATUS_CODE) && !ctx.getBoolean(CTX_SEND_ERROR_FILTER_RAN, false);
+    }
+
+    @Override
+    public Object run() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ErrorResponse errorResponse = routingErrorHandler.handle(ctx);
+        HttpStatus statusCode = HttpStatus.valueOf(errorResponse.getStatus());
+
+        ctx.set(CTX_SEND_ERROR_FILTER_RAN, true);
+        ctx.setResponseStatusCode(statusCode.value());
+        ctx.addZuulResponseHeader(CONTENT_TYPE, APPLICATION_JSON_UTF8_VALUE);
+        ctx.setResponseBody(ERROR_RESPONSE_RENDERER.render(statusCode, errorResponse.getMessage(), errorResponse.getPath()));
+        return null;
+    }
+}
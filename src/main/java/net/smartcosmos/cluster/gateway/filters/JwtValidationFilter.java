@@ -0,0 +1,112 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.util.Map;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.stereotype.Service;
+
+import net.smartcosmos.cluster.gateway.domain.ErrorResponseRenderer;
+import net.smartcosmos.cluster.gateway.security.KeySetUnavailableException;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
+
+/**
+ * <p>Filter that validates bearer tokens sent by clients before Zuul forwards the request, so that requests with malformed, forged or expired
+ * tokens are answered with <i>Unauthorized</i> by the gateway instead of each service. If the key set needed to verify a token cannot be
+ * requested, the request is answered with <i>Service Unavailable</i>.</p>
+ * <p>The claims of a valid token are kept in the request context ({@value #CTX_TOKEN_CLAIMS}) for the following filters. Tokens obtained by the
+ * {@link PreAuthorizationFilter} for Basic Auth credentials come from the Auth Server and are not validated again.</p>
+ * <p>Tokens are verified by the {@link net.smartcosmos.cluster.gateway.security.TokenVerifier} once, and their claims kept in the
+ * {@link TokenClaimsCache}.</p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.jwt-validation", name = "enabled")
+public class JwtValidationFilter extends ZuulFilter {
+
+    private static final String FILTER_TYPE_PRE = "pre";
+    // before the PreAuthorizationFilter
+    private static final Integer FILTER_ORDER = 1;
+
+    public static final String CTX_TOKEN_CLAIMS = "tokenClaims";
+
+    private static final String BEARER_PREFIX = OAuth2AccessToken.BEARER_TYPE + " ";
+
+    private static final ErrorResponseRenderer ERROR_RESPONSE_RENDERER = new ErrorResponseRenderer();
+
+    private final TokenClaimsCache tokenClaimsCache;
+
+    @Autowired
+    public JwtValidationFilter(TokenClaimsCache tokenClaimsCache) {
+
+        this.tokenClaimsCache = tokenClaimsCache;
+    }
+
+    @Override
+    public String filterType() {
+
+        return FILTER_TYPE_PRE;
+    }
+
+    @Override
+    public int filterOrder() {
+
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+
+        return RequestContext.getCurrentContext()
+                   .sendZuulResponse() && getBearerToken() != null;
+    }
+
+    @Override
+    public Object run() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        try {
+            Map<String, Object> claims = tokenClaimsCache.getVerifiedClaims(getBearerToken());
+            ctx.set(CTX_TOKEN_CLAIMS, claims);
+        } catch (InvalidTokenException e) {
+            log.debug("Bearer token rejected: '{}'", e.getMessage());
+            setErrorResponse(UNAUTHORIZED, "Invalid token");
+        } catch (KeySetUnavailableException e) {
+            log.warn("Bearer token not validated: '{}'", e.getMessage());
+            setErrorResponse(SERVICE_UNAVAILABLE, "Token validation unavailable");
+        }
+        return null;
+    }
+
+    protected String getBearerToken() {
+
+        String authorization = RequestContext.getCurrentContext()
+            .getRequest()
+            .getHeader(HttpHeaders.AUTHORIZATION);
+        return StringUtils.startsWithIgnoreCase(authorization, BEARER_PREFIX) ? authorization.substring(BEARER_PREFIX.length()) : null;
+    }
+
+    protected void setErrorResponse(HttpStatus statusCode, String message) {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseStatusCode(statusCode.value());
+        ctx.addZuulResponseHeader(CONTENT_TYPE, APPLICATION_JSON_UTF8_VALUE);
+        if (ctx.getResponseBody() == null) {
+            ctx.setResponseBody(ERROR_RESPONSE_RENDERER.render(statusCode, message, ctx.getRequest().getServletPath()));
+            ctx.setSendZuulResponse(false);
+        }
+    }
+}
@@ -0,0 +1,100 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.stereotype.Service;
+import org.springframework.web.util.UrlPathHelper;
+
+import net.smartcosmos.cluster.gateway.cache.RouteClassificationCache;
+import net.smartcosmos.cluster.gateway.domain.ErrorResponseRenderer;
+import net.smartcosmos.cluster.gateway.resource.NotFoundController;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
+
+/**
+ * <p>Filter that answers requests matching no route, or the catch-all route forwarding to the {@link NotFoundController}, with <i>Not
+ * Found</i> before any other filter runs. This skips the authentication of the request and the forward through Spring MVC.</p>
+ * <p>The response body is the same as the one of the {@link NotFoundController}, only timestamp and path are rendered per request. The
+ * matching route is looked up in the {@link RouteClassificationCache}, which the {@link PreAuthorizationFilter} uses as well.</p>
+ * <pre>
+ *     not-found:
+ *       path: /**
+ *       url: forward:/notFound
+ * </pre>
+ */
+@Service
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.not-found-filter", name = "enabled", matchIfMissing = true)
+public class NotFoundFilter extends ZuulFilter {
+
+    private static final String FILTER_TYPE_PRE = "pre";
+    // before the JwtValidationFilter and PreAuthorizationFilter
+    private static final Integer FILTER_ORDER = 0;
+
+    private static final String NOT_FOUND_LOCATION = "forward:" + NotFoundController.NOT_FOUND_PATH;
+    // the route is already resolved, the PreDecorationFilter skips requests that have a forward target
+    private static final String CTX_FORWARD_TO = "forward.to";
+    // the response is already rendered, the SendForwardFilter must not dispatch to the forward target
+    static final String CTX_SEND_FORWARD_FILTER_RAN = "sendForwardFilter.ran";
+
+    private static final ErrorResponseRenderer ERROR_RESPONSE_RENDERER = new ErrorResponseRenderer();
+
+    private final RouteClassificationCache routeClassificationCache;
+    private final UrlPathHelper urlPathHelper;
+
+    @Autowired
+    public NotFoundFilter(RouteClassificationCache routeClassificationCache) {
+
+        this.routeClassificationCache = routeClassificationCache;
+
+        urlPathHelper = new UrlPathHelper();
+    }
+
+    @Override
+    public String filterType() {
+
+        return FILTER_TYPE_PRE;
+    }
+
+    @Override
+    public int filterOrder() {
+
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+
+        return RequestContext.getCurrentContext()
+            .sendZuulResponse();
+    }
+
+    @Override
+    public Object run() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String path = urlPathHelper.getPathWithinApplication(ctx.getRequest());
+        Route route = routeClassificationCache.getMatchingRoute(path);
+
+        if (route == null || isNotFoundLocation(route.getLocation())) {
+            ctx.set(CTX_FORWARD_TO, NotFoundController.NOT_FOUND_PATH);
+            ctx.set(CTX_SEND_FORWARD_FILTER_RAN, true);
+            ctx.setSendZuulResponse(false);
+            ctx.setResponseStatusCode(NOT_FOUND.value());
+            ctx.addZuulResponseHeader(CONTENT_TYPE, APPLICATION_JSON_UTF8_VALUE);
+            // same path as the NotFoundController gets from the request URI set by the PreDecorationFilter
+            ctx.setResponseBody(ERROR_RESPONSE_RENDERER.render(NOT_FOUND, null, route != null ? route.getPath() : path));
+        }
+        return null;
+    }
+
+    private static boolean isNotFoundLocation(String location) {
+
+        return location != null && location.startsWith(NOT_FOUND_LOCATION);
+    }
+}
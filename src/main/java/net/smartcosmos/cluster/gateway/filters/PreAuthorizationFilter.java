@@ -1,24 +1,17 @@
 package net.smartcosmos.cluster.gateway.filters;
 
-import java.io.IOException;
-import java.nio.charset.StandardCharsets;
-import java.util.Base64;
 import javax.servlet.http.HttpServletRequest;
 
 import com.netflix.zuul.ExecutionStatus;
 import com.netflix.zuul.ZuulFilter;
 import com.netflix.zuul.ZuulFilterResult;
 import com.netflix.zuul.context.RequestContext;
-import com.netflix.zuul.util.HTTPRequestUtils;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.ArrayUtils;
 import org.apache.commons.lang3.StringUtils;
-import org.codehaus.jackson.map.ObjectMapper;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
-import org.springframework.cloud.netflix.zuul.filters.Route;
-import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.BadCredentialsException;
@@ -27,10 +20,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.util.UrlPathHelper;
 
 import net.smartcosmos.cluster.gateway.AuthenticationClient;
-import net.smartcosmos.cluster.gateway.domain.ErrorResponse;
+import net.smartcosmos.cluster.gateway.AuthenticationServerUnavailableException;
+import net.smartcosmos.cluster.gateway.cache.RejectedCredentialsCache;
+import net.smartcosmos.cluster.gateway.cache.RouteClassificationCache;
+import net.smartcosmos.cluster.gateway.domain.ErrorResponseRenderer;
 
-import static org.apache.commons.lang.StringUtils.isNotBlank;
 import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
 
@@ -53,19 +49,26 @@ public class PreAuthorizationFilter extends ZuulFilter {
     private static final String FILTER_TYPE_PRE = "pre";
     private static final Integer FILTER_ORDER = 2;
 
-    private static final String BASIC_AUTHENTICATION_TYPE = "Basic";
+    private static final String CTX_BASIC_AUTHENTICATION_CREDENTIALS = "basicAuthenticationCredentials";
     private static final String REQUEST_PATH_OAUTH = "oauth";
-    private static final String LOCAL_HANDLING_PREFIX = "forward:";
+    private static final String HEADER_FORWARDED_FOR = "X-Forwarded-For";
+
+    private static final ErrorResponseRenderer ERROR_RESPONSE_RENDERER = new ErrorResponseRenderer();
 
     private final AuthenticationClient authenticationClient;
-    private final RouteLocator routeLocator;
+    private final RouteClassificationCache routeClassificationCache;
+    private final RejectedCredentialsCache rejectedCredentialsCache;
     private final UrlPathHelper urlPathHelper;
 
     @Autowired
-    public PreAuthorizationFilter(AuthenticationClient authenticationClient, RouteLocator routeLocator) {
+    public PreAuthorizationFilter(
+        AuthenticationClient authenticationClient,
+        RouteClassificationCache routeClassificationCache,
+        RejectedCredentialsCache rejectedCredentialsCache) {
 
         this.authenticationClient = authenticationClient;
-        this.routeLocator = routeLocator;
+        this.routeClassificationCache = routeClassificationCache;
+        this.rejectedCredentialsCache = rejectedCredentialsCache;
 
         urlPathHelper = new UrlPathHelper();
     }
@@ -85,25 +88,21 @@ public class PreAuthorizationFilter extends ZuulFilter {
     @Override
     public boolean shouldFilter() {
 
-        return !isForwardingRoute() && !isAuthorizationPath() && isBasicAuthRequest();
+        // cheapest checks first, most requests without Basic Auth never reach the route lookup
+        return RequestContext.getCurrentContext()
+                   .sendZuulResponse() && isBasicAuthRequest() && !isAuthorizationPath() && !isForwardingRoute();
     }
 
     public boolean isForwardingRoute() {
 
         final String requestUri = urlPathHelper.getPathWithinApplication(getRequest());
 
-        Route route = routeLocator.getMatchingRoute(requestUri);
-        if (route != null && isNotBlank(route.getLocation())) {
-            return route.getLocation()
-                .startsWith(LOCAL_HANDLING_PREFIX);
-        }
-        return false;
+        return routeClassificationCache.isForwardingRoute(requestUri);
     }
 
     public boolean isBasicAuthRequest() {
 
-        return StringUtils.startsWith(HTTPRequestUtils.getInstance()
-                                          .getHeaderValue(HttpHeaders.AUTHORIZATION), BASIC_AUTHENTICATION_TYPE);
+        return getBasicAuthenticationCredentials() != null;
     }
 
     public boolean isAuthorizationPath() {
@@ -122,14 +121,30 @@ public class PreAuthorizationFilter extends ZuulFilter {
     public Object run() {
 
         String[] authCredentials = null;
+        String credentialsKey = null;
+        String remoteAddress = null;
         try {
             authCredentials = getAuthenticationCredentials();
+            credentialsKey = rejectedCredentialsCache.getKey(authCredentials[0], authCredentials[1]);
+            HttpServletRequest request = getRequest();
+            remoteAddress = rejectedCredentialsCache.getClientAddress(request.getRemoteAddr(), request.getHeader(HEADER_FORWARDED_FOR));
+            if (rejectedCredentialsCache.isRejected(credentialsKey, remoteAddress)) {
+                // recently rejected credentials, or unknown ones from a rejected address, answer without contacting the Auth Server
+                setErrorResponse(UNAUTHORIZED, "Access Denied");
+                return new ZuulFilterResult(ExecutionStatus.SUCCESS);
+            }
+
             OAuth2AccessToken oauthToken = authenticationClient.getOauthToken(authCredentials[0], authCredentials[1]);
+            rejectedCredentialsCache.recordSuccess(credentialsKey, remoteAddress);
             RequestContext ctx = RequestContext.getCurrentContext();
             ctx.addZuulRequestHeader(HttpHeaders.AUTHORIZATION, OAuth2AccessToken.BEARER_TYPE + " " + oauthToken.getValue());
         } catch (BadCredentialsException e) {
+            rejectedCredentialsCache.recordFailure(credentialsKey, remoteAddress);
             log.warn("Authentication request failed. User: '{}', Cause: '{}'", authCredentials[0], e.getMessage());
             setErrorResponse(UNAUTHORIZED, "Access Denied");
+        } catch (AuthenticationServerUnavailableException e) {
+            log.warn("Authentication request aborted. User: '{}', Cause: '{}'", authCredentials[0], e.getMessage());
+            setErrorResponse(SERVICE_UNAVAILABLE, "Authentication service unavailable");
         } catch (Throwable throwable) {
             log.warn("Exception processing authentication request. user: '{}', cause: '{}'",
                      // if we have Basic Auth credentials, return only the username
@@ -142,14 +157,30 @@ public class PreAuthorizationFilter extends ZuulFilter {
 
     protected String[] getAuthenticationCredentials() {
 
-        HttpServletRequest request = getRequest();
+        BasicAuthenticationCredentials credentials = getBasicAuthenticationCredentials();
+        if (credentials == null || credentials.isMalformed()) {
+            throw new IllegalArgumentException("Malformed Basic Authentication header");
+        }
+        return new String[] { credentials.getUsername(), credentials.getPassword() };
+    }
+
+    /**
+     * Gets the credentials of the Basic Authentication header of the current request. The header is only parsed once per request, the result
+     * is kept in the request context.
+     *
+     * @return the credentials, or {@code null} if the request has no Basic Authentication header
+     */
+    protected BasicAuthenticationCredentials getBasicAuthenticationCredentials() {
 
-        String base64Credentials = request.getHeader(HttpHeaders.AUTHORIZATION)
-            .substring(BASIC_AUTHENTICATION_TYPE.length())
-            .trim();
-        String decodedCredentials = new String(Base64.getDecoder()
-                                                   .decode(base64Credentials), StandardCharsets.UTF_8);
-        return decodedCredentials.split(":", 2);
+        RequestContext ctx = RequestContext.getCurrentContext();
+        Object credentials = ctx.get(CTX_BASIC_AUTHENTICATION_CREDENTIALS);
+        if (credentials == null) {
+            credentials = BasicAuthenticationCredentials.parse(getRequest().getHeader(HttpHeaders.AUTHORIZATION));
+            if (credentials != null) {
+                ctx.set(CTX_BASIC_AUTHENTICATION_CREDENTIALS, credentials);
+            }
+        }
+        return (BasicAuthenticationCredentials) credentials;
     }
 
     protected void setErrorResponse(HttpStatus statusCode, String message) {
@@ -165,19 +196,6 @@ public class PreAuthorizationFilter extends ZuulFilter {
 
     protected String getResponseBody(HttpStatus statusCode, String message, String path) {
 
-        ObjectMapper objectMapper = new ObjectMapper();
-
-        try {
-            ErrorResponse responseBody = ErrorResponse.builder()
-                .timestamp(System.currentTimeMillis())
-                .status(statusCode.value())
-                .error(statusCode.getReasonPhrase())
-                .message(message)
-                .path(path)
-                .build();
-            return objectMapper.writeValueAsString(responseBody);
-        } catch (IOException e) {
-            return String.format("{\"message\": \"%s\"}", message);
-        }
+        return ERROR_RESPONSE_RENDERER.render(statusCode, message, path);
     }
 }
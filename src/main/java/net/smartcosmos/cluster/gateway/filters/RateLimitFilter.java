@@ -0,0 +1,227 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.netflix.zuul.ZuulFilter;
+import com.netflix.zuul.context.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.stereotype.Service;
+
+import net.smartcosmos.cluster.gateway.config.RateLimitProperties;
+import net.smartcosmos.cluster.gateway.domain.ErrorResponseRenderer;
+import net.smartcosmos.cluster.gateway.limit.RateLimitStore;
+
+import static org.springframework.http.HttpHeaders.CONTENT_TYPE;
+import static org.springframework.http.HttpStatus.TOO_MANY_REQUESTS;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
+
+/**
+ * <p>Filter that limits the request rate per tenant and per user with token buckets held in a {@link RateLimitStore}. Tenant and user
+ * are only read from trusted claims: the claims verified by the {@link JwtValidationFilter}, or those of the token the
+ * {@link PreAuthorizationFilter} obtained from the Auth Server. The claims of other bearer tokens could be forged to evade a limit or
+ * exhaust the one of another tenant, so these requests are limited per remote address instead. Requests without a token are not
+ * limited.</p>
+ * <p>Requests exceeding a limit are answered with <i>Too Many Requests</i> and a {@code Retry-After} header.</p>
+ */
+@Slf4j
+@Service
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.rate-limit", name = "enabled")
+public class RateLimitFilter extends ZuulFilter {
+
+    private static final String FILTER_TYPE_PRE = "pre";
+    // after the PreAuthorizationFilter, which exchanges Basic Auth credentials for a bearer token
+    private static final Integer FILTER_ORDER = 3;
+
+    private static final String BEARER_PREFIX = OAuth2AccessToken.BEARER_TYPE + " ";
+    private static final String KEY_PREFIX_TENANT = "tenant:";
+    private static final String KEY_PREFIX_USER = "user:";
+    private static final String KEY_PREFIX_ADDRESS = "address:";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final ErrorResponseRenderer ERROR_RESPONSE_RENDERER = new ErrorResponseRenderer();
+
+    private final RateLimitProperties properties;
+    private final RateLimitStore rateLimitStore;
+
+    @Autowired
+    public RateLimitFilter(RateLimitProperties properties, RateLimitStore rateLimitStore) {
+
+        this.properties = properties;
+        this.rateLimitStore = rateLimitStore;
+    }
+
+    @Override
+    public String filterType() {
+
+        return FILTER_TYPE_PRE;
+    }
+
+    @Override
+    public int filterOrder() {
+
+        return FILTER_ORDER;
+    }
+
+    @Override
+    public boolean shouldFilter() {
+
+        return RequestContext.getCurrentContext()
+                   .sendZuulResponse() && getBearerToken() != null;
+    }
+
+    @Override
+    public Object run() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String[] claims;
+        try {
+            claims = getTenantAndUser();
+        } catch (IllegalArgumentException | IOException e) {
+            // not a JWT, leave the rejection to the services
+            log.debug("Rate limit not applied, cannot read token claims: '{}'", e.toString());
+            return null;
+        }
+
+        long retryAfter;
+        if (claims != null) {
+            retryAfter = tryConsume(KEY_PREFIX_TENANT, claims[0], properties.getTenant());
+            if (retryAfter == 0) {
+                retryAfter = tryConsume(KEY_PREFIX_USER, claims[1], properties.getUser());
+                if (retryAfter > 0) {
+                    // a throttled user must not use up the budget of the other users of the tenant
+                    refund(KEY_PREFIX_TENANT, claims[0], properties.getTenant());
+                }
+            }
+        } else {
+            retryAfter = tryConsume(KEY_PREFIX_ADDRESS, ctx.getRequest()
+                .getRemoteAddr(), properties.getAddress());
+        }
+        if (retryAfter > 0) {
+            ctx.addZuulResponseHeader(HttpHeaders.RETRY_AFTER, String.valueOf(TimeUnit.MILLISECONDS.toSeconds(retryAfter + 999)));
+            setErrorResponse(TOO_MANY_REQUESTS, "Rate limit exceeded");
+        }
+        return null;
+    }
+
+    private long tryConsume(String keyPrefix, String id, RateLimitProperties.Bucket bucket) {
+
+        if (id == null || bucket.getCapacity() <= 0) {
+            return 0;
+        }
+        return rateLimitStore.tryConsume(keyPrefix + id, bucket);
+    }
+
+    private void refund(String keyPrefix, String id, RateLimitProperties.Bucket bucket) {
+
+        if (id != null && bucket.getCapacity() > 0) {
+            rateLimitStore.refund(keyPrefix + id, bucket);
+        }
+    }
+
+    /**
+     * Gets the bearer token of the current request, preferring the one added by the {@link PreAuthorizationFilter}.
+     *
+     * @return the token, or {@code null} if the request has no bearer token
+     */
+    protected String getBearerToken() {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        String authorization = ctx.getZuulRequestHeaders()
+            .get(HttpHeaders.AUTHORIZATION.toLowerCase());
+        if (authorization == null) {
+            authorization = ctx.getRequest()
+                .getHeader(HttpHeaders.AUTHORIZATION);
+        }
+        return getBearerToken(authorization);
+    }
+
+    private static String getBearerToken(String authorization) {
+
+        return StringUtils.startsWithIgnoreCase(authorization, BEARER_PREFIX) ? authorization.substring(BEARER_PREFIX.length()) : null;
+    }
+
+    /**
+     * Gets tenant and user from the claims verified by the {@link JwtValidationFilter}, or decodes them from the token the
+     * {@link PreAuthorizationFilter} obtained from the Auth Server. The claims of tokens sent by the client are not verified and therefore
+     * not used.
+     *
+     * @return an array of tenant and user, each {@code null} if not present, or {@code null} if there are no trusted claims
+     * @throws IOException if the token claims are not a valid JSON object
+     */
+    protected String[] getTenantAndUser() throws IOException {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        Object verifiedClaims = ctx.get(JwtValidationFilter.CTX_TOKEN_CLAIMS);
+        if (verifiedClaims instanceof Map) {
+            Map<?, ?> claims = (Map<?, ?>) verifiedClaims;
+            return new String[] { getStringClaim(claims, properties.getTenantClaim()), getStringClaim(claims, properties.getUserClaim()) };
+        }
+
+        String obtainedToken = getBearerToken(ctx.getZuulRequestHeaders()
+                                                  .get(HttpHeaders.AUTHORIZATION.toLowerCase()));
+        if (obtainedToken != null) {
+            return getTenantAndUser(JwtHelper.decode(obtainedToken)
+                                        .getClaims());
+        }
+        return null;
+    }
+
+    private static String getStringClaim(Map<?, ?> claims, String name) {
+
+        Object value = claims.get(name);
+        return value instanceof String ? (String) value : null;
+    }
+
+    /**
+     * Reads the tenant and user claims from the top level of the token claims.
+     *
+     * @param claims the JSON claims of the token
+     * @return an array of tenant and user, each {@code null} if not present
+     * @throws IOException if the claims are not a valid JSON object
+     */
+    protected String[] getTenantAndUser(String claims) throws IOException {
+
+        String[] tenantAndUser = new String[2];
+        try (JsonParser parser = JSON_FACTORY.createParser(claims)) {
+            if (parser.nextToken() != JsonToken.START_OBJECT) {
+                throw new IOException("Token claims are not a JSON object");
+            }
+            while (parser.nextToken() == JsonToken.FIELD_NAME) {
+                String name = parser.getCurrentName();
+                JsonToken value = parser.nextToken();
+                if (value == JsonToken.VALUE_STRING && name.equals(properties.getTenantClaim())) {
+                    tenantAndUser[0] = parser.getText();
+                } else if (value == JsonToken.VALUE_STRING && name.equals(properties.getUserClaim())) {
+                    tenantAndUser[1] = parser.getText();
+                } else {
+                    parser.skipChildren();
+                }
+            }
+        }
+        return tenantAndUser;
+    }
+
+    protected void setErrorResponse(HttpStatus statusCode, String message) {
+
+        RequestContext ctx = RequestContext.getCurrentContext();
+        ctx.setResponseStatusCode(statusCode.value());
+        ctx.addZuulResponseHeader(CONTENT_TYPE, APPLICATION_JSON_UTF8_VALUE);
+        if (ctx.getResponseBody() == null) {
+            ctx.setResponseBody(ERROR_RESPONSE_RENDERER.render(statusCode, message, ctx.getRequest().getServletPath()));
+            ctx.setSendZuulResponse(false);
+        }
+    }
+}
@@ -0,0 +1,128 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.JwtValidationProperties;
+import net.smartcosmos.cluster.gateway.security.KeySetUnavailableException;
+import net.smartcosmos.cluster.gateway.security.TokenVerifier;
+
+/**
+ * <p>Keeps the claims of verified bearer tokens, so that tokens sent repeatedly are decoded and their signature verified only once.</p>
+ * <p>Tokens are cached by a SHA-256 fingerprint instead of the token itself. Cached claims are only used until the token expires, and at
+ * most for {@code maximum-time-to-live} seconds, and all of them are removed when the {@link TokenVerifier} requested a changed key set.</p>
+ */
+@Component
+@EnableConfigurationProperties({ JwtValidationProperties.class })
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.jwt-validation", name = "enabled")
+public class TokenClaimsCache implements PublicMetrics {
+
+    private static final String METRIC_PREFIX = "gateway.token-claims-cache.";
+    private static final String HASH_ALGORITHM = "SHA-256";
+
+    private final TokenVerifier tokenVerifier;
+    private final boolean enabled;
+    private final Cache<String, Map<String, Object>> claimsByFingerprint;
+
+    private volatile int keySetVersion;
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+
+    @Autowired
+    public TokenClaimsCache(TokenVerifier tokenVerifier, JwtValidationProperties properties) {
+
+        JwtValidationProperties.ClaimsCache cacheProperties = properties.getClaimsCache();
+
+        this.tokenVerifier = tokenVerifier;
+        enabled = cacheProperties.isEnabled();
+        claimsByFingerprint = CacheBuilder.newBuilder()
+            .maximumSize(cacheProperties.getMaximumSize())
+            .expireAfterWrite(cacheProperties.getMaximumTimeToLive(), TimeUnit.SECONDS)
+            .build();
+    }
+
+    /**
+     * Gets the claims of a token, verifying it if it is not cached.
+     *
+     * @param token the encoded token
+     * @return the claims of the token
+     * @throws InvalidTokenException if the token is malformed, not signed by the Auth Server or expired
+     * @throws KeySetUnavailableException if the token cannot be verified, because the key set cannot be requested
+     */
+    public Map<String, Object> getVerifiedClaims(String token) throws InvalidTokenException, KeySetUnavailableException {
+
+        if (!enabled) {
+            return tokenVerifier.verify(token);
+        }
+
+        int currentKeySetVersion = tokenVerifier.getKeySetVersion();
+        if (currentKeySetVersion != keySetVersion) {
+            // the claims may have been verified with a key that was revoked since
+            keySetVersion = currentKeySetVersion;
+            claimsByFingerprint.invalidateAll();
+        }
+
+        String fingerprint = getFingerprint(token);
+        Map<String, Object> claims = claimsByFingerprint.getIfPresent(fingerprint);
+        if (claims != null) {
+            if (!TokenVerifier.isExpired(claims)) {
+                hits.increment();
+                return claims;
+            }
+            claimsByFingerprint.invalidate(fingerprint);
+        }
+
+        misses.increment();
+        claims = tokenVerifier.verify(token);
+        if (tokenVerifier.getKeySetVersion() == currentKeySetVersion) {
+            claimsByFingerprint.put(fingerprint, claims);
+        }
+        return claims;
+    }
+
+    static String getFingerprint(String token) {
+
+        try {
+            byte[] hash = MessageDigest.getInstance(HASH_ALGORITHM)
+                .digest(token.getBytes(StandardCharsets.UTF_8));
+            return Base64.getEncoder()
+                .encodeToString(hash);
+        } catch (NoSuchAlgorithmException e) {
+            // every Java platform is required to support SHA-256
+            throw new IllegalStateException(e);
+        }
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        long hitCount = hits.sum();
+        long missCount = misses.sum();
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(METRIC_PREFIX + "size", claimsByFingerprint.size()));
+        metrics.add(new Metric<>(METRIC_PREFIX + "hit", hitCount));
+        metrics.add(new Metric<>(METRIC_PREFIX + "miss", missCount));
+        metrics.add(new Metric<>(METRIC_PREFIX + "hit-ratio", hitCount + missCount == 0 ? 0.0 : (double) hitCount / (hitCount + missCount)));
+        return metrics;
+    }
+}
@@ -0,0 +1,114 @@
+package net.smartcosmos.cluster.gateway.limit;
+
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import net.smartcosmos.cluster.gateway.config.ConcurrencyLimitProperties;
+
+/**
+ * <p>Limit of concurrent requests to a single service that adapts to the observed latency (additive increase, multiplicative decrease).</p>
+ * <p>Each completed request is compared with the moving average of the latency. If it failed or took longer than {@code latency-tolerance}
+ * times the average, the service is considered overloaded and the limit is reduced by {@code backoff-ratio}, at most once per average
+ * latency: the requests completing within that window were sent under the same limit, so a single reduction responds to all of them,
+ * and occasional slow requests of a service with endpoints of differing latency don't drive the limit down. Otherwise the limit is
+ * increased by one, as long as the requests actually use at least half of it. A degrading service thus gets fewer concurrent requests
+ * quickly, instead of queueing them until they time out.</p>
+ */
+public class AdaptiveConcurrencyLimit {
+
+    private final int minLimit;
+    private final int maxLimit;
+    private final double backoffRatio;
+    private final double latencyTolerance;
+    private final double smoothing;
+
+    private final AtomicInteger inFlight = new AtomicInteger();
+    private final LongAdder rejected = new LongAdder();
+
+    private volatile double limit;
+    private double averageLatency;
+    private long lastDecrease;
+    private boolean decreased;
+
+    public AdaptiveConcurrencyLimit(ConcurrencyLimitProperties properties) {
+
+        minLimit = properties.getMinLimit();
+        maxLimit = properties.getMaxLimit();
+        backoffRatio = properties.getBackoffRatio();
+        latencyTolerance = properties.getLatencyTolerance();
+        smoothing = properties.getSmoothing();
+        limit = Math.max(minLimit, Math.min(maxLimit, properties.getInitialLimit()));
+    }
+
+    /**
+     * Acquires a permit for a request, unless the limit is reached.
+     *
+     * @return {@code true} if the request may be sent, {@code false} if it has to be rejected
+     */
+    public boolean tryAcquire() {
+
+        int current;
+        do {
+            current = inFlight.get();
+            if (current >= (int) limit) {
+                rejected.increment();
+                return false;
+            }
+        } while (!inFlight.compareAndSet(current, current + 1));
+        return true;
+    }
+
+    /**
+     * Releases the permit of a completed request and adapts the limit.
+     *
+     * @param latencyNanos the latency of the request
+     * @param failed {@code true} if the request failed because the service is overloaded, e.g. timed out or was unavailable
+     */
+    public void release(long latencyNanos, boolean failed) {
+
+        release(latencyNanos, failed, System.nanoTime());
+    }
+
+    void release(long latencyNanos, boolean failed, long now) {
+
+        int inFlightBefore = inFlight.getAndDecrement();
+
+        synchronized (this) {
+            boolean overloaded = failed;
+            if (!failed) {
+                if (averageLatency == 0) {
+                    averageLatency = latencyNanos;
+                }
+                overloaded = latencyNanos > averageLatency * latencyTolerance;
+                averageLatency += (latencyNanos - averageLatency) * smoothing;
+            }
+
+            if (overloaded) {
+                // the latency of a failed request says little, the window falls back to it only while there is no average yet
+                double window = averageLatency > 0 ? averageLatency : latencyNanos;
+                if (!decreased || now - lastDecrease >= window) {
+                    limit = Math.max(minLimit, limit * backoffRatio);
+                    lastDecrease = now;
+                    decreased = true;
+                }
+            } else if (inFlightBefore * 2 >= limit) {
+                limit = Math.min(maxLimit, limit + 1);
+            }
+        }
+    }
+
+    public int getLimit() {
+
+        return (int) limit;
+    }
+
+    public int getInFlight() {
+
+        return inFlight.get();
+    }
+
+    public long getRejectedCount() {
+
+        return rejected.sum();
+    }
+}
@@ -0,0 +1,64 @@
+package net.smartcosmos.cluster.gateway.limit;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.ConcurrencyLimitProperties;
+
+/**
+ * Keeps an {@link AdaptiveConcurrencyLimit} per downstream service and publishes their current limit, the requests in flight and the number of
+ * rejected requests as metrics.
+ */
+@Component
+@EnableConfigurationProperties({ ConcurrencyLimitProperties.class })
+public class ConcurrencyLimiter implements PublicMetrics {
+
+    private static final String METRIC_PREFIX = "gateway.concurrency-limit.";
+
+    private final ConcurrencyLimitProperties properties;
+    private final ConcurrentMap<String, AdaptiveConcurrencyLimit> limits = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ConcurrencyLimiter(ConcurrencyLimitProperties properties) {
+
+        this.properties = properties;
+    }
+
+    /**
+     * Gets the limit of a service, which is created on first use.
+     *
+     * @param serviceId the service ID
+     * @return the limit
+     */
+    public AdaptiveConcurrencyLimit getLimit(String serviceId) {
+
+        AdaptiveConcurrencyLimit limit = limits.get(serviceId);
+        if (limit == null) {
+            limit = limits.computeIfAbsent(serviceId, key -> new AdaptiveConcurrencyLimit(properties));
+        }
+        return limit;
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        for (Map.Entry<String, AdaptiveConcurrencyLimit> entry : limits.entrySet()) {
+            String prefix = METRIC_PREFIX + entry.getKey() + ".";
+            AdaptiveConcurrencyLimit limit = entry.getValue();
+            metrics.add(new Metric<>(prefix + "limit", limit.getLimit()));
+            metrics.add(new Metric<>(prefix + "in-flight", limit.getInFlight()));
+            metrics.add(new Metric<>(prefix + "rejected", limit.getRejectedCount()));
+        }
+        return metrics;
+    }
+}
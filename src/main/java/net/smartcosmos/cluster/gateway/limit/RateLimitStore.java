@@ -0,0 +1,28 @@
+package net.smartcosmos.cluster.gateway.limit;
+
+import net.smartcosmos.cluster.gateway.config.RateLimitProperties;
+
+/**
+ * Storage of the token buckets used for rate limiting. The default {@link StripedTokenBucketStore} keeps them in memory, which limits the rate
+ * per gateway instance; an implementation backed by a shared store limits the rate across the cluster.
+ */
+public interface RateLimitStore {
+
+    /**
+     * Takes a token from a bucket, which is created full if it doesn't exist.
+     *
+     * @param key the key of the bucket
+     * @param bucket the capacity and refill rate of the bucket
+     * @return {@code 0} if a token was taken, otherwise the number of milliseconds until the next token is available
+     */
+    long tryConsume(String key, RateLimitProperties.Bucket bucket);
+
+    /**
+     * Returns a token taken by {@link #tryConsume(String, RateLimitProperties.Bucket)} to a bucket, if the request was rejected by another
+     * bucket. The bucket is not filled above its capacity.
+     *
+     * @param key the key of the bucket
+     * @param bucket the capacity and refill rate of the bucket
+     */
+    void refund(String key, RateLimitProperties.Bucket bucket);
+}
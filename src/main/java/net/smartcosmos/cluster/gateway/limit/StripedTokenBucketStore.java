@@ -0,0 +1,73 @@
+package net.smartcosmos.cluster.gateway.limit;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.Lock;
+
+import com.google.common.base.Ticker;
+import com.google.common.cache.Cache;
+import com.google.common.cache.CacheBuilder;
+import com.google.common.util.concurrent.Striped;
+
+import net.smartcosmos.cluster.gateway.config.RateLimitProperties;
+
+/**
+ * In-memory {@link RateLimitStore}. The buckets are guarded by a fixed number of striped locks instead of a lock per bucket or a global lock,
+ * and removed after a minute without requests (a full bucket is the same as no bucket).
+ */
+public class StripedTokenBucketStore implements RateLimitStore {
+
+    private static final long IDLE_EXPIRY_SECONDS = 60;
+
+    private final Ticker ticker;
+    private final Striped<Lock> locks;
+    private final Cache<String, TokenBucket> buckets;
+
+    public StripedTokenBucketStore(RateLimitProperties properties) {
+
+        this(properties, Ticker.systemTicker());
+    }
+
+    StripedTokenBucketStore(RateLimitProperties properties, Ticker ticker) {
+
+        this.ticker = ticker;
+        locks = Striped.lock(properties.getStripes());
+        buckets = CacheBuilder.newBuilder()
+            .maximumSize(properties.getMaximumSize())
+            .expireAfterAccess(IDLE_EXPIRY_SECONDS, TimeUnit.SECONDS)
+            .ticker(ticker)
+            .build();
+    }
+
+    @Override
+    public long tryConsume(String key, RateLimitProperties.Bucket bucket) {
+
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            long now = ticker.read();
+            TokenBucket tokenBucket = buckets.getIfPresent(key);
+            if (tokenBucket == null) {
+                tokenBucket = new TokenBucket(bucket.getCapacity(), now);
+                buckets.put(key, tokenBucket);
+            }
+            return TimeUnit.NANOSECONDS.toMillis(tokenBucket.tryConsume(bucket.getCapacity(), bucket.getRefillRate(), now) + 999_999);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Override
+    public void refund(String key, RateLimitProperties.Bucket bucket) {
+
+        Lock lock = locks.get(key);
+        lock.lock();
+        try {
+            TokenBucket tokenBucket = buckets.getIfPresent(key);
+            if (tokenBucket != null) {
+                tokenBucket.refund(bucket.getCapacity());
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+}
@@ -0,0 +1,52 @@
+package net.smartcosmos.cluster.gateway.limit;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Mutable state of a single token bucket. Not thread-safe, callers have to synchronize.
+ */
+class TokenBucket {
+
+    private static final double NANOS_PER_SECOND = TimeUnit.SECONDS.toNanos(1);
+
+    private double tokens;
+    private long lastRefill;
+
+    TokenBucket(long capacity, long now) {
+
+        tokens = capacity;
+        lastRefill = now;
+    }
+
+    /**
+     * Refills the bucket for the time passed since the last call and takes a token if available.
+     *
+     * @param capacity the capacity of the bucket
+     * @param refillRate the tokens per second
+     * @param now the current time in nanoseconds
+     * @return {@code 0} if a token was taken, otherwise the nanoseconds until the next token is available
+     */
+    long tryConsume(long capacity, double refillRate, long now) {
+
+        if (now > lastRefill) {
+            tokens = Math.min(capacity, tokens + (now - lastRefill) * refillRate / NANOS_PER_SECOND);
+            lastRefill = now;
+        }
+
+        if (tokens >= 1) {
+            tokens -= 1;
+            return 0;
+        }
+        return (long) Math.ceil((1 - tokens) * NANOS_PER_SECOND / refillRate);
+    }
+
+    /**
+     * Puts back a token taken before.
+     *
+     * @param capacity the capacity of the bucket
+     */
+    void refund(long capacity) {
+
+        tokens = Math.min(capacity, tokens + 1);
+    }
+}
@@ -0,0 +1,183 @@
+package net.smartcosmos.cluster.gateway.resource;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ScheduledThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import lombok.AllArgsConstructor;
+import lombok.EqualsAndHashCode;
+import lombok.extern.slf4j.Slf4j;
+
+import org.springframework.beans.factory.DisposableBean;
+import org.springframework.beans.factory.InitializingBean;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.ErrorLoggingProperties;
+
+/**
+ * <p>Counts failed requests per route, service, status and exception class, so that an outage of a service doesn't produce a full log
+ * message for every single request.</p>
+ * <p>Only the first {@code samples-per-interval} failures of an interval are to be logged individually, all failures are summarized in a single
+ * log line at the end of the interval. The counts are published as metrics.</p>
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties({ ErrorLoggingProperties.class })
+public class ErrorEventAggregator implements InitializingBean, DisposableBean, PublicMetrics {
+
+    private static final String METRIC_PREFIX = "gateway.errors.";
+    private static final String THREAD_NAME_PREFIX = "gateway-error-summary-";
+    private static final ErrorKey OTHER_ERRORS = new ErrorKey("other", "other", 0, "other");
+
+    private final ErrorLoggingProperties properties;
+    private final ConcurrentMap<ErrorKey, ErrorCounter> counters = new ConcurrentHashMap<>();
+    private final AtomicInteger samples = new AtomicInteger();
+    private final ScheduledThreadPoolExecutor executor;
+
+    @Autowired
+    public ErrorEventAggregator(ErrorLoggingProperties properties) {
+
+        this.properties = properties;
+
+        executor = new ScheduledThreadPoolExecutor(1, new CustomizableThreadFactory(THREAD_NAME_PREFIX));
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+
+        executor.scheduleAtFixedRate(this::logSummary, properties.getInterval(), properties.getInterval(), TimeUnit.SECONDS);
+    }
+
+    /**
+     * Counts a failed request.
+     *
+     * @param route the route of the request
+     * @param serviceId the service of the route
+     * @param status the status code of the failure, if known
+     * @param exception the exception that caused the failure, if any
+     * @return {@code true} if the failure should be logged individually
+     */
+    public boolean record(String route, String serviceId, HttpStatus status, Throwable exception) {
+
+        ErrorKey key = new ErrorKey(route,
+                                    serviceId,
+                                    status != null ? status.value() : 0,
+                                    exception != null ? exception.getClass()
+                                        .getName() : "none");
+        ErrorCounter counter = counters.get(key);
+        if (counter == null) {
+            counter = counters.size() < properties.getMaximumKeys()
+                      ? counters.computeIfAbsent(key, k -> new ErrorCounter())
+                      : counters.computeIfAbsent(OTHER_ERRORS, k -> new ErrorCounter());
+        }
+        counter.count.increment();
+
+        return samples.get() < properties.getSamplesPerInterval() && samples.incrementAndGet() <= properties.getSamplesPerInterval();
+    }
+
+    /**
+     * Logs a single line with the failures counted since the last summary and starts a new interval.
+     */
+    public void logSummary() {
+
+        try {
+            int sampled = samples.getAndSet(0);
+            long total = 0;
+            StringBuilder summary = new StringBuilder();
+            for (Map.Entry<ErrorKey, ErrorCounter> entry : counters.entrySet()) {
+                long count = entry.getValue()
+                    .takeUnreported();
+                if (count > 0) {
+                    total += count;
+                    ErrorKey key = entry.getKey();
+                    summary.append(String.format(" [route '%s', service '%s', status %d, %s: %d]",
+                                                 key.route,
+                                                 key.serviceId,
+                                                 key.status,
+                                                 key.exceptionClass,
+                                                 count));
+                }
+            }
+            if (total > 0) {
+                log.warn("{} requests failed in the last {} seconds, {} logged individually:{}",
+                         total,
+                         properties.getInterval(),
+                         Math.min(sampled, total),
+                         summary);
+            }
+        } catch (RuntimeException e) {
+            // an exception would cancel the periodic execution
+            log.warn("Summarizing failed requests failed: {}", e.toString());
+        }
+    }
+
+    @Override
+    public void destroy() {
+
+        executor.shutdownNow();
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        // routes of the same service are added up
+        Map<String, Long> counts = new TreeMap<>();
+        long total = 0;
+        for (Map.Entry<ErrorKey, ErrorCounter> entry : counters.entrySet()) {
+            ErrorKey key = entry.getKey();
+            long count = entry.getValue().count.sum();
+            total += count;
+            counts.merge(METRIC_PREFIX + key.serviceId + "." + key.status + "." + key.getExceptionSimpleName(), count, Long::sum);
+        }
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(METRIC_PREFIX + "total", total));
+        for (Map.Entry<String, Long> count : counts.entrySet()) {
+            metrics.add(new Metric<>(count.getKey(), count.getValue()));
+        }
+        return metrics;
+    }
+
+    @AllArgsConstructor
+    @EqualsAndHashCode
+    private static class ErrorKey {
+
+        private final String route;
+        private final String serviceId;
+        private final int status;
+        private final String exceptionClass;
+
+        String getExceptionSimpleName() {
+
+            return exceptionClass.substring(exceptionClass.lastIndexOf('.') + 1);
+        }
+    }
+
+    private static class ErrorCounter {
+
+        // LongAdder spreads concurrent increments over striped cells
+        private final LongAdder count = new LongAdder();
+        private long reported;
+
+        synchronized long takeUnreported() {
+
+            long current = count.sum();
+            long unreported = current - reported;
+            reported = current;
+            return unreported;
+        }
+    }
+}
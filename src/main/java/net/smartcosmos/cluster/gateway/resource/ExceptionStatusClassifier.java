@@ -0,0 +1,98 @@
+package net.smartcosmos.cluster.gateway.resource;
+
+import java.net.SocketTimeoutException;
+import java.util.EnumMap;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeoutException;
+
+import com.netflix.client.ClientException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.exception.HystrixRuntimeException.FailureType;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.ExceptionStatusProperties;
+
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+/**
+ * <p>Maps exceptions that occurred while routing a request to the status of the error response, using a table of exception classes and Hystrix
+ * failure types that can be extended in {@code smartcosmos.gateway.exception-status}.</p>
+ * <p>An exception class that is not mapped itself gets the status of its closest mapped superclass. The result of this lookup is memoized per
+ * class, so classifying an exception of a known class doesn't walk the class hierarchy or allocate.</p>
+ */
+@Component
+@EnableConfigurationProperties({ ExceptionStatusProperties.class })
+public class ExceptionStatusClassifier {
+
+    private static final int MAXIMUM_CAUSE_DEPTH = 32;
+
+    private final Map<String, HttpStatus> exceptionStatus = new HashMap<>();
+    private final Map<FailureType, HttpStatus> hystrixFailureStatus = new EnumMap<>(FailureType.class);
+
+    private final ClassValue<Optional<HttpStatus>> statusByClass = new ClassValue<Optional<HttpStatus>>() {
+
+        @Override
+        protected Optional<HttpStatus> computeValue(Class<?> type) {
+
+            for (Class<?> current = type; current != null; current = current.getSuperclass()) {
+                HttpStatus status = exceptionStatus.get(current.getName());
+                if (status != null) {
+                    return Optional.of(status);
+                }
+            }
+            return Optional.empty();
+        }
+    };
+
+    @Autowired
+    public ExceptionStatusClassifier(ExceptionStatusProperties properties) {
+
+        exceptionStatus.put(SocketTimeoutException.class.getName(), GATEWAY_TIMEOUT);
+        exceptionStatus.put(TimeoutException.class.getName(), GATEWAY_TIMEOUT);
+        exceptionStatus.put(ClientException.class.getName(), SERVICE_UNAVAILABLE);
+        exceptionStatus.putAll(properties.getExceptions());
+
+        // the command was not executed at all, because the semaphore or thread pool of the route was exhausted or its circuit is open
+        hystrixFailureStatus.put(FailureType.REJECTED_SEMAPHORE_EXECUTION, SERVICE_UNAVAILABLE);
+        hystrixFailureStatus.put(FailureType.REJECTED_THREAD_EXECUTION, SERVICE_UNAVAILABLE);
+        hystrixFailureStatus.put(FailureType.SHORTCIRCUIT, SERVICE_UNAVAILABLE);
+        hystrixFailureStatus.put(FailureType.TIMEOUT, GATEWAY_TIMEOUT);
+        hystrixFailureStatus.putAll(properties.getHystrixFailures());
+    }
+
+    /**
+     * Gets the status for an exception. The exception class is looked up first; if it isn't mapped, the failure type of the first Hystrix
+     * exception in the cause chain is, since Zuul wraps the Hystrix exception.
+     *
+     * @param throwable the exception
+     * @return the status, or {@code null} if the exception is not mapped
+     */
+    public HttpStatus getStatus(Throwable throwable) {
+
+        if (throwable == null) {
+            return null;
+        }
+
+        Optional<HttpStatus> status = statusByClass.get(throwable.getClass());
+        if (status.isPresent()) {
+            return status.get();
+        }
+
+        Throwable cause = throwable;
+        for (int depth = 0; cause != null && depth < MAXIMUM_CAUSE_DEPTH; depth++) {
+            if (cause instanceof HystrixRuntimeException) {
+                FailureType failureType = ((HystrixRuntimeException) cause).getFailureType();
+                return failureType != null ? hystrixFailureStatus.get(failureType) : null;
+            }
+            cause = cause.getCause();
+        }
+        return null;
+    }
+}
@@ -0,0 +1,214 @@
+package net.smartcosmos.cluster.gateway.resource;
+
+import com.netflix.zuul.context.RequestContext;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.collections.MapUtils;
+import org.apache.commons.lang.StringUtils;
+import org.apache.commons.lang.exception.ExceptionUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.domain.ErrorResponse;
+
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_EXCEPTION;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_MESSAGE;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_STATUS_CODE;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_PROXY;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_SERVICE_ID;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ERROR_MESSAGE_TIMEOUT;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ZUUL_REQUEST_URI;
+
+/**
+ * <p>Classifies and logs failures that occurred while routing a request, and creates the {@link ErrorResponse} to answer them with.</p>
+ * <p>Used by the {@link GatewayErrorController} and by the {@link net.smartcosmos.cluster.gateway.filters.ErrorResponseFilter}, which
+ * writes the response without forwarding the request to the controller.</p>
+ */
+@Slf4j
+@Component
+public class RoutingErrorHandler {
+
+    private final ErrorEventAggregator errorEventAggregator;
+    private final ExceptionStatusClassifier exceptionStatusClassifier;
+
+    @Autowired
+    public RoutingErrorHandler(ErrorEventAggregator errorEventAggregator, ExceptionStatusClassifier exceptionStatusClassifier) {
+
+        this.errorEventAggregator = errorEventAggregator;
+        this.exceptionStatusClassifier = exceptionStatusClassifier;
+    }
+
+    /**
+     * <p>Evaluates a {@link RequestContext} and extracts information on the request, matching routes and error or exceptions that occurred
+     * during routing.</p>
+     * <p>It returns an {@link ErrorResponse} with one of these HTTP status codes, depending on the request context information:</p>
+     * <ul>
+     * <li>500 Internal Server Error</li>
+     * <li>503 Service Unavailable</li>
+     * <li>504 Gateway Timeout</li>
+     * </ul>
+     * <p>Only the first failures of an interval are logged at WARN level, the {@link ErrorEventAggregator} summarizes all of them once per
+     * interval. Every failure is logged at DEBUG level.</p>
+     *
+     * @param requestContext the request context
+     * @return the error response
+     */
+    public ErrorResponse handle(RequestContext requestContext) {
+
+        String requestUri = null;
+        String errorResponseMessage;
+
+        if (MapUtils.isEmpty(requestContext)) {
+            String msg = "No context information available. A reason for this can be that no configured route matched the request.";
+            log.warn(msg);
+            return errorResponse(INTERNAL_SERVER_ERROR,
+                                 msg,
+                                 null);
+        }
+
+        try {
+            requestUri = getRequestUriFromRequestContext(requestContext);
+            HttpStatus httpStatus = getHttpStatusFromRequestContext(requestContext);
+
+            String route = getRouteFromRequestContext(requestContext);
+            String serviceId = getServiceIdFromRequestContext(requestContext);
+
+            String errorMessage = getErrorMessageFromRequestContext(requestContext);
+
+            Exception errorException = getExceptionFromRequestContext(requestContext);
+            String exceptionMessage = "No message available";
+            Throwable rootCause = null;
+            if (errorException != null) {
+                exceptionMessage = errorException.getMessage();
+                rootCause = ExceptionUtils.getRootCause(errorException);
+            }
+            if (rootCause != null && StringUtils.isNotBlank(rootCause.getMessage())) {
+                exceptionMessage = exceptionMessage.concat(String.format(": %s", rootCause.getMessage()));
+            }
+
+            boolean sampled = errorEventAggregator.record(route, serviceId, httpStatus, rootCause != null ? rootCause : errorException);
+            if (sampled || log.isDebugEnabled()) {
+                String msg = String.format("Using route '%s' to service '%s' for request '%s' failed.\n"
+                                           + "Status code: '%s', Error: '%s'\n"
+                                           + "Cause: %s\n"
+                                           + "Root cause: %s",
+                                           route,
+                                           serviceId,
+                                           requestUri,
+                                           httpStatus,
+                                           errorMessage,
+                                           errorException != null ? errorException.toString() : "No exception available in context",
+                                           rootCause != null ? rootCause.toString() : "N/A");
+                if (sampled) {
+                    log.warn(msg);
+                }
+                log.debug(msg, errorException, rootCause);
+            }
+
+            HttpStatus mappedStatus = ERROR_MESSAGE_TIMEOUT.equals(errorMessage) ? GATEWAY_TIMEOUT : getMappedStatus(errorException, rootCause);
+            if (mappedStatus != null) {
+                return errorResponse(mappedStatus, exceptionMessage, requestUri);
+            }
+
+            errorResponseMessage = String.format("Gateway error: '%s' failed: %s", route, exceptionMessage);
+        } catch (Throwable t) {
+            errorResponseMessage = t.toString();
+            log.info("Exception, cause: {}", errorResponseMessage);
+        }
+
+        return errorResponse(INTERNAL_SERVER_ERROR, errorResponseMessage, requestUri);
+    }
+
+    /**
+     * <p>Gets the status an exception is mapped to by the {@link ExceptionStatusClassifier}, or the one of its root cause if the exception
+     * itself is not mapped. A timeout takes precedence, also if it is the root cause, since Ribbon wraps socket timeouts in a
+     * {@code ClientException}. Each of them is classified at most once.</p>
+     * <p>By default, socket timeouts and other timeouts are mapped to <i>504 Gateway Timeout</i>, Ribbon client errors and Hystrix commands
+     * that were not executed at all, because the semaphore or thread pool of the route was exhausted or its circuit is open, to <i>503
+     * Service Unavailable</i>. Further exception types can be mapped in {@code smartcosmos.gateway.exception-status}.</p>
+     *
+     * @param exception the exception
+     * @param rootCause the root cause of the exception
+     * @return the status, or {@code null} if none is mapped
+     */
+    protected HttpStatus getMappedStatus(Throwable exception, Throwable rootCause) {
+
+        HttpStatus status = exceptionStatusClassifier.getStatus(exception);
+        if (status == GATEWAY_TIMEOUT) {
+            return status;
+        }
+        HttpStatus rootCauseStatus = exceptionStatusClassifier.getStatus(rootCause);
+        return status == null || rootCauseStatus == GATEWAY_TIMEOUT ? rootCauseStatus : status;
+    }
+
+    /**
+     * Builds an {@link ErrorResponse} to return as JSON error response.
+     *
+     * @param httpStatus the HTTP status code to return
+     * @param message the error message
+     * @param path the request path where the error occurred
+     * @return the error response
+     */
+    protected ErrorResponse errorResponse(HttpStatus httpStatus, String message, String path) {
+
+        return ErrorResponse.builder()
+            .timestamp(System.currentTimeMillis())
+            .status(httpStatus.value())
+            .error(httpStatus.getReasonPhrase())
+            .message(message)
+            .path(path)
+            .build();
+    }
+
+    protected String getRequestUriFromRequestContext(RequestContext requestContext) {
+
+        if (requestContext != null && requestContext.get(ZUUL_REQUEST_URI) != null) {
+            return (String) requestContext.get(ZUUL_REQUEST_URI);
+        }
+        return "unknown-uri";
+    }
+
+    protected HttpStatus getHttpStatusFromRequestContext(RequestContext requestContext) {
+
+        if (requestContext.containsKey(ATTR_ERROR_STATUS_CODE)) {
+            return HttpStatus.valueOf((Integer) requestContext.get(ATTR_ERROR_STATUS_CODE));
+        }
+        return null;
+    }
+
+    protected String getRouteFromRequestContext(RequestContext requestContext) {
+
+        if (requestContext.containsKey(ATTR_PROXY)) {
+            return (String) requestContext.get(ATTR_PROXY);
+        }
+        return "unknown-route";
+    }
+
+    protected String getServiceIdFromRequestContext(RequestContext requestContext) {
+
+        if (requestContext.containsKey(ATTR_SERVICE_ID)) {
+            return (String) requestContext.get(ATTR_SERVICE_ID);
+        }
+        return "unknown-service";
+    }
+
+    protected Exception getExceptionFromRequestContext(RequestContext requestContext) {
+
+        if (requestContext.containsKey(ATTR_ERROR_EXCEPTION)) {
+            return (Exception) requestContext.get(ATTR_ERROR_EXCEPTION);
+        }
+        return null;
+    }
+
+    protected String getErrorMessageFromRequestContext(RequestContext requestContext) {
+
+        if (requestContext != null && requestContext.containsKey(ATTR_ERROR_MESSAGE)) {
+            return (String) requestContext.get(ATTR_ERROR_MESSAGE);
+        }
+        return "No message available";
+    }
+}
@@ -2,19 +2,23 @@ package net.smartcosmos.cluster.gateway.rest;
 
 import java.io.IOException;
 import java.io.InputStream;
-import java.util.Arrays;
-import java.util.Map;
-import java.util.stream.Collectors;
 
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
 import lombok.extern.slf4j.Slf4j;
 
 import org.apache.commons.lang3.StringUtils;
+import org.apache.http.conn.ConnectionReleaseTrigger;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
 import org.springframework.http.client.ClientHttpResponse;
 import org.springframework.security.authentication.BadCredentialsException;
 import org.springframework.stereotype.Component;
-import org.springframework.util.FileCopyUtils;
 import org.springframework.web.client.DefaultResponseErrorHandler;
 
+import net.smartcosmos.cluster.gateway.config.AuthenticationServerConnectionProperties;
+
 import static org.springframework.http.HttpStatus.BAD_REQUEST;
 
 /**
@@ -22,9 +26,35 @@ import static org.springframework.http.HttpStatus.BAD_REQUEST;
  */
 @Component
 @Slf4j
+@EnableConfigurationProperties({ AuthenticationServerConnectionProperties.class })
 public class AuthenticationErrorHandler extends DefaultResponseErrorHandler {
 
     private static final String JSON_ERROR_DESCRIPTION = "error_description";
+    private static final String DEFAULT_ERROR_DESCRIPTION = "Invalid username or password";
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+
+    /**
+     * Maximum number of bytes read from an error response body while looking for the error description.
+     */
+    private final int maxErrorBodySize;
+
+    /**
+     * Read buffer per thread, reused for all error responses handled by the thread.
+     */
+    private final ThreadLocal<byte[]> buffers;
+
+    public AuthenticationErrorHandler() {
+
+        this(new AuthenticationServerConnectionProperties());
+    }
+
+    @Autowired
+    public AuthenticationErrorHandler(AuthenticationServerConnectionProperties authServerConnectionProperties) {
+
+        maxErrorBodySize = authServerConnectionProperties.getMaxErrorBodySize();
+        buffers = ThreadLocal.withInitial(() -> new byte[maxErrorBodySize]);
+    }
 
     /**
      * <p>The error handler intercepts the default error handler and checks if the returned HTTP status code is <i>400 Bad Request</i>. This status
@@ -40,24 +70,40 @@ public class AuthenticationErrorHandler extends DefaultResponseErrorHandler {
     public void handleError(ClientHttpResponse response) throws BadCredentialsException, IOException {
 
         if (BAD_REQUEST.equals(response.getStatusCode())) {
-            String responseBody = getResponseBody(response);
-            throw new BadCredentialsException(getErrorDescriptionFromBody(responseBody));
+            throw new BadCredentialsException(getErrorDescription(response));
         }
 
         super.handleError(response);
     }
 
-    protected String getResponseBody(ClientHttpResponse response) {
+    /**
+     * <p>Reads the error description from the response body.</p>
+     * <p>The body is read completely, up to {@code max-error-body-size} bytes, into a buffer reused by the current thread. The buffered bytes
+     * are then parsed as a stream of JSON tokens until the description was found. If the body is larger, the connection is aborted instead
+     * of reading the remainder when the response is closed, and only the buffered part is parsed.</p>
+     *
+     * @param response the response
+     * @return the error description, or a default message if the body does not contain one
+     */
+    protected String getErrorDescription(ClientHttpResponse response) {
 
         try {
             InputStream responseBody = response.getBody();
             if (responseBody != null) {
-                return new String(FileCopyUtils.copyToByteArray(responseBody));
+                byte[] buffer = buffers.get();
+                int length = read(responseBody, buffer);
+                if (length == buffer.length && responseBody.read() >= 0) {
+                    log.debug("Error response body exceeds {} bytes, discarding the connection", maxErrorBodySize);
+                    abortConnection(responseBody);
+                }
+                try (JsonParser parser = JSON_FACTORY.createParser(buffer, 0, length)) {
+                    return getErrorDescription(parser);
+                }
             }
         } catch (IOException ex) {
             // ignore
         }
-        return "";
+        return DEFAULT_ERROR_DESCRIPTION;
     }
 
     protected String getErrorDescriptionFromBody(String body) {
@@ -65,21 +111,72 @@ public class AuthenticationErrorHandler extends DefaultResponseErrorHandler {
         log.debug("Attempt to read error description from response body '{}'", body);
 
         if (StringUtils.isNotBlank(body)) {
-            String[] jsonEntries = body.replace("{", "")
-                .replace("}", "")
-                .replace("\"", "")
-                .split(",");
-
-            Map<String, String> jsonMap = Arrays.stream(jsonEntries)
-                .filter(entry -> entry.contains(":"))
-                .map(entry -> entry.split(":"))
-                .collect(Collectors.toMap(stringArray -> stringArray[0], array -> array[1]));
-
-            if (jsonMap.containsKey(JSON_ERROR_DESCRIPTION)) {
-                return jsonMap.get(JSON_ERROR_DESCRIPTION);
+            try (JsonParser parser = JSON_FACTORY.createParser(body)) {
+                return getErrorDescription(parser);
+            } catch (IOException ex) {
+                // ignore
+            }
+        }
+
+        return DEFAULT_ERROR_DESCRIPTION;
+    }
+
+    /**
+     * Reads from the stream until the buffer is full or the stream ends.
+     *
+     * @return the number of bytes read
+     */
+    private static int read(InputStream inputStream, byte[] buffer) throws IOException {
+
+        int length = 0;
+        while (length < buffer.length) {
+            int count = inputStream.read(buffer, length, buffer.length - length);
+            if (count < 0) {
+                break;
+            }
+            length += count;
+        }
+        return length;
+    }
+
+    /**
+     * Releases the connection of a response without consuming the rest of the body, if the underlying HTTP client supports it.
+     */
+    private static void abortConnection(InputStream responseBody) {
+
+        if (responseBody instanceof ConnectionReleaseTrigger) {
+            try {
+                ((ConnectionReleaseTrigger) responseBody).abortConnection();
+            } catch (IOException ex) {
+                log.debug("Aborting the connection failed, cause: {}", ex.toString());
+            }
+        }
+    }
+
+    /**
+     * Looks for the {@code error_description} field of the top-level JSON object, skipping all other values.
+     *
+     * @param parser the parser positioned before the first token
+     * @return the error description, or a default message if there is none
+     * @throws IOException if the input is no valid JSON (up to the error description) or cannot be read
+     */
+    private String getErrorDescription(JsonParser parser) throws IOException {
+
+        if (parser.nextToken() != JsonToken.START_OBJECT) {
+            return DEFAULT_ERROR_DESCRIPTION;
+        }
+
+        while (parser.nextToken() == JsonToken.FIELD_NAME) {
+            String fieldName = parser.getCurrentName();
+            JsonToken value = parser.nextToken();
+            if (JSON_ERROR_DESCRIPTION.equals(fieldName) && value == JsonToken.VALUE_STRING) {
+                String description = parser.getText();
+                log.debug("Read error description '{}' from response body", description);
+                return description;
             }
+            parser.skipChildren();
         }
 
-        return "Invalid username or password";
+        return DEFAULT_ERROR_DESCRIPTION;
     }
 }
@@ -0,0 +1,92 @@
+package net.smartcosmos.cluster.gateway.rest;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.ConnectionRequest;
+import org.apache.http.conn.routing.HttpRoute;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.apache.http.pool.PoolStats;
+import org.springframework.boot.actuate.endpoint.PublicMetrics;
+import org.springframework.boot.actuate.metrics.Metric;
+
+/**
+ * Pooling connection manager that publishes the pool utilisation and the time spent waiting for a pooled connection as metrics.
+ */
+public class InstrumentedConnectionManager extends PoolingHttpClientConnectionManager implements PublicMetrics {
+
+    private final String metricPrefix;
+
+    private final LongAdder leaseCount = new LongAdder();
+    private final LongAdder leaseTimeouts = new LongAdder();
+    private final LongAdder totalWaitMillis = new LongAdder();
+    private final LongAccumulator maximumWaitMillis = new LongAccumulator(Math::max, 0);
+
+    /**
+     * Creates a connection manager that publishes its metrics with the given prefix.
+     *
+     * @param metricPrefix the metric prefix, e.g. {@code gateway.auth-server.pool.}
+     * @param timeToLive maximum lifetime of persistent connections in milliseconds, {@code -1} for an unlimited lifetime
+     */
+    public InstrumentedConnectionManager(String metricPrefix, long timeToLive) {
+
+        super(timeToLive, TimeUnit.MILLISECONDS);
+        this.metricPrefix = metricPrefix;
+    }
+
+    @Override
+    public ConnectionRequest requestConnection(HttpRoute route, Object state) {
+
+        final ConnectionRequest connectionRequest = super.requestConnection(route, state);
+        return new ConnectionRequest() {
+
+            @Override
+            public HttpClientConnection get(long timeout, TimeUnit tunit)
+                throws InterruptedException, ExecutionException, ConnectionPoolTimeoutException {
+
+                long start = System.nanoTime();
+                try {
+                    HttpClientConnection connection = connectionRequest.get(timeout, tunit);
+                    leaseCount.increment();
+                    return connection;
+                } catch (ConnectionPoolTimeoutException e) {
+                    leaseTimeouts.increment();
+                    throw e;
+                } finally {
+                    long waitMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+                    totalWaitMillis.add(waitMillis);
+                    maximumWaitMillis.accumulate(waitMillis);
+                }
+            }
+
+            @Override
+            public boolean cancel() {
+
+                return connectionRequest.cancel();
+            }
+        };
+    }
+
+    @Override
+    public Collection<Metric<?>> metrics() {
+
+        PoolStats stats = getTotalStats();
+
+        Collection<Metric<?>> metrics = new ArrayList<>();
+        metrics.add(new Metric<>(metricPrefix + "leased", stats.getLeased()));
+        metrics.add(new Metric<>(metricPrefix + "pending", stats.getPending()));
+        metrics.add(new Metric<>(metricPrefix + "available", stats.getAvailable()));
+        metrics.add(new Metric<>(metricPrefix + "max", stats.getMax()));
+        metrics.add(new Metric<>(metricPrefix + "lease.count", leaseCount.sum()));
+        metrics.add(new Metric<>(metricPrefix + "lease.timeout", leaseTimeouts.sum()));
+        metrics.add(new Metric<>(metricPrefix + "lease.wait.total", totalWaitMillis.sum()));
+        metrics.add(new Metric<>(metricPrefix + "lease.wait.max", maximumWaitMillis.get()));
+        return metrics;
+    }
+}
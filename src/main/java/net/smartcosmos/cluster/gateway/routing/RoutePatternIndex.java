@@ -0,0 +1,141 @@
+package net.smartcosmos.cluster.gateway.routing;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.util.AntPathMatcher;
+import org.springframework.util.PathMatcher;
+import org.springframework.util.StringUtils;
+
+/**
+ * <p>Index of Ant-style route patterns, finding the first pattern (in insertion order) that matches a path without testing every pattern.</p>
+ * <p>The patterns are stored in a trie over their leading literal path segments, i.e. the segments before the first one containing a
+ * wildcard or URI template variable. A pattern like {@code /things/**} is attached to the node {@code things}, {@code /**} to the root.
+ * A lookup walks the trie along the segments of the path and only tests the patterns attached to the visited nodes with the
+ * {@link AntPathMatcher}, which keeps the precedence of a linear scan: among all matching patterns the one added first wins.</p>
+ * <p>Instances are immutable after construction and safe for concurrent lookups.</p>
+ *
+ * @param <T> the type of values associated with the patterns
+ */
+public class RoutePatternIndex<T> {
+
+    private static final String PATH_SEPARATOR = "/";
+
+    private final PathMatcher pathMatcher = new AntPathMatcher();
+    private final Node<T> root = new Node<>();
+    private final int size;
+
+    /**
+     * Creates the index for the given patterns.
+     *
+     * @param patterns the patterns and their values, iterated in order of precedence
+     */
+    public RoutePatternIndex(Map<String, T> patterns) {
+
+        int position = 0;
+        for (Map.Entry<String, T> pattern : patterns.entrySet()) {
+            add(new Entry<>(position++, pattern.getKey(), pattern.getValue()));
+        }
+        size = position;
+    }
+
+    /**
+     * Gets the value of the first pattern matching the path.
+     *
+     * @param path the path
+     * @return the value, or {@code null} if no pattern matches
+     */
+    public T getMatch(String path) {
+
+        Entry<T> match = null;
+
+        Node<T> node = root;
+        String[] segments = tokenize(path);
+        for (int i = 0; node != null; i++) {
+            match = findMatch(node, path, match);
+            node = i < segments.length ? node.getChild(segments[i]) : null;
+        }
+
+        return match != null ? match.value : null;
+    }
+
+    public int size() {
+
+        return size;
+    }
+
+    private Entry<T> findMatch(Node<T> node, String path, Entry<T> bestMatch) {
+
+        // entries are sorted by position, all further entries of this node have a lower precedence than a match found so far
+        for (Entry<T> entry : node.entries) {
+            if (bestMatch != null && entry.position > bestMatch.position) {
+                break;
+            }
+            if (pathMatcher.match(entry.pattern, path)) {
+                return entry;
+            }
+        }
+        return bestMatch;
+    }
+
+    private void add(Entry<T> entry) {
+
+        Node<T> node = root;
+        for (String segment : tokenize(entry.pattern)) {
+            if (!isLiteral(segment)) {
+                break;
+            }
+            node = node.getOrCreateChild(segment);
+        }
+        node.entries.add(entry);
+    }
+
+    private static boolean isLiteral(String segment) {
+
+        return segment.indexOf('*') < 0 && segment.indexOf('?') < 0 && segment.indexOf('{') < 0;
+    }
+
+    /**
+     * Splits a pattern or path into segments the same way the {@link AntPathMatcher} does. Tokens are trimmed in any case, so that the
+     * index never excludes a pattern the matcher would accept.
+     */
+    private static String[] tokenize(String path) {
+
+        return StringUtils.tokenizeToStringArray(path, PATH_SEPARATOR, true, true);
+    }
+
+    private static class Node<T> {
+
+        private final List<Entry<T>> entries = new ArrayList<>(1);
+        private Map<String, Node<T>> children;
+
+        Node<T> getChild(String segment) {
+
+            return children != null ? children.get(segment) : null;
+        }
+
+        Node<T> getOrCreateChild(String segment) {
+
+            if (children == null) {
+                children = new HashMap<>();
+            }
+            return children.computeIfAbsent(segment, key -> new Node<>());
+        }
+    }
+
+    private static class Entry<T> {
+
+        private final int position;
+        private final String pattern;
+        private final T value;
+
+        Entry(int position, String pattern, T value) {
+
+            this.position = position;
+            this.pattern = pattern;
+            this.value = value;
+        }
+    }
+}
@@ -0,0 +1,33 @@
+package net.smartcosmos.cluster.gateway.routing;
+
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.actuate.endpoint.AbstractEndpoint;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+
+/**
+ * Actuator endpoint {@code /routeprofiles} listing the profile and the effective Hystrix and Ribbon settings of each route with a profile.
+ */
+@Component
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.route-profiles", name = "enabled", matchIfMissing = true)
+public class RouteProfileEndpoint extends AbstractEndpoint<Map<String, Map<String, Object>>> {
+
+    private static final String ENDPOINT_ID = "routeprofiles";
+
+    private final RouteProfileManager routeProfileManager;
+
+    @Autowired
+    public RouteProfileEndpoint(RouteProfileManager routeProfileManager) {
+
+        super(ENDPOINT_ID);
+        this.routeProfileManager = routeProfileManager;
+    }
+
+    @Override
+    public Map<String, Map<String, Object>> invoke() {
+
+        return routeProfileManager.getEffectiveSettings();
+    }
+}
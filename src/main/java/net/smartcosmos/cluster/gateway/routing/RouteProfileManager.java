@@ -0,0 +1,252 @@
+package net.smartcosmos.cluster.gateway.routing;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import com.netflix.config.ConcurrentCompositeConfiguration;
+import com.netflix.config.ConfigurationManager;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.configuration.AbstractConfiguration;
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.context.scope.refresh.RefreshScopeRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import net.smartcosmos.cluster.gateway.config.RouteProfileProperties;
+
+/**
+ * <p>Applies the Hystrix and Ribbon settings of the configured route profiles to the services behind the Zuul routes.</p>
+ * <p>The settings are written as Archaius properties keyed by the service ID, which is the Hystrix command key and the Ribbon client name
+ * Zuul uses for a route. Hystrix and Ribbon read these properties dynamically, so the profiles are applied again whenever the configuration
+ * is refreshed from the config server or the routes change, without a restart. Properties of routes that lost their profile are removed
+ * again.</p>
+ * <p>Profiles with {@code SEMAPHORE} isolation execute the Hystrix command on the gateway worker thread that runs the Zuul filters, so the
+ * Zuul {@code RequestContext} and the Sleuth trace context are used as they are, without being handed to another thread. The Hystrix timeout
+ * cannot interrupt such requests, they are bounded by the Ribbon timeouts of the profile.</p>
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties({ RouteProfileProperties.class })
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.route-profiles", name = "enabled", matchIfMissing = true)
+public class RouteProfileManager {
+
+    private static final String HYSTRIX_TIMEOUT = "hystrix.command.%s.execution.isolation.thread.timeoutInMilliseconds";
+    private static final String HYSTRIX_ISOLATION_STRATEGY = "hystrix.command.%s.execution.isolation.strategy";
+    private static final String HYSTRIX_MAX_CONCURRENT_REQUESTS = "hystrix.command.%s.execution.isolation.semaphore.maxConcurrentRequests";
+    private static final String RIBBON_CONNECT_TIMEOUT = "%s.ribbon.ConnectTimeout";
+    private static final String RIBBON_READ_TIMEOUT = "%s.ribbon.ReadTimeout";
+    private static final String RIBBON_MAX_AUTO_RETRIES = "%s.ribbon.MaxAutoRetries";
+    private static final String RIBBON_MAX_AUTO_RETRIES_NEXT_SERVER = "%s.ribbon.MaxAutoRetriesNextServer";
+    private static final String RIBBON_OK_TO_RETRY_ON_ALL_OPERATIONS = "%s.ribbon.OkToRetryOnAllOperations";
+
+    private static final String[] URL_PREFIXES = { "http:", "https:", "forward:" };
+
+    private final RouteLocator routeLocator;
+    private final RouteProfileProperties properties;
+
+    private Map<String, Object> appliedProperties = Collections.emptyMap();
+    private Map<String, RouteProfile> routeProfiles = Collections.emptyMap();
+
+    @Autowired
+    public RouteProfileManager(RouteLocator routeLocator, RouteProfileProperties properties) {
+
+        this.routeLocator = routeLocator;
+        this.properties = properties;
+    }
+
+    /**
+     * Applies the profiles on startup, after configuration refreshes and when the routes may have changed.
+     */
+    @EventListener({ ApplicationReadyEvent.class, RefreshScopeRefreshedEvent.class, RoutesRefreshedEvent.class, HeartbeatEvent.class })
+    public void onRoutesOrConfigurationChanged() {
+
+        applyProfiles();
+    }
+
+    /**
+     * Assigns the profiles to the current routes and updates the Archaius properties of their services.
+     */
+    public synchronized void applyProfiles() {
+
+        Map<String, RouteProfile> profiles = new LinkedHashMap<>();
+        Map<String, Object> settings = new HashMap<>();
+
+        for (Route route : routeLocator.getRoutes()) {
+            String serviceId = getServiceId(route);
+            String profileName = getProfileName(route, serviceId);
+            if (serviceId == null || profileName == null) {
+                continue;
+            }
+
+            RouteProfileProperties.Profile profile = properties.getProfiles()
+                .get(profileName);
+            if (profile == null) {
+                log.warn("Unknown route profile '{}' for route '{}', keeping the default settings", profileName, route.getId());
+                continue;
+            }
+
+            profiles.put(route.getId(), new RouteProfile(serviceId, profileName));
+            addSettings(settings, serviceId, profile);
+        }
+
+        updateArchaiusProperties(settings);
+        routeProfiles = Collections.unmodifiableMap(profiles);
+    }
+
+    /**
+     * Gets the effective settings per route, as currently seen by Hystrix and Ribbon.
+     *
+     * @return the settings by route ID
+     */
+    public Map<String, Map<String, Object>> getEffectiveSettings() {
+
+        AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
+
+        Map<String, Map<String, Object>> effectiveSettings = new LinkedHashMap<>();
+        for (Map.Entry<String, RouteProfile> routeProfile : routeProfiles.entrySet()) {
+            String serviceId = routeProfile.getValue().serviceId;
+
+            Map<String, Object> settings = new LinkedHashMap<>();
+            settings.put("serviceId", serviceId);
+            settings.put("profile", routeProfile.getValue().profileName);
+            for (String key : getSettingKeys(serviceId)) {
+                settings.put(key, configuration.getProperty(key));
+            }
+            effectiveSettings.put(routeProfile.getKey(), settings);
+        }
+        return effectiveSettings;
+    }
+
+    protected String getProfileName(Route route, String serviceId) {
+
+        Map<String, String> routes = properties.getRoutes();
+        if (routes.containsKey(route.getId())) {
+            return routes.get(route.getId());
+        }
+        if (serviceId != null && routes.containsKey(serviceId)) {
+            return routes.get(serviceId);
+        }
+        return StringUtils.trimToNull(properties.getDefaultProfile());
+    }
+
+    protected void addSettings(Map<String, Object> settings, String serviceId, RouteProfileProperties.Profile profile) {
+
+        settings.put(String.format(HYSTRIX_TIMEOUT, serviceId), getHystrixTimeout(serviceId, profile));
+        settings.put(String.format(HYSTRIX_ISOLATION_STRATEGY, serviceId), profile.getIsolation()
+            .name());
+        if (profile.getIsolation() == RouteProfileProperties.Isolation.SEMAPHORE) {
+            settings.put(String.format(HYSTRIX_MAX_CONCURRENT_REQUESTS, serviceId), profile.getMaxConcurrentRequests());
+        }
+        settings.put(String.format(RIBBON_CONNECT_TIMEOUT, serviceId), profile.getConnectTimeout());
+        settings.put(String.format(RIBBON_READ_TIMEOUT, serviceId), profile.getReadTimeout());
+        settings.put(String.format(RIBBON_MAX_AUTO_RETRIES, serviceId), profile.getMaxAutoRetries());
+        settings.put(String.format(RIBBON_MAX_AUTO_RETRIES_NEXT_SERVER, serviceId), profile.getMaxAutoRetriesNextServer());
+        settings.put(String.format(RIBBON_OK_TO_RETRY_ON_ALL_OPERATIONS, serviceId), profile.isOkToRetryOnAllOperations());
+    }
+
+    /**
+     * Gets the Hystrix timeout of a profile, at least as long as the Ribbon timeouts and retries of the profile allow a request to take.
+     *
+     * @param serviceId the service ID, for logging
+     * @param profile the profile
+     * @return the timeout in milliseconds
+     */
+    protected int getHystrixTimeout(String serviceId, RouteProfileProperties.Profile profile) {
+
+        long attempts = (profile.getMaxAutoRetries() + 1L) * (profile.getMaxAutoRetriesNextServer() + 1L);
+        long ribbonTimeout = (profile.getConnectTimeout() + (long) profile.getReadTimeout()) * attempts;
+        if (profile.getTimeout() >= ribbonTimeout) {
+            return profile.getTimeout();
+        }
+
+        log.warn("Hystrix timeout {} ms of service '{}' is shorter than its Ribbon timeouts and retries, using {} ms",
+                 profile.getTimeout(),
+                 serviceId,
+                 ribbonTimeout);
+        return (int) Math.min(ribbonTimeout, Integer.MAX_VALUE);
+    }
+
+    protected String[] getSettingKeys(String serviceId) {
+
+        return new String[] {
+            String.format(HYSTRIX_TIMEOUT, serviceId),
+            String.format(HYSTRIX_ISOLATION_STRATEGY, serviceId),
+            String.format(HYSTRIX_MAX_CONCURRENT_REQUESTS, serviceId),
+            String.format(RIBBON_CONNECT_TIMEOUT, serviceId),
+            String.format(RIBBON_READ_TIMEOUT, serviceId),
+            String.format(RIBBON_MAX_AUTO_RETRIES, serviceId),
+            String.format(RIBBON_MAX_AUTO_RETRIES_NEXT_SERVER, serviceId),
+            String.format(RIBBON_OK_TO_RETRY_ON_ALL_OPERATIONS, serviceId) };
+    }
+
+    private void updateArchaiusProperties(Map<String, Object> settings) {
+
+        AbstractConfiguration configuration = ConfigurationManager.getConfigInstance();
+
+        for (String key : appliedProperties.keySet()) {
+            if (!settings.containsKey(key)) {
+                clearProperty(configuration, key);
+            }
+        }
+        for (Map.Entry<String, Object> setting : settings.entrySet()) {
+            if (!setting.getValue()
+                .equals(appliedProperties.get(setting.getKey()))) {
+                log.debug("Setting route profile property {}={}", setting.getKey(), setting.getValue());
+                setProperty(configuration, setting.getKey(), setting.getValue());
+            }
+        }
+        appliedProperties = settings;
+    }
+
+    private static void setProperty(AbstractConfiguration configuration, String key, Object value) {
+
+        // override properties take precedence over the Spring environment, which Archaius includes as a configuration source
+        if (configuration instanceof ConcurrentCompositeConfiguration) {
+            ((ConcurrentCompositeConfiguration) configuration).setOverrideProperty(key, value);
+        } else {
+            configuration.setProperty(key, value);
+        }
+    }
+
+    private static void clearProperty(AbstractConfiguration configuration, String key) {
+
+        if (configuration instanceof ConcurrentCompositeConfiguration) {
+            ((ConcurrentCompositeConfiguration) configuration).clearOverrideProperty(key);
+        } else {
+            configuration.clearProperty(key);
+        }
+    }
+
+    private static String getServiceId(Route route) {
+
+        String location = route.getLocation();
+        if (StringUtils.isBlank(location) || StringUtils.startsWithAny(location, URL_PREFIXES)) {
+            // URL and forwarding routes are not routed through Ribbon and Hystrix
+            return null;
+        }
+        return location;
+    }
+
+    private static class RouteProfile {
+
+        private final String serviceId;
+        private final String profileName;
+
+        RouteProfile(String serviceId, String profileName) {
+
+            this.serviceId = serviceId;
+            this.profileName = profileName;
+        }
+    }
+}
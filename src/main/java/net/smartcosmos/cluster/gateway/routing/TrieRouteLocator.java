@@ -0,0 +1,60 @@
+package net.smartcosmos.cluster.gateway.routing;
+
+import java.util.Map;
+
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties.ZuulRoute;
+import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.discovery.ServiceRouteMapper;
+
+/**
+ * <p>Route locator that finds the route for a request path using a {@link RoutePatternIndex} instead of matching the path against every
+ * route pattern in turn.</p>
+ * <p>Routes are located exactly like by the {@link DiscoveryClientRouteLocator} (configured routes first, then discovered services, the
+ * default route last), and the precedence is unchanged: the first route in that order whose pattern matches wins. The index is rebuilt
+ * whenever the routes have been located again.</p>
+ */
+public class TrieRouteLocator extends DiscoveryClientRouteLocator {
+
+    private volatile IndexedRoutes indexedRoutes;
+
+    public TrieRouteLocator(String servletPath, DiscoveryClient discovery, ZuulProperties properties, ServiceRouteMapper serviceRouteMapper) {
+
+        super(servletPath, discovery, properties, serviceRouteMapper);
+    }
+
+    @Override
+    protected ZuulRoute getZuulRoute(String adjustedPath) {
+
+        if (matchesIgnoredPatterns(adjustedPath)) {
+            return null;
+        }
+        return getIndex().getMatch(adjustedPath);
+    }
+
+    private RoutePatternIndex<ZuulRoute> getIndex() {
+
+        Map<String, ZuulRoute> routes = getRoutesMap();
+
+        IndexedRoutes current = indexedRoutes;
+        if (current == null || current.routes != routes) {
+            // the routes map is replaced as a whole on refresh, so identity tells whether the index is stale
+            current = new IndexedRoutes(routes);
+            indexedRoutes = current;
+        }
+        return current.index;
+    }
+
+    private static class IndexedRoutes {
+
+        private final Map<String, ZuulRoute> routes;
+        private final RoutePatternIndex<ZuulRoute> index;
+
+        IndexedRoutes(Map<String, ZuulRoute> routes) {
+
+            this.routes = routes;
+            index = new RoutePatternIndex<>(routes);
+        }
+    }
+}
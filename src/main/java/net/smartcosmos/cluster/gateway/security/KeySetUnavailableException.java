@@ -0,0 +1,14 @@
+package net.smartcosmos.cluster.gateway.security;
+
+import org.springframework.security.authentication.AuthenticationServiceException;
+
+/**
+ * Thrown if a token cannot be verified, because the JSON Web Key Set with the public keys of the Auth Server could not be requested.
+ */
+public class KeySetUnavailableException extends AuthenticationServiceException {
+
+    public KeySetUnavailableException(String msg) {
+
+        super(msg);
+    }
+}
@@ -0,0 +1,223 @@
+package net.smartcosmos.cluster.gateway.security;
+
+import java.io.IOException;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.KeyFactory;
+import java.security.interfaces.RSAPublicKey;
+import java.security.spec.RSAPublicKeySpec;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import lombok.extern.slf4j.Slf4j;
+
+import org.apache.commons.lang3.StringUtils;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.properties.EnableConfigurationProperties;
+import org.springframework.core.io.DefaultResourceLoader;
+import org.springframework.security.jwt.Jwt;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.InvalidSignatureException;
+import org.springframework.security.jwt.crypto.sign.RsaVerifier;
+import org.springframework.security.jwt.crypto.sign.SignatureVerifier;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.security.oauth2.provider.token.store.KeyStoreKeyFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+
+import net.smartcosmos.cluster.gateway.config.JwtValidationProperties;
+
+/**
+ * <p>Verifies the signature and expiry of JWT access tokens issued by the Auth Server, without contacting it for every token.</p>
+ * <p>The public key is either taken from the key store the Auth Server signs tokens with, or from a JSON Web Key Set that is requested once and
+ * only requested again if a token refers to an unknown key ID. While the key set cannot be requested, tokens referring to an unknown key
+ * are not rejected as invalid, but a {@link KeySetUnavailableException} is thrown.</p>
+ */
+@Slf4j
+@Component
+@EnableConfigurationProperties({ JwtValidationProperties.class })
+@ConditionalOnProperty(prefix = "smartcosmos.gateway.jwt-validation", name = "enabled")
+public class TokenVerifier {
+
+    private static final String CLAIM_EXPIRATION = "exp";
+    private static final String HEADER_KEY_ID = "kid";
+    private static final String DEFAULT_KEY_ID = "";
+
+    private static final ObjectMapper OBJECT_MAPPER = new ObjectMapper();
+    private static final TypeReference<Map<String, Object>> MAP_TYPE = new TypeReference<Map<String, Object>>() {};
+
+    private final JwtValidationProperties properties;
+    private final RestTemplate restTemplate;
+
+    private volatile Map<String, SignatureVerifier> verifiers = Collections.emptyMap();
+    private volatile long lastKeySetRequest;
+    private volatile boolean keySetAvailable;
+    private volatile String lastKeySet;
+    private volatile int keySetVersion;
+
+    @Autowired
+    public TokenVerifier(JwtValidationProperties properties, @Qualifier("authServerRestTemplate") RestTemplate authServerRestTemplate) {
+
+        this.properties = properties;
+        restTemplate = authServerRestTemplate;
+
+        if (StringUtils.isBlank(properties.getJwkSetUri())) {
+            KeyStoreKeyFactory keyStoreKeyFactory = new KeyStoreKeyFactory(
+                new DefaultResourceLoader().getResource(properties.getKeyStore()),
+                StringUtils.defaultString(properties.getKeyStorePassword())
+                    .toCharArray());
+            RSAPublicKey publicKey = (RSAPublicKey) keyStoreKeyFactory.getKeyPair(properties.getKeyAlias())
+                .getPublic();
+            verifiers = Collections.singletonMap(DEFAULT_KEY_ID, new RsaVerifier(publicKey));
+        }
+    }
+
+    /**
+     * Verifies a token and returns its claims.
+     *
+     * @param token the encoded token
+     * @return the claims of the token
+     * @throws InvalidTokenException if the token is malformed, not signed by the Auth Server or expired
+     * @throws KeySetUnavailableException if the key the token refers to is unknown and the key set cannot be requested
+     */
+    public Map<String, Object> verify(String token) throws InvalidTokenException, KeySetUnavailableException {
+
+        Map<String, Object> claims;
+        try {
+            Jwt jwt = JwtHelper.decode(token);
+            jwt.verifySignature(getVerifier(token));
+            claims = OBJECT_MAPPER.readValue(jwt.getClaims(), MAP_TYPE);
+        } catch (IllegalArgumentException | IOException e) {
+            throw new InvalidTokenException("Malformed token", e);
+        } catch (InvalidSignatureException e) {
+            throw new InvalidTokenException("Invalid token signature", e);
+        }
+
+        if (isExpired(claims)) {
+            throw new InvalidTokenException("Token expired");
+        }
+        return claims;
+    }
+
+    /**
+     * Gets the version of the key set, which changes whenever a different key set was requested. Tokens verified with an earlier version
+     * may have been signed with a key that was revoked since.
+     *
+     * @return the key set version
+     */
+    public int getKeySetVersion() {
+
+        return keySetVersion;
+    }
+
+    /**
+     * Checks if the {@code exp} claim of a token is in the past. Tokens without expiry don't expire.
+     *
+     * @param claims the claims of the token
+     * @return {@code true} if the token is expired
+     */
+    public static boolean isExpired(Map<String, Object> claims) {
+
+        Object expiration = claims.get(CLAIM_EXPIRATION);
+        return expiration instanceof Number && TimeUnit.SECONDS.toMillis(((Number) expiration).longValue()) <= System.currentTimeMillis();
+    }
+
+    private SignatureVerifier getVerifier(String token) throws IOException {
+
+        if (StringUtils.isBlank(properties.getJwkSetUri())) {
+            return verifiers.get(DEFAULT_KEY_ID);
+        }
+
+        String header = new String(Base64.getUrlDecoder()
+                                       .decode(StringUtils.substringBefore(token, ".")), StandardCharsets.UTF_8);
+        Object keyId = OBJECT_MAPPER.readValue(header, MAP_TYPE)
+            .get(HEADER_KEY_ID);
+        String key = keyId instanceof String ? (String) keyId : DEFAULT_KEY_ID;
+
+        SignatureVerifier verifier = verifiers.get(key);
+        if (verifier == null && refreshKeySet()) {
+            verifier = verifiers.get(key);
+        }
+        if (verifier == null && !keySetAvailable) {
+            // not the fault of the token, so don't reject it as invalid
+            throw new KeySetUnavailableException("JSON Web Key Set unavailable, cannot verify signing key: " + keyId);
+        }
+        if (verifier == null) {
+            throw new InvalidSignatureException("Unknown signing key: " + keyId);
+        }
+        return verifier;
+    }
+
+    private synchronized boolean refreshKeySet() {
+
+        long now = System.currentTimeMillis();
+        if (lastKeySetRequest > 0 && now - lastKeySetRequest < TimeUnit.SECONDS.toMillis(properties.getJwkSetRefreshInterval())) {
+            return false;
+        }
+        lastKeySetRequest = now;
+
+        try {
+            String keySet = restTemplate.getForObject(properties.getJwkSetUri(), String.class);
+            if (!StringUtils.equals(keySet, lastKeySet)) {
+                verifiers = readKeySet(keySet);
+                lastKeySet = keySet;
+                keySetVersion++;
+            }
+            keySetAvailable = true;
+            return true;
+        } catch (RestClientException | IOException | GeneralSecurityException | ClassCastException | IllegalArgumentException e) {
+            log.warn("Requesting JSON Web Key Set {} failed: '{}'", properties.getJwkSetUri(), e.toString());
+            keySetAvailable = false;
+            return false;
+        }
+    }
+
+    /**
+     * Creates verifiers for the RSA keys of a JSON Web Key Set. A single key without key ID is also used for tokens without key ID.
+     *
+     * @param keySet the JSON Web Key Set
+     * @return the verifiers by key ID
+     * @throws IOException if the key set is malformed
+     * @throws GeneralSecurityException if a key is invalid
+     */
+    static Map<String, SignatureVerifier> readKeySet(String keySet) throws IOException, GeneralSecurityException {
+
+        Map<String, SignatureVerifier> keySetVerifiers = new HashMap<>();
+        KeyFactory keyFactory = KeyFactory.getInstance("RSA");
+        Base64.Decoder decoder = Base64.getUrlDecoder();
+
+        Object keys = OBJECT_MAPPER.readValue(keySet, MAP_TYPE)
+            .get("keys");
+        if (!(keys instanceof List)) {
+            throw new IOException("JSON Web Key Set without keys");
+        }
+        for (Object key : (List<?>) keys) {
+            Map<?, ?> jwk = (Map<?, ?>) key;
+            Object use = jwk.get("use");
+            if (!"RSA".equals(jwk.get("kty")) || use != null && !"sig".equals(use)) {
+                continue;
+            }
+            RSAPublicKey publicKey = (RSAPublicKey) keyFactory.generatePublic(new RSAPublicKeySpec(
+                new BigInteger(1, decoder.decode((String) jwk.get("n"))),
+                new BigInteger(1, decoder.decode((String) jwk.get("e")))));
+            Object keyId = jwk.get("kid");
+            keySetVerifiers.put(keyId instanceof String ? (String) keyId : DEFAULT_KEY_ID, new RsaVerifier(publicKey));
+        }
+        if (keySetVerifiers.size() == 1) {
+            keySetVerifiers.putIfAbsent(DEFAULT_KEY_ID, keySetVerifiers.values()
+                .iterator()
+                .next());
+        }
+        return keySetVerifiers;
+    }
+}
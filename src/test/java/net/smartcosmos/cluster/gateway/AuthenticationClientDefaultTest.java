@@ -0,0 +1,101 @@
+package net.smartcosmos.cluster.gateway;
+
+import java.nio.charset.StandardCharsets;
+
+import org.junit.*;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+import net.smartcosmos.cluster.gateway.config.AuthenticationServerConnectionProperties;
+
+import static org.junit.Assert.*;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.content;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withServerError;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+public class AuthenticationClientDefaultTest {
+
+    private static final String TOKEN_RESPONSE = "{\"access_token\":\"abc\",\"token_type\":\"bearer\",\"expires_in\":3600}";
+
+    private AuthenticationServerConnectionProperties properties;
+
+    private MockRestServiceServer server;
+
+    private AuthenticationClientDefault authenticationClient;
+
+    @Before
+    public void setUp() {
+
+        properties = new AuthenticationServerConnectionProperties();
+        properties.setLocationUri("http://smartcosmos-auth-server");
+        RestTemplate restTemplate = new RestTemplate();
+        server = MockRestServiceServer.createServer(restTemplate);
+
+        authenticationClient = new AuthenticationClientDefault(restTemplate, properties);
+    }
+
+    @Test
+    public void thatCredentialsAreSentAsFormBody() {
+
+        server.expect(requestTo("http://smartcosmos-auth-server/oauth/token"))
+            .andExpect(method(HttpMethod.POST))
+            .andExpect(content().contentType(MediaType.APPLICATION_FORM_URLENCODED))
+            .andExpect(content().string("grant_type=password&username=user&password=p%40ss+w%26rd%3D"))
+            .andRespond(withSuccess(TOKEN_RESPONSE, MediaType.APPLICATION_JSON));
+
+        OAuth2AccessToken token = authenticationClient.getOauthToken("user", "p@ss w&rd=");
+
+        assertEquals("abc", token.getValue());
+        server.verify();
+    }
+
+    @Test
+    public void thatRefreshTokenIsSentAsFormBody() {
+
+        server.expect(requestTo("http://smartcosmos-auth-server/oauth/token"))
+            .andExpect(content().string("grant_type=refresh_token&refresh_token=xyz"))
+            .andRespond(withSuccess(TOKEN_RESPONSE, MediaType.APPLICATION_JSON));
+
+        authenticationClient.refreshOauthToken("xyz");
+
+        server.verify();
+    }
+
+    @Test
+    public void thatFailureMessageDoesNotContainPassword() {
+
+        server.expect(requestTo("http://smartcosmos-auth-server/oauth/token"))
+            .andRespond(withServerError());
+
+        try {
+            authenticationClient.getOauthToken("user", "secretPassword");
+            fail("Expected exception");
+        } catch (InternalAuthenticationServiceException e) {
+            assertFalse(e.getMessage()
+                            .contains("secretPassword"));
+        }
+    }
+
+    @Test
+    public void thatTokenEndpointIsResolvedOncePerLocation() {
+
+        assertSame(authenticationClient.getTokenEndpointUri(), authenticationClient.getTokenEndpointUri());
+
+        properties.setLocationUri("http://other-auth-server");
+
+        assertEquals("http://other-auth-server/oauth/token", authenticationClient.getTokenEndpointUri()
+            .toString());
+    }
+
+    @Test
+    public void thatFormIsUrlEncoded() {
+
+        assertEquals("a=b+c&d=%C3%A4", new String(AuthenticationClientDefault.encodeForm("a", "b c", "d", "ä"), StandardCharsets.US_ASCII));
+    }
+}
@@ -0,0 +1,409 @@
+package net.smartcosmos.cluster.gateway;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import com.netflix.hystrix.Hystrix;
+
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.*;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.authentication.InternalAuthenticationServiceException;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+import net.smartcosmos.cluster.gateway.cache.OAuthTokenCache;
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class CachingAuthenticationClientTest {
+
+    private static final int CONCURRENT_REQUESTS = 32;
+
+    @Mock
+    AuthenticationClient authenticationClient;
+
+    private PreAuthorizationFilterProperties properties;
+
+    private CachingAuthenticationClient cachingClient;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+
+        properties = new PreAuthorizationFilterProperties();
+        cachingClient = new CachingAuthenticationClient(authenticationClient, new OAuthTokenCache(properties), properties);
+        executorService = Executors.newFixedThreadPool(CONCURRENT_REQUESTS);
+    }
+
+    @After
+    public void tearDown() {
+
+        executorService.shutdownNow();
+        cachingClient.destroy();
+        reset(authenticationClient);
+        Hystrix.reset();
+    }
+
+    // region caching
+
+    @Test
+    public void thatGetOauthTokenCallsAuthServerOnlyOnceForSameCredentials() {
+
+        final OAuth2AccessToken token = new DefaultOAuth2AccessToken("value");
+        when(authenticationClient.getOauthToken(eq("user"), eq("password"))).thenReturn(token);
+
+        assertSame(token, cachingClient.getOauthToken("user", "password"));
+        assertSame(token, cachingClient.getOauthToken("user", "password"));
+
+        verify(authenticationClient, times(1)).getOauthToken(anyString(), anyString());
+    }
+
+    @Test
+    public void thatGetOauthTokenCallsAuthServerForDifferentPasswords() {
+
+        when(authenticationClient.getOauthToken(anyString(), anyString())).thenReturn(new DefaultOAuth2AccessToken("value"));
+
+        cachingClient.getOauthToken("user", "password");
+        cachingClient.getOauthToken("user", "otherPassword");
+
+        verify(authenticationClient, times(2)).getOauthToken(anyString(), anyString());
+    }
+
+    @Test
+    public void thatGetOauthTokenDoesNotCacheFailures() {
+
+        when(authenticationClient.getOauthToken(eq("user"), eq("password"))).thenThrow(new BadCredentialsException("invalid"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                cachingClient.getOauthToken("user", "password");
+                fail("BadCredentialsException expected");
+            } catch (BadCredentialsException e) {
+                // expected
+            }
+        }
+
+        verify(authenticationClient, times(2)).getOauthToken(anyString(), anyString());
+        assertEquals(0, cachingClient.getInFlightRequestCount());
+    }
+
+    // endregion
+
+    // region coalescing
+
+    @Test
+    public void thatConcurrentRequestsForSameCredentialsShareOneAuthServerCall() throws Exception {
+
+        final OAuth2AccessToken token = new DefaultOAuth2AccessToken("value");
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger upstreamCalls = new AtomicInteger();
+
+        doAnswer(invocation -> {
+            upstreamCalls.incrementAndGet();
+            release.await();
+            return token;
+        }).when(authenticationClient)
+            .getOauthToken(eq("user"), eq("password"));
+
+        List<Future<OAuth2AccessToken>> results = submitBurst(() -> cachingClient.getOauthToken("user", "password"));
+        release.countDown();
+
+        for (Future<OAuth2AccessToken> result : results) {
+            assertSame(token, result.get(10, TimeUnit.SECONDS));
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, cachingClient.getInFlightRequestCount());
+    }
+
+    @Test
+    public void thatConcurrentRequestsForSameCredentialsShareOneFailure() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger upstreamCalls = new AtomicInteger();
+
+        doAnswer(invocation -> {
+            upstreamCalls.incrementAndGet();
+            release.await();
+            throw new BadCredentialsException("invalid");
+        }).when(authenticationClient)
+            .getOauthToken(eq("user"), eq("password"));
+
+        List<Future<OAuth2AccessToken>> results = submitBurst(() -> cachingClient.getOauthToken("user", "password"));
+        release.countDown();
+
+        for (Future<OAuth2AccessToken> result : results) {
+            try {
+                result.get(10, TimeUnit.SECONDS);
+                fail("BadCredentialsException expected");
+            } catch (ExecutionException e) {
+                assertTrue(e.getCause() instanceof BadCredentialsException);
+            }
+        }
+        assertEquals(1, upstreamCalls.get());
+        assertEquals(0, cachingClient.getInFlightRequestCount());
+    }
+
+    // endregion
+
+    // region slow Auth Server
+
+    @Test
+    public void thatGetOauthTokenTimesOutForSlowAuthServer() {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        properties.getAuthentication()
+            .setTimeout(100);
+        cachingClient = new CachingAuthenticationClient(authenticationClient, new OAuthTokenCache(properties), properties);
+
+        doAnswer(invocation -> {
+            release.await();
+            return new DefaultOAuth2AccessToken("value");
+        }).when(authenticationClient)
+            .getOauthToken(anyString(), anyString());
+
+        try {
+            cachingClient.getOauthToken("user", "password");
+            fail("AuthenticationServerUnavailableException expected");
+        } catch (AuthenticationServerUnavailableException e) {
+            // expected
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void thatSlowAuthServerFallsBackToUnexpiredCachedToken() {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final OAuth2AccessToken token = new DefaultOAuth2AccessToken("value");
+        properties.getAuthentication()
+            .setTimeout(100);
+        cachingClient = new CachingAuthenticationClient(authenticationClient, expiringTokenCache("user", "password", token), properties);
+
+        doAnswer(invocation -> {
+            release.await();
+            return new DefaultOAuth2AccessToken("other");
+        }).when(authenticationClient)
+            .getOauthToken(anyString(), anyString());
+
+        try {
+            // the caller waits longer than the command, so the fallback of the timed out command is returned
+            assertSame(token, cachingClient.getOauthToken("user", "password"));
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void thatQueuedRequestFallsBackToUnexpiredCachedToken() throws Exception {
+
+        final CountDownLatch release = new CountDownLatch(1);
+        final OAuth2AccessToken token = new DefaultOAuth2AccessToken("value");
+        properties.getAuthentication()
+            .setTimeout(100);
+        properties.getAuthentication()
+            .setPoolSize(1);
+        cachingClient = new CachingAuthenticationClient(authenticationClient, expiringTokenCache("user", "password", token), properties);
+
+        doAnswer(invocation -> {
+            release.await();
+            return new DefaultOAuth2AccessToken("other");
+        }).when(authenticationClient)
+            .getOauthToken(eq("blocking"), anyString());
+
+        try {
+            // occupies the only thread of the pool beyond the timeout of the queued request
+            cachingClient.getOauthTokenAsync("blocking", "password");
+
+            assertSame(token, cachingClient.getOauthToken("user", "password"));
+            verify(authenticationClient, times(0)).getOauthToken(eq("user"), anyString());
+        } finally {
+            release.countDown();
+        }
+    }
+
+    @Test
+    public void thatSlowAuthServerDoesNotSaturateCallerThreads() throws Exception {
+
+        final int pendingRequestLimit = 4;
+        final CountDownLatch release = new CountDownLatch(1);
+        final AtomicInteger upstreamCalls = new AtomicInteger();
+        properties.getAuthentication()
+            .setTimeout(200);
+        properties.getAuthentication()
+            .setPoolSize(2);
+        properties.getAuthentication()
+            .setQueueSize(pendingRequestLimit - 2);
+        cachingClient = new CachingAuthenticationClient(authenticationClient, new OAuthTokenCache(properties), properties);
+
+        doAnswer(invocation -> {
+            upstreamCalls.incrementAndGet();
+            release.await();
+            return new DefaultOAuth2AccessToken("value");
+        }).when(authenticationClient)
+            .getOauthToken(anyString(), anyString());
+
+        try {
+            long start = System.currentTimeMillis();
+            List<Future<OAuth2AccessToken>> results = new ArrayList<>();
+            for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+                final String username = "user" + i;
+                results.add(executorService.submit(() -> cachingClient.getOauthToken(username, "password")));
+            }
+
+            for (Future<OAuth2AccessToken> result : results) {
+                try {
+                    result.get(10, TimeUnit.SECONDS);
+                    fail("AuthenticationServerUnavailableException expected");
+                } catch (ExecutionException e) {
+                    assertTrue(e.getCause() instanceof AuthenticationServerUnavailableException);
+                }
+            }
+
+            // every caller got an answer within its timeout, although the Auth Server never responded
+            assertTrue(System.currentTimeMillis() - start < 5000);
+            assertTrue(upstreamCalls.get() <= 2);
+        } finally {
+            release.countDown();
+        }
+    }
+
+    // endregion
+
+    // region fallback
+
+    @Test
+    public void thatFailingAuthServerResultsInUnavailableException() {
+
+        when(authenticationClient.getOauthToken(anyString(), anyString())).thenThrow(new InternalAuthenticationServiceException("failed"));
+
+        try {
+            cachingClient.getOauthToken("user", "password");
+            fail("AuthenticationServerUnavailableException expected");
+        } catch (AuthenticationServerUnavailableException e) {
+            // expected
+        }
+        assertEquals(0, cachingClient.getInFlightRequestCount());
+    }
+
+    @Test
+    public void thatFailingAuthServerFallsBackToUnexpiredCachedToken() {
+
+        final OAuth2AccessToken token = new DefaultOAuth2AccessToken("value");
+        final OAuthTokenCache tokenCache = expiringTokenCache("user", "password", token);
+        cachingClient = new CachingAuthenticationClient(authenticationClient, tokenCache, properties);
+        when(authenticationClient.getOauthToken(anyString(), anyString())).thenThrow(new InternalAuthenticationServiceException("failed"));
+
+        assertSame(token, cachingClient.getOauthToken("user", "password"));
+    }
+
+    @Test
+    public void thatFailingAuthServerResultsInUnavailableExceptionWithoutCachedTokenFallback() {
+
+        properties.getAuthentication()
+            .setFallback(PreAuthorizationFilterProperties.Fallback.UNAVAILABLE);
+        final OAuthTokenCache tokenCache = expiringTokenCache("user", "password", new DefaultOAuth2AccessToken("value"));
+        cachingClient = new CachingAuthenticationClient(authenticationClient, tokenCache, properties);
+        when(authenticationClient.getOauthToken(anyString(), anyString())).thenThrow(new InternalAuthenticationServiceException("failed"));
+
+        try {
+            cachingClient.getOauthToken("user", "password");
+            fail("AuthenticationServerUnavailableException expected");
+        } catch (AuthenticationServerUnavailableException e) {
+            // expected
+        }
+    }
+
+    @Test
+    public void thatRejectedCredentialsDoNotFallBackToCachedToken() {
+
+        final OAuthTokenCache tokenCache = expiringTokenCache("user", "password", new DefaultOAuth2AccessToken("value"));
+        cachingClient = new CachingAuthenticationClient(authenticationClient, tokenCache, properties);
+        when(authenticationClient.getOauthToken(anyString(), anyString())).thenThrow(new BadCredentialsException("invalid"));
+
+        try {
+            cachingClient.getOauthToken("user", "password");
+            fail("BadCredentialsException expected");
+        } catch (BadCredentialsException e) {
+            // expected
+        }
+    }
+
+    // endregion
+
+    /**
+     * Creates a token cache containing a token for the credentials that is not handed out as usable anymore, like a token within the expiry
+     * margin.
+     */
+    private OAuthTokenCache expiringTokenCache(String username, String password, OAuth2AccessToken token) {
+
+        OAuthTokenCache tokenCache = spy(new OAuthTokenCache(properties));
+        tokenCache.put(tokenCache.getKey(username, password), username, token);
+        doReturn(null).when(tokenCache)
+            .get(anyString());
+        return tokenCache;
+    }
+
+    /**
+     * Submits the same request from all threads and returns once every thread is waiting for the request in flight.
+     */
+    private List<Future<OAuth2AccessToken>> submitBurst(Callable<OAuth2AccessToken> request) throws InterruptedException {
+
+        final List<Thread> threads = new ArrayList<>();
+        final CountDownLatch started = new CountDownLatch(CONCURRENT_REQUESTS);
+
+        List<Future<OAuth2AccessToken>> results = new ArrayList<>();
+        for (int i = 0; i < CONCURRENT_REQUESTS; i++) {
+            results.add(executorService.submit(() -> {
+                synchronized (threads) {
+                    threads.add(Thread.currentThread());
+                }
+                started.countDown();
+                return request.call();
+            }));
+        }
+
+        assertTrue(started.await(10, TimeUnit.SECONDS));
+        long deadline = System.currentTimeMillis() + 10000;
+        while (!allWaiting(threads)) {
+            assertTrue("Requests did not block in time", System.currentTimeMillis() < deadline);
+            Thread.sleep(10);
+        }
+        return results;
+    }
+
+    private static boolean allWaiting(List<Thread> threads) {
+
+        synchronized (threads) {
+            for (Thread thread : threads) {
+                if (thread.getState() != Thread.State.WAITING && thread.getState() != Thread.State.TIMED_WAITING) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+}
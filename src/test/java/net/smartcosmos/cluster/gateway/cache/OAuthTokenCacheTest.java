@@ -0,0 +1,291 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.lang.reflect.Field;
+import java.util.Collection;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.OAuth2AccessToken;
+
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+import static org.junit.Assert.*;
+
+public class OAuthTokenCacheTest {
+
+    private PreAuthorizationFilterProperties properties;
+
+    private OAuthTokenCache tokenCache;
+
+    @Before
+    public void setUp() {
+
+        properties = new PreAuthorizationFilterProperties();
+        properties.getTokenCache()
+            .setMaximumSize(2);
+        properties.getTokenCache()
+            .setExpiryMargin(30);
+
+        tokenCache = new OAuthTokenCache(properties);
+    }
+
+    // region getKey()
+
+    @Test
+    public void thatGetKeyIsStableForSameCredentials() {
+
+        assertEquals(tokenCache.getKey("user", "password"), tokenCache.getKey("user", "password"));
+    }
+
+    @Test
+    public void thatGetKeyDiffersForDifferentPasswords() {
+
+        assertNotEquals(tokenCache.getKey("user", "password"), tokenCache.getKey("user", "otherPassword"));
+    }
+
+    @Test
+    public void thatGetKeyDoesNotCollideOnSeparator() {
+
+        assertNotEquals(tokenCache.getKey("ab", "c"), tokenCache.getKey("a", "bc"));
+    }
+
+    @Test
+    public void thatGetKeyDoesNotContainPlaintext() {
+
+        final String password = "someArbitraryTestingPassw0rd";
+
+        assertFalse(tokenCache.getKey("user", password)
+                        .contains(password));
+    }
+
+    @Test
+    public void thatGetKeyIsSaltedPerInstance() {
+
+        OAuthTokenCache otherCache = new OAuthTokenCache(properties);
+
+        assertNotEquals(tokenCache.getKey("user", "password"), otherCache.getKey("user", "password"));
+    }
+
+    // endregion
+
+    // region get() and put()
+
+    @Test
+    public void thatGetReturnsCachedToken() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final OAuth2AccessToken token = token(3600);
+
+        tokenCache.put(key, "user", token);
+
+        assertSame(token, tokenCache.get(key));
+    }
+
+    @Test
+    public void thatGetReturnsNullForUnknownKey() {
+
+        assertNull(tokenCache.get(tokenCache.getKey("user", "password")));
+    }
+
+    @Test
+    public void thatGetReturnsTokenWithoutExpiration() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final OAuth2AccessToken token = new DefaultOAuth2AccessToken("value");
+
+        tokenCache.put(key, "user", token);
+
+        assertSame(token, tokenCache.get(key));
+    }
+
+    @Test
+    public void thatPutIgnoresTokenExpiringWithinMargin() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        tokenCache.put(key, "user", token(10));
+
+        assertNull(tokenCache.get(key));
+    }
+
+    @Test
+    public void thatGetReturnsNullIfCacheIsDisabled() {
+
+        properties.getTokenCache()
+            .setEnabled(false);
+        OAuthTokenCache disabledCache = new OAuthTokenCache(properties);
+        final String key = disabledCache.getKey("user", "password");
+
+        disabledCache.put(key, "user", token(3600));
+
+        assertFalse(disabledCache.isEnabled());
+        assertNull(disabledCache.get(key));
+    }
+
+    @Test
+    public void thatInvalidateRemovesToken() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        tokenCache.put(key, "user", token(3600));
+        tokenCache.invalidate(key);
+
+        assertNull(tokenCache.get(key));
+    }
+
+    @Test
+    public void thatPutKeepsNoPassword() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final DefaultOAuth2AccessToken token = token(3600);
+
+        tokenCache.put(key, "user", token);
+
+        CachedToken entry = tokenCache.getEntry(key);
+        assertSame(token, entry.getToken());
+        assertEquals("user", entry.getUsername());
+        for (Field field : CachedToken.class.getDeclaredFields()) {
+            assertNotEquals("password", field.getName());
+        }
+    }
+
+    @Test
+    public void thatEntryExpiresAfterMaximumTimeToLiveSinceAuthentication() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final long authenticatedAt = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(properties.getTokenCache()
+                                                                                                .getMaximumTimeToLive());
+
+        tokenCache.put(key, new CachedToken(token(3600), "user", authenticatedAt));
+
+        assertNull(tokenCache.get(key));
+        assertNull(tokenCache.getUnexpired(key));
+        assertNull(tokenCache.getEntry(key));
+    }
+
+    @Test
+    public void thatPutRefreshedKeepsTimeOfAuthentication() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final long authenticatedAt = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(60);
+        final DefaultOAuth2AccessToken refreshedToken = token(3600);
+
+        tokenCache.put(key, new CachedToken(token(60), "user", authenticatedAt));
+        tokenCache.putRefreshed(key, tokenCache.getEntry(key), refreshedToken);
+
+        assertSame(refreshedToken, tokenCache.get(key));
+        assertEquals(authenticatedAt, tokenCache.getEntry(key)
+            .getAuthenticatedAt());
+    }
+
+    @Test
+    public void thatPutRefreshedRemovesEntryPastMaximumTimeToLive() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final long authenticatedAt = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(properties.getTokenCache()
+                                                                                                .getMaximumTimeToLive());
+        final CachedToken entry = new CachedToken(token(60), "user", authenticatedAt);
+
+        tokenCache.put(key, entry);
+        tokenCache.putRefreshed(key, entry, token(3600));
+
+        assertNull(tokenCache.get(key));
+    }
+
+    // endregion
+
+    // region getHotKeysExpiringWithin()
+
+    @Test
+    public void thatGetHotKeysExpiringWithinReturnsHotExpiringKeys() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        tokenCache.put(key, "user", token(60));
+        tokenCache.get(key);
+        tokenCache.get(key);
+
+        assertEquals(1, tokenCache.getHotKeysExpiringWithin(120000, 2)
+            .size());
+        assertEquals(key, tokenCache.getHotKeysExpiringWithin(120000, 2)
+            .get(0));
+    }
+
+    @Test
+    public void thatGetHotKeysExpiringWithinIgnoresColdKeys() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        tokenCache.put(key, "user", token(60));
+        tokenCache.get(key);
+
+        assertTrue(tokenCache.getHotKeysExpiringWithin(120000, 2)
+                       .isEmpty());
+    }
+
+    @Test
+    public void thatGetHotKeysExpiringWithinIgnoresTokensNotExpiringSoon() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        tokenCache.put(key, "user", token(3600));
+        tokenCache.get(key);
+        tokenCache.get(key);
+
+        assertTrue(tokenCache.getHotKeysExpiringWithin(120000, 2)
+                       .isEmpty());
+    }
+
+    // endregion
+
+    // region metrics()
+
+    @Test
+    public void thatMetricsCountHitsAndMisses() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        tokenCache.get(key);
+        tokenCache.put(key, "user", token(3600));
+        tokenCache.get(key);
+        tokenCache.get(key);
+
+        assertEquals(2L, getMetric("gateway.token-cache.hit"));
+        assertEquals(1L, getMetric("gateway.token-cache.miss"));
+    }
+
+    @Test
+    public void thatMetricsCountSizeEvictions() {
+
+        tokenCache.put(tokenCache.getKey("user1", "password"), "user1", token(3600));
+        tokenCache.put(tokenCache.getKey("user2", "password"), "user2", token(3600));
+        tokenCache.put(tokenCache.getKey("user3", "password"), "user3", token(3600));
+
+        assertEquals(2L, getMetric("gateway.token-cache.size"));
+        assertEquals(1L, getMetric("gateway.token-cache.eviction"));
+    }
+
+    // endregion
+
+    private static DefaultOAuth2AccessToken token(int expiresInSeconds) {
+
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken("value-" + expiresInSeconds);
+        token.setExpiration(new Date(System.currentTimeMillis() + expiresInSeconds * 1000L));
+        return token;
+    }
+
+    private long getMetric(String name) {
+
+        Collection<Metric<?>> metrics = tokenCache.metrics();
+        for (Metric<?> metric : metrics) {
+            if (name.equals(metric.getName())) {
+                return metric.getValue()
+                    .longValue();
+            }
+        }
+        throw new AssertionError("Metric not found: " + name);
+    }
+}
@@ -0,0 +1,186 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.Collection;
+
+import org.junit.*;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+import static org.junit.Assert.*;
+
+public class RejectedCredentialsCacheTest {
+
+    private static final String ADDRESS = "10.0.0.1";
+
+    private PreAuthorizationFilterProperties properties;
+
+    private RejectedCredentialsCache rejectionCache;
+
+    @Before
+    public void setUp() {
+
+        properties = new PreAuthorizationFilterProperties();
+        properties.getRejectionCache()
+            .setInitialBackOff(200);
+        properties.getRejectionCache()
+            .setMaximumBackOff(60000);
+        properties.getRejectionCache()
+            .setAddressThreshold(3);
+
+        rejectionCache = new RejectedCredentialsCache(properties);
+    }
+
+    @Test
+    public void thatUnknownCredentialsAreNotRejected() {
+
+        assertFalse(rejectionCache.isRejected(rejectionCache.getKey("user", "password"), ADDRESS));
+    }
+
+    @Test
+    public void thatCredentialsAreRejectedAfterFailure() {
+
+        final String key = rejectionCache.getKey("user", "password");
+
+        rejectionCache.recordFailure(key, ADDRESS);
+
+        assertTrue(rejectionCache.isRejected(key, ADDRESS));
+    }
+
+    @Test
+    public void thatOtherCredentialsFromSameAddressAreNotRejectedBelowThreshold() {
+
+        rejectionCache.recordFailure(rejectionCache.getKey("user", "wrongPassword"), ADDRESS);
+
+        assertFalse(rejectionCache.isRejected(rejectionCache.getKey("user", "password"), ADDRESS));
+    }
+
+    @Test
+    public void thatAddressIsRejectedAtThreshold() {
+
+        rejectionCache.recordFailure(rejectionCache.getKey("user1", "wrongPassword"), ADDRESS);
+        rejectionCache.recordFailure(rejectionCache.getKey("user2", "wrongPassword"), ADDRESS);
+        rejectionCache.recordFailure(rejectionCache.getKey("user3", "wrongPassword"), ADDRESS);
+
+        assertTrue(rejectionCache.isRejected(rejectionCache.getKey("user", "password"), ADDRESS));
+        assertFalse(rejectionCache.isRejected(rejectionCache.getKey("user", "password"), "10.0.0.2"));
+    }
+
+    @Test
+    public void thatAuthenticatedCredentialsAreNotRejectedForAddress() {
+
+        final String key = rejectionCache.getKey("user", "password");
+        rejectionCache.recordSuccess(key, ADDRESS);
+
+        rejectionCache.recordFailure(rejectionCache.getKey("user1", "wrongPassword"), ADDRESS);
+        rejectionCache.recordFailure(rejectionCache.getKey("user2", "wrongPassword"), ADDRESS);
+        rejectionCache.recordFailure(rejectionCache.getKey("user3", "wrongPassword"), ADDRESS);
+
+        // clients behind the same proxy keep working with valid credentials, unknown credentials are rejected
+        assertFalse(rejectionCache.isRejected(key, ADDRESS));
+        assertTrue(rejectionCache.isRejected(rejectionCache.getKey("user4", "password"), ADDRESS));
+    }
+
+    @Test
+    public void thatSuccessDecaysAddressFailures() {
+
+        rejectionCache.recordFailure(rejectionCache.getKey("user1", "wrongPassword"), ADDRESS);
+        rejectionCache.recordFailure(rejectionCache.getKey("user2", "wrongPassword"), ADDRESS);
+        rejectionCache.recordFailure(rejectionCache.getKey("user3", "wrongPassword"), ADDRESS);
+        rejectionCache.recordFailure(rejectionCache.getKey("user4", "wrongPassword"), ADDRESS);
+
+        rejectionCache.recordSuccess(rejectionCache.getKey("user", "password"), ADDRESS);
+
+        assertFalse(rejectionCache.isRejected(rejectionCache.getKey("user5", "password"), ADDRESS));
+    }
+
+    @Test
+    public void thatClientAddressIsTakenFromForwardedForOfTrustedProxy() {
+
+        properties.getRejectionCache()
+            .getTrustedProxies()
+            .add("10.0.0.100");
+        properties.getRejectionCache()
+            .getTrustedProxies()
+            .add("10.0.0.101");
+        RejectedCredentialsCache proxiedCache = new RejectedCredentialsCache(properties);
+
+        assertEquals("192.168.0.1", proxiedCache.getClientAddress("10.0.0.100", "1.2.3.4, 192.168.0.1, 10.0.0.101"));
+        assertEquals("10.0.0.100", proxiedCache.getClientAddress("10.0.0.100", null));
+        // the header of untrusted clients is ignored
+        assertEquals(ADDRESS, proxiedCache.getClientAddress(ADDRESS, "1.2.3.4"));
+    }
+
+    @Test
+    public void thatBackOffExpires() throws Exception {
+
+        final String key = rejectionCache.getKey("user", "password");
+
+        rejectionCache.recordFailure(key, null);
+        Thread.sleep(300);
+
+        assertFalse(rejectionCache.isRejected(key, null));
+    }
+
+    @Test
+    public void thatBackOffDoublesWithEveryFailure() throws Exception {
+
+        final String key = rejectionCache.getKey("user", "password");
+
+        rejectionCache.recordFailure(key, null);
+        rejectionCache.recordFailure(key, null);
+        Thread.sleep(300);
+
+        // second failure backs off for 400 ms
+        assertTrue(rejectionCache.isRejected(key, null));
+    }
+
+    @Test
+    public void thatSuccessResetsCredentials() {
+
+        final String key = rejectionCache.getKey("user", "password");
+
+        rejectionCache.recordFailure(key, null);
+        rejectionCache.recordSuccess(key, null);
+
+        assertFalse(rejectionCache.isRejected(key, null));
+    }
+
+    @Test
+    public void thatNothingIsRejectedIfDisabled() {
+
+        properties.getRejectionCache()
+            .setEnabled(false);
+        RejectedCredentialsCache disabledCache = new RejectedCredentialsCache(properties);
+        final String key = disabledCache.getKey("user", "password");
+
+        disabledCache.recordFailure(key, ADDRESS);
+
+        assertFalse(disabledCache.isRejected(key, ADDRESS));
+    }
+
+    @Test
+    public void thatMetricsCountLocalRejections() {
+
+        final String key = rejectionCache.getKey("user", "password");
+
+        rejectionCache.recordFailure(key, ADDRESS);
+        rejectionCache.isRejected(key, ADDRESS);
+        rejectionCache.isRejected(key, ADDRESS);
+
+        assertEquals(2L, getMetric("gateway.rejection-cache.credentials.rejected"));
+        assertEquals(0L, getMetric("gateway.rejection-cache.addresses.rejected"));
+    }
+
+    private long getMetric(String name) {
+
+        Collection<Metric<?>> metrics = rejectionCache.metrics();
+        for (Metric<?> metric : metrics) {
+            if (name.equals(metric.getName())) {
+                return metric.getValue()
+                    .longValue();
+            }
+        }
+        throw new AssertionError("Metric not found: " + name);
+    }
+}
@@ -0,0 +1,146 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import org.junit.*;
+import org.springframework.cloud.client.discovery.event.HeartbeatEvent;
+import org.springframework.cloud.netflix.zuul.RoutesRefreshedEvent;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RouteClassificationCacheTest {
+
+    private static final Route FORWARDING_ROUTE = new Route("local", "/test", "forward:/test", "/local", false, null);
+    private static final Route PROXIED_ROUTE = new Route("things", "/test", "smartcosmos-things", "/things", false, null);
+
+    private PreAuthorizationFilterProperties properties;
+
+    private RouteLocator routeLocator;
+
+    private RouteClassificationCache routeCache;
+
+    @Before
+    public void setUp() {
+
+        properties = new PreAuthorizationFilterProperties();
+        routeLocator = mock(RouteLocator.class);
+        when(routeLocator.getMatchingRoute(eq("/local/test"))).thenReturn(FORWARDING_ROUTE);
+        when(routeLocator.getMatchingRoute(eq("/things/test"))).thenReturn(PROXIED_ROUTE);
+
+        routeCache = new RouteClassificationCache(routeLocator, properties);
+    }
+
+    @Test
+    public void thatForwardingRouteIsDetected() {
+
+        assertTrue(routeCache.isForwardingRoute("/local/test"));
+        assertFalse(routeCache.isForwardingRoute("/things/test"));
+        assertFalse(routeCache.isForwardingRoute("/unknown/test"));
+    }
+
+    @Test
+    public void thatRouteLookupIsCached() {
+
+        routeCache.isForwardingRoute("/local/test");
+        routeCache.isForwardingRoute("/local/test");
+        routeCache.isForwardingRoute("/local/test");
+
+        verify(routeLocator, times(1)).getMatchingRoute(anyString());
+    }
+
+    @Test
+    public void thatRoutesRefreshedEventClearsCache() {
+
+        assertFalse(routeCache.isForwardingRoute("/things/test"));
+
+        when(routeLocator.getMatchingRoute(eq("/things/test"))).thenReturn(FORWARDING_ROUTE);
+        routeCache.onRoutesRefreshed(new RoutesRefreshedEvent(routeLocator));
+
+        assertTrue(routeCache.isForwardingRoute("/things/test"));
+    }
+
+    @Test
+    public void thatHeartbeatKeepsCacheIfRoutesAreUnchanged() {
+
+        when(routeLocator.getRoutes()).thenReturn(Collections.singletonList(FORWARDING_ROUTE));
+        routeCache.onHeartbeat(new HeartbeatEvent(this, 1L));
+        routeCache.isForwardingRoute("/local/test");
+
+        routeCache.onHeartbeat(new HeartbeatEvent(this, 2L));
+        routeCache.isForwardingRoute("/local/test");
+
+        verify(routeLocator, times(1)).getMatchingRoute(anyString());
+    }
+
+    @Test
+    public void thatHeartbeatKeepsCacheIfEqualRoutesAreLocatedAgain() {
+
+        when(routeLocator.getRoutes()).thenReturn(Collections.singletonList(FORWARDING_ROUTE));
+        routeCache.onHeartbeat(new HeartbeatEvent(this, 1L));
+        routeCache.isForwardingRoute("/local/test");
+
+        // route locators create new route instances on every call
+        when(routeLocator.getRoutes()).thenReturn(Collections.singletonList(new Route("local", "/test", "forward:/test", "/local", false, null)));
+        routeCache.onHeartbeat(new HeartbeatEvent(this, 2L));
+        routeCache.isForwardingRoute("/local/test");
+
+        verify(routeLocator, times(1)).getMatchingRoute(anyString());
+    }
+
+    @Test
+    public void thatHeartbeatClearsCacheIfRoutesChanged() {
+
+        when(routeLocator.getRoutes()).thenReturn(Collections.singletonList(FORWARDING_ROUTE));
+        routeCache.onHeartbeat(new HeartbeatEvent(this, 1L));
+        assertFalse(routeCache.isForwardingRoute("/things/test"));
+
+        // a newly discovered service
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(FORWARDING_ROUTE, PROXIED_ROUTE));
+        when(routeLocator.getMatchingRoute(eq("/things/test"))).thenReturn(FORWARDING_ROUTE);
+        routeCache.onHeartbeat(new HeartbeatEvent(this, 2L));
+
+        assertTrue(routeCache.isForwardingRoute("/things/test"));
+    }
+
+    @Test
+    public void thatMatchingRouteIsSharedWithClassification() {
+
+        assertSame(FORWARDING_ROUTE, routeCache.getMatchingRoute("/local/test"));
+        assertTrue(routeCache.isForwardingRoute("/local/test"));
+
+        verify(routeLocator, times(1)).getMatchingRoute(anyString());
+    }
+
+    @Test
+    public void thatUnmatchedPathIsNotCached() {
+
+        assertNull(routeCache.getMatchingRoute("/unknown/test"));
+        assertNull(routeCache.getMatchingRoute("/unknown/test"));
+
+        verify(routeLocator, times(2)).getMatchingRoute(anyString());
+    }
+
+    @Test
+    public void thatRouteLookupIsNotCachedIfDisabled() {
+
+        properties.getRouteCache()
+            .setEnabled(false);
+        routeCache = new RouteClassificationCache(routeLocator, properties);
+
+        routeCache.isForwardingRoute("/local/test");
+        routeCache.isForwardingRoute("/local/test");
+
+        verify(routeLocator, times(2)).getMatchingRoute(anyString());
+    }
+}
@@ -0,0 +1,179 @@
+package net.smartcosmos.cluster.gateway.cache;
+
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.*;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.security.authentication.BadCredentialsException;
+import org.springframework.security.oauth2.common.DefaultOAuth2AccessToken;
+import org.springframework.security.oauth2.common.DefaultOAuth2RefreshToken;
+
+import net.smartcosmos.cluster.gateway.AuthenticationClient;
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class TokenRefresherTest {
+
+    @Mock
+    AuthenticationClient authenticationClient;
+
+    private OAuthTokenCache tokenCache;
+
+    private TokenRefresher tokenRefresher;
+
+    @Before
+    public void setUp() {
+
+        PreAuthorizationFilterProperties properties = new PreAuthorizationFilterProperties();
+        properties.getTokenRefresh()
+            .setLeadTime(120);
+        properties.getTokenRefresh()
+            .setHotThreshold(2);
+
+        tokenCache = new OAuthTokenCache(properties);
+        tokenRefresher = new TokenRefresher(authenticationClient, tokenCache, properties);
+    }
+
+    @After
+    public void tearDown() {
+
+        tokenRefresher.destroy();
+        reset(authenticationClient);
+    }
+
+    @Test
+    public void thatRefreshHotTokensUsesRefreshToken() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final DefaultOAuth2AccessToken token = refreshableToken("old", 60);
+        final DefaultOAuth2AccessToken newToken = token("new", 3600);
+
+        when(authenticationClient.refreshOauthToken(eq("refresh"))).thenReturn(newToken);
+        cacheHotToken(key, token);
+
+        tokenRefresher.refreshHotTokens();
+
+        verify(authenticationClient, timeout(5000)).refreshOauthToken(eq("refresh"));
+        verify(authenticationClient, never()).getOauthToken(anyString(), anyString());
+        awaitCachedToken(key, "new");
+    }
+
+    @Test
+    public void thatRefreshSkipsTokenWithoutRefreshToken() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        cacheHotToken(key, token("old", 60));
+
+        tokenRefresher.refresh(key);
+
+        verify(authenticationClient, never()).getOauthToken(anyString(), anyString());
+        verify(authenticationClient, never()).refreshOauthToken(anyString());
+        assertEquals("old", tokenCache.getEntry(key)
+            .getToken()
+            .getValue());
+    }
+
+    @Test
+    public void thatRefreshHotTokensIgnoresColdTokens() throws Exception {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        tokenCache.put(key, "user", refreshableToken("old", 60));
+        tokenCache.get(key);
+
+        tokenRefresher.refreshHotTokens();
+        Thread.sleep(200);
+
+        verify(authenticationClient, never()).refreshOauthToken(anyString());
+    }
+
+    @Test
+    public void thatRefreshInvalidatesTokenForRejectedRefreshToken() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        when(authenticationClient.refreshOauthToken(eq("refresh"))).thenThrow(new BadCredentialsException("invalid"));
+        cacheHotToken(key, refreshableToken("old", 60));
+
+        tokenRefresher.refresh(key);
+
+        assertNull(tokenCache.getEntry(key));
+    }
+
+    @Test
+    public void thatRefreshKeepsTimeOfAuthentication() {
+
+        final String key = tokenCache.getKey("user", "password");
+
+        when(authenticationClient.refreshOauthToken(eq("refresh"))).thenReturn(token("new", 3600));
+        cacheHotToken(key, refreshableToken("old", 60));
+        long authenticatedAt = tokenCache.getEntry(key)
+            .getAuthenticatedAt();
+
+        tokenRefresher.refresh(key);
+
+        assertEquals("new", tokenCache.getEntry(key)
+            .getToken()
+            .getValue());
+        assertEquals(authenticatedAt, tokenCache.getEntry(key)
+            .getAuthenticatedAt());
+    }
+
+    @Test
+    public void thatRefreshStopsAfterMaximumTimeToLive() {
+
+        final String key = tokenCache.getKey("user", "password");
+        final long authenticatedAt = System.currentTimeMillis() - TimeUnit.SECONDS.toMillis(3601);
+
+        tokenCache.put(key, new CachedToken(refreshableToken("old", 60), "user", authenticatedAt));
+
+        tokenRefresher.refresh(key);
+
+        verify(authenticationClient, never()).refreshOauthToken(anyString());
+        assertNull(tokenCache.getEntry(key));
+    }
+
+    private void cacheHotToken(String key, DefaultOAuth2AccessToken token) {
+
+        tokenCache.put(key, "user", token);
+        tokenCache.get(key);
+        tokenCache.get(key);
+    }
+
+    private void awaitCachedToken(String key, String value) {
+
+        long deadline = System.currentTimeMillis() + 5000;
+        while (!value.equals(tokenCache.get(key)
+                                 .getValue())) {
+            assertTrue("Token was not refreshed", System.currentTimeMillis() < deadline);
+            Thread.yield();
+        }
+    }
+
+    private static DefaultOAuth2AccessToken token(String value, int expiresInSeconds) {
+
+        DefaultOAuth2AccessToken token = new DefaultOAuth2AccessToken(value);
+        token.setExpiration(new Date(System.currentTimeMillis() + expiresInSeconds * 1000L));
+        return token;
+    }
+
+    private static DefaultOAuth2AccessToken refreshableToken(String value, int expiresInSeconds) {
+
+        DefaultOAuth2AccessToken token = token(value, expiresInSeconds);
+        token.setRefreshToken(new DefaultOAuth2RefreshToken("refresh"));
+        return token;
+    }
+}
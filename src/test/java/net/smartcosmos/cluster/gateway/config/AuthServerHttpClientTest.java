@@ -0,0 +1,95 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+
+import com.sun.net.httpserver.HttpServer;
+import org.apache.http.client.methods.CloseableHttpResponse;
+import org.apache.http.client.methods.HttpGet;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.util.EntityUtils;
+import org.junit.*;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import net.smartcosmos.cluster.gateway.rest.InstrumentedConnectionManager;
+
+import static org.junit.Assert.*;
+
+public class AuthServerHttpClientTest {
+
+    private AuthenticationServerConnectionProperties properties;
+
+    private InstrumentedConnectionManager connectionManager;
+
+    private CloseableHttpClient httpClient;
+
+    private HttpServer server;
+
+    @Before
+    public void setUp() throws Exception {
+
+        properties = new AuthenticationServerConnectionProperties();
+        properties.setMaxConnectionsPerRoute(3);
+        properties.setMaxConnectionsTotal(7);
+
+        GatewayConfiguration configuration = new GatewayConfiguration();
+        connectionManager = configuration.authServerConnectionManager(properties);
+        httpClient = configuration.authServerHttpClient(connectionManager, properties);
+
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext("/", exchange -> {
+            byte[] body = "ok".getBytes(StandardCharsets.UTF_8);
+            exchange.sendResponseHeaders(200, body.length);
+            exchange.getResponseBody()
+                .write(body);
+            exchange.close();
+        });
+        server.start();
+    }
+
+    @After
+    public void tearDown() throws Exception {
+
+        server.stop(0);
+        httpClient.close();
+    }
+
+    private long getMetric(String name) {
+
+        for (Metric<?> metric : connectionManager.metrics()) {
+            if (name.equals(metric.getName())) {
+                return metric.getValue()
+                    .longValue();
+            }
+        }
+        throw new AssertionError("Metric not found: " + name);
+    }
+
+    @Test
+    public void thatConnectionManagerIsSizedFromProperties() {
+
+        assertEquals(3, connectionManager.getDefaultMaxPerRoute());
+        assertEquals(7, connectionManager.getMaxTotal());
+        assertEquals(7L, getMetric("gateway.auth-server.pool.max"));
+    }
+
+    @Test
+    public void thatHttpClientReusesPooledConnections() throws Exception {
+
+        String uri = "http://localhost:" + server.getAddress()
+            .getPort() + "/oauth/token";
+
+        for (int i = 0; i < 3; i++) {
+            try (CloseableHttpResponse response = httpClient.execute(new HttpGet(uri))) {
+                assertEquals(200, response.getStatusLine()
+                    .getStatusCode());
+                assertEquals("ok", EntityUtils.toString(response.getEntity()));
+            }
+        }
+
+        // every request leased from the pool, and the connection went back to it afterwards
+        assertEquals(3L, getMetric("gateway.auth-server.pool.lease.count"));
+        assertEquals(0L, getMetric("gateway.auth-server.pool.leased"));
+        assertEquals(1L, getMetric("gateway.auth-server.pool.available"));
+    }
+}
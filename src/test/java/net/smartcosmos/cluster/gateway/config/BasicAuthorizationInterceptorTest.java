@@ -0,0 +1,102 @@
+package net.smartcosmos.cluster.gateway.config;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.*;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpRequest;
+import org.springframework.http.client.ClientHttpRequestExecution;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+@RunWith(MockitoJUnitRunner.class)
+public class BasicAuthorizationInterceptorTest {
+
+    @Mock
+    HttpRequest request;
+
+    @Mock
+    ClientHttpRequestExecution execution;
+
+    private AuthenticationServerConnectionProperties properties;
+
+    private BasicAuthorizationInterceptor interceptor;
+
+    @Before
+    public void setUp() {
+
+        properties = new AuthenticationServerConnectionProperties();
+        properties.setName("serviceUser");
+        properties.setPassword("servicePassword");
+
+        interceptor = new BasicAuthorizationInterceptor(properties);
+    }
+
+    @Test
+    public void thatInterceptSetsAuthorizationHeader() throws Exception {
+
+        final HttpHeaders headers = new HttpHeaders();
+        final byte[] body = new byte[0];
+        when(request.getHeaders()).thenReturn(headers);
+
+        interceptor.intercept(request, body, execution);
+
+        assertEquals(expectedHeader("serviceUser", "servicePassword"), headers.getFirst(HttpHeaders.AUTHORIZATION));
+        assertEquals(1, headers.get(HttpHeaders.AUTHORIZATION)
+            .size());
+        verify(execution).execute(eq(request), eq(body));
+    }
+
+    @Test
+    public void thatInterceptReplacesExistingAuthorizationHeader() throws Exception {
+
+        final HttpHeaders headers = new HttpHeaders();
+        headers.add(HttpHeaders.AUTHORIZATION, "Bearer something");
+        when(request.getHeaders()).thenReturn(headers);
+
+        interceptor.intercept(request, new byte[0], execution);
+
+        assertEquals(1, headers.get(HttpHeaders.AUTHORIZATION)
+            .size());
+        verify(execution).execute(eq(request), any());
+    }
+
+    @Test
+    public void thatHeaderValueIsComputedOnce() {
+
+        assertSame(interceptor.getHeaderValue(), interceptor.getHeaderValue());
+    }
+
+    @Test
+    public void thatHeaderValueChangesWithRefreshedProperties() {
+
+        final String headerValue = interceptor.getHeaderValue();
+
+        properties.setPassword("newServicePassword");
+
+        assertNotEquals(headerValue, interceptor.getHeaderValue());
+        assertEquals(expectedHeader("serviceUser", "newServicePassword"), interceptor.getHeaderValue());
+    }
+
+    @Test
+    public void thatHeaderValueHandlesNullPassword() {
+
+        properties.setPassword(null);
+
+        assertEquals(expectedHeader("serviceUser", ""), interceptor.getHeaderValue());
+    }
+
+    private static String expectedHeader(String username, String password) {
+
+        return "Basic " + Base64.getEncoder()
+            .encodeToString((username + ":" + password).getBytes(StandardCharsets.UTF_8));
+    }
+}
@@ -0,0 +1,78 @@
+package net.smartcosmos.cluster.gateway.domain;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import org.junit.*;
+import org.springframework.http.HttpStatus;
+
+import static org.junit.Assert.*;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+import static org.springframework.http.HttpStatus.UNAUTHORIZED;
+
+public class ErrorResponseRendererTest {
+
+    private static final long TIMESTAMP = 1479388800000L;
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    private final ErrorResponseRenderer renderer = new ErrorResponseRenderer();
+
+    // region serialization
+
+    @Test
+    public void thatRenderMatchesObjectMapper() throws Exception {
+
+        assertRenderMatchesObjectMapper(UNAUTHORIZED, "Access Denied", "/things/1");
+        assertRenderMatchesObjectMapper(SERVICE_UNAVAILABLE, "Authentication service unavailable", "/things/1");
+    }
+
+    @Test
+    public void thatRenderOmitsNullValues() throws Exception {
+
+        assertRenderMatchesObjectMapper(UNAUTHORIZED, null, "/things/1");
+        assertRenderMatchesObjectMapper(UNAUTHORIZED, "Access Denied", null);
+        assertRenderMatchesObjectMapper(UNAUTHORIZED, null, null);
+    }
+
+    @Test
+    public void thatRenderEscapesStrings() throws Exception {
+
+        assertRenderMatchesObjectMapper(UNAUTHORIZED, "\"quoted\" \\ message\n", "/things/\"1\"\t\u0001ü");
+    }
+
+    @Test
+    public void thatRenderReusesFragmentsPerStatusAndMessage() throws Exception {
+
+        renderer.render(TIMESTAMP, UNAUTHORIZED, "Access Denied", "/a");
+
+        assertRenderMatchesObjectMapper(UNAUTHORIZED, "Other message", "/b");
+        assertRenderMatchesObjectMapper(SERVICE_UNAVAILABLE, "Access Denied", "/c");
+        assertRenderMatchesObjectMapper(UNAUTHORIZED, "Access Denied", "/d");
+    }
+
+    @Test
+    public void thatRenderHandlesManyDistinctMessages() throws Exception {
+
+        for (int i = 0; i < 1000; i++) {
+            renderer.render(TIMESTAMP, SERVICE_UNAVAILABLE, "Load balancer has no available server for client: service-" + i, "/a");
+        }
+
+        assertRenderMatchesObjectMapper(SERVICE_UNAVAILABLE, "Load balancer has no available server for client: service-1000", "/b");
+        assertRenderMatchesObjectMapper(SERVICE_UNAVAILABLE, "Load balancer has no available server for client: service-1", "/c");
+    }
+
+    // endregion
+
+    private void assertRenderMatchesObjectMapper(HttpStatus status, String message, String path) throws Exception {
+
+        String expected = objectMapper.writeValueAsString(ErrorResponse.builder()
+                                                              .timestamp(TIMESTAMP)
+                                                              .status(status.value())
+                                                              .error(status.getReasonPhrase())
+                                                              .message(message)
+                                                              .path(path)
+                                                              .build());
+
+        assertEquals(expected, renderer.render(TIMESTAMP, status, message, path));
+    }
+}
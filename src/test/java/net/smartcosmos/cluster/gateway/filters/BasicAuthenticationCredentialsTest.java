@@ -0,0 +1,195 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Random;
+
+import org.junit.*;
+
+import static org.junit.Assert.*;
+
+public class BasicAuthenticationCredentialsTest {
+
+    private static final String BASE64_ALPHABET = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789+/";
+    private static final String NOISE = "=  :-_.\té€";
+
+    // region parse()
+
+    @Test
+    public void thatParseReturnsNullForMissingHeader() {
+
+        assertNull(BasicAuthenticationCredentials.parse(null));
+    }
+
+    @Test
+    public void thatParseReturnsNullForOtherAuthenticationType() {
+
+        assertNull(BasicAuthenticationCredentials.parse("Bearer " + encode("user:password")));
+    }
+
+    @Test
+    public void thatParseDecodesCredentials() {
+
+        BasicAuthenticationCredentials credentials = BasicAuthenticationCredentials.parse("Basic " + encode("user:password"));
+
+        assertFalse(credentials.isMalformed());
+        assertEquals("user", credentials.getUsername());
+        assertEquals("password", credentials.getPassword());
+    }
+
+    @Test
+    public void thatParseSplitsAtFirstColon() {
+
+        BasicAuthenticationCredentials credentials = BasicAuthenticationCredentials.parse("Basic " + encode("user:pass:word"));
+
+        assertEquals("user", credentials.getUsername());
+        assertEquals("pass:word", credentials.getPassword());
+    }
+
+    @Test
+    public void thatParseAcceptsEmptyPassword() {
+
+        BasicAuthenticationCredentials credentials = BasicAuthenticationCredentials.parse("Basic " + encode("user:"));
+
+        assertEquals("user", credentials.getUsername());
+        assertEquals("", credentials.getPassword());
+    }
+
+    @Test
+    public void thatParseDecodesUtf8() {
+
+        BasicAuthenticationCredentials credentials = BasicAuthenticationCredentials.parse("Basic " + encode("üser:pässw€rd"));
+
+        assertEquals("üser", credentials.getUsername());
+        assertEquals("pässw€rd", credentials.getPassword());
+    }
+
+    @Test
+    public void thatParseTrimsWhitespace() {
+
+        BasicAuthenticationCredentials credentials = BasicAuthenticationCredentials.parse("Basic  \t" + encode("user:password") + "  ");
+
+        assertEquals("user", credentials.getUsername());
+        assertEquals("password", credentials.getPassword());
+    }
+
+    @Test
+    public void thatParseAcceptsMissingPadding() {
+
+        BasicAuthenticationCredentials credentials = BasicAuthenticationCredentials.parse("Basic " + encode("user:pw").replace("=", ""));
+
+        assertEquals("user", credentials.getUsername());
+        assertEquals("pw", credentials.getPassword());
+    }
+
+    @Test
+    public void thatParseReturnsMalformedWithoutColon() {
+
+        assertTrue(BasicAuthenticationCredentials.parse("Basic " + encode("userpassword"))
+                       .isMalformed());
+    }
+
+    @Test
+    public void thatParseReturnsMalformedForEmptyCredentials() {
+
+        assertTrue(BasicAuthenticationCredentials.parse("Basic")
+                       .isMalformed());
+        assertTrue(BasicAuthenticationCredentials.parse("Basic   ")
+                       .isMalformed());
+    }
+
+    @Test
+    public void thatParseReturnsMalformedForInvalidBase64() {
+
+        assertTrue(BasicAuthenticationCredentials.parse("Basic dXNlcjpwYXNz!29yZA==")
+                       .isMalformed());
+        assertTrue(BasicAuthenticationCredentials.parse("Basic dXNlcjpwYXNzd29yZA=")
+                       .isMalformed());
+        assertTrue(BasicAuthenticationCredentials.parse("Basic dXNlcjpwYXNzd29yZA===")
+                       .isMalformed());
+        assertTrue(BasicAuthenticationCredentials.parse("Basic dXNl cjpwYXNzd29yZA==")
+                       .isMalformed());
+        assertTrue(BasicAuthenticationCredentials.parse("Basic d")
+                       .isMalformed());
+    }
+
+    // endregion
+
+    // region fuzzing
+
+    /**
+     * Compares the parser with the straightforward implementation based on {@link Base64#getDecoder()} and {@link String#split(String, int)}
+     * for random, mostly malformed header values.
+     */
+    @Test
+    public void thatParseMatchesReferenceImplementationForRandomHeaders() {
+
+        final Random random = new Random(42);
+
+        for (int i = 0; i < 200000; i++) {
+            String header = random.nextInt(4) == 0 ? randomEncodedHeader(random) : randomHeader(random);
+
+            String[] expected = referenceParse(header);
+            BasicAuthenticationCredentials credentials = BasicAuthenticationCredentials.parse(header);
+
+            assertNotNull(header, credentials);
+            if (expected == null) {
+                assertTrue(header, credentials.isMalformed());
+            } else {
+                assertFalse(header, credentials.isMalformed());
+                assertEquals(header, expected[0], credentials.getUsername());
+                assertEquals(header, expected[1], credentials.getPassword());
+            }
+        }
+    }
+
+    // endregion
+
+    private static String encode(String credentials) {
+
+        return Base64.getEncoder()
+            .encodeToString(credentials.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static String[] referenceParse(String header) {
+
+        try {
+            String[] credentials = new String(Base64.getDecoder()
+                                                  .decode(header.substring("Basic".length())
+                                                              .trim()), StandardCharsets.UTF_8).split(":", 2);
+            return credentials.length == 2 ? credentials : null;
+        } catch (IllegalArgumentException e) {
+            return null;
+        }
+    }
+
+    private static String randomHeader(Random random) {
+
+        StringBuilder header = new StringBuilder(random.nextBoolean() ? "Basic " : "Basic");
+        int length = random.nextInt(14);
+        for (int i = 0; i < length; i++) {
+            if (random.nextInt(10) == 0) {
+                header.append(NOISE.charAt(random.nextInt(NOISE.length())));
+            } else {
+                header.append(BASE64_ALPHABET.charAt(random.nextInt(BASE64_ALPHABET.length())));
+            }
+        }
+        return header.toString();
+    }
+
+    private static String randomEncodedHeader(Random random) {
+
+        byte[] credentials = new byte[random.nextInt(16)];
+        random.nextBytes(credentials);
+        if (credentials.length > 0 && random.nextBoolean()) {
+            credentials[random.nextInt(credentials.length)] = ':';
+        }
+
+        String encoded = Base64.getEncoder()
+            .encodeToString(credentials);
+        if (random.nextBoolean()) {
+            encoded = encoded.replace("=", "");
+        }
+        return "Basic " + encoded;
+    }
+}
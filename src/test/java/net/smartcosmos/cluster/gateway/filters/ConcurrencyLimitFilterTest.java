@@ -0,0 +1,193 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.zuul.context.RequestContext;
+import org.junit.*;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import net.smartcosmos.cluster.gateway.config.ConcurrencyLimitProperties;
+import net.smartcosmos.cluster.gateway.limit.AdaptiveConcurrencyLimit;
+import net.smartcosmos.cluster.gateway.limit.ConcurrencyLimiter;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+
+public class ConcurrencyLimitFilterTest {
+
+    private static final String SERVICE_ID = "smartcosmos-things";
+
+    private ConcurrencyLimiter concurrencyLimiter;
+
+    private ConcurrencyLimitFilter filter;
+
+    private ConcurrencyLimitReleaseFilter releaseFilter;
+
+    private RequestContext ctx;
+
+    @Before
+    public void setUp() {
+
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(1);
+        properties.setMinLimit(1);
+        concurrencyLimiter = new ConcurrencyLimiter(properties);
+        filter = new ConcurrencyLimitFilter(concurrencyLimiter);
+        releaseFilter = new ConcurrencyLimitReleaseFilter();
+
+        newRequest();
+    }
+
+    @After
+    public void tearDown() {
+
+        RequestContext.getCurrentContext()
+            .unset();
+    }
+
+    private void newRequest() {
+
+        RequestContext.getCurrentContext()
+            .unset();
+        ctx = RequestContext.getCurrentContext();
+        ctx.setRequest(mock(HttpServletRequest.class));
+        ctx.setResponse(mock(HttpServletResponse.class));
+        ctx.set("serviceId", SERVICE_ID);
+    }
+
+    @Test
+    public void thatRequestsWithoutServiceAreNotFiltered() {
+
+        ctx.remove("serviceId");
+
+        assertFalse(filter.shouldFilter());
+        assertFalse(releaseFilter.shouldFilter());
+    }
+
+    @Test
+    public void thatRequestWithinLimitIsRouted() {
+
+        assertTrue(filter.shouldFilter());
+        filter.run();
+
+        assertTrue(ctx.sendZuulResponse());
+        assertEquals(1, concurrencyLimiter.getLimit(SERVICE_ID)
+            .getInFlight());
+
+        assertTrue(releaseFilter.shouldFilter());
+        releaseFilter.run();
+
+        assertEquals(0, concurrencyLimiter.getLimit(SERVICE_ID)
+            .getInFlight());
+    }
+
+    @Test
+    public void thatRequestAboveLimitIsRejected() {
+
+        filter.run();
+
+        newRequest();
+        filter.run();
+
+        assertFalse(ctx.sendZuulResponse());
+        assertEquals(503, ctx.getResponseStatusCode());
+        assertTrue(ctx.getResponseBody()
+                       .contains("\"message\":\"Service overloaded\""));
+        assertFalse(releaseFilter.shouldFilter());
+
+        AdaptiveConcurrencyLimit limit = concurrencyLimiter.getLimit(SERVICE_ID);
+        assertEquals(1, limit.getInFlight());
+        assertEquals(1, limit.getRejectedCount());
+    }
+
+    @Test
+    public void thatUnavailableServiceDecreasesLimit() {
+
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        concurrencyLimiter = new ConcurrencyLimiter(properties);
+        filter = new ConcurrencyLimitFilter(concurrencyLimiter);
+
+        filter.run();
+        ctx.setResponseStatusCode(503);
+        releaseFilter.run();
+
+        assertTrue(concurrencyLimiter.getLimit(SERVICE_ID)
+                       .getLimit() < properties.getInitialLimit());
+    }
+
+    @Test
+    public void thatApplicationErrorDoesNotDecreaseLimit() {
+
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        concurrencyLimiter = new ConcurrencyLimiter(properties);
+        filter = new ConcurrencyLimitFilter(concurrencyLimiter);
+
+        filter.run();
+        ctx.setResponseStatusCode(500);
+        releaseFilter.run();
+
+        assertEquals(properties.getInitialLimit(), concurrencyLimiter.getLimit(SERVICE_ID)
+            .getLimit());
+    }
+
+    @Test
+    public void thatRoutingFailureDecreasesLimit() {
+
+        ConcurrencyLimitProperties properties = new ConcurrencyLimitProperties();
+        concurrencyLimiter = new ConcurrencyLimiter(properties);
+        filter = new ConcurrencyLimitFilter(concurrencyLimiter);
+
+        filter.run();
+        ctx.set("error.status_code", 500);
+        releaseFilter.run();
+
+        assertTrue(concurrencyLimiter.getLimit(SERVICE_ID)
+                       .getLimit() < properties.getInitialLimit());
+    }
+
+    @Test
+    public void thatMetricsArePublishedPerService() {
+
+        filter.run();
+
+        assertEquals(3, concurrencyLimiter.metrics()
+            .size());
+    }
+
+    // region Servlet Filter
+
+    @Test
+    public void thatServletFilterReleasesPermitIfPostFiltersAreSkipped() throws Exception {
+
+        ConcurrencyLimitServletFilter servletFilter = new ConcurrencyLimitServletFilter();
+
+        try {
+            servletFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+                filter.run();
+                throw new IllegalStateException("post filter failed");
+            });
+            fail("exception expected");
+        } catch (IllegalStateException e) {
+            assertEquals(0, concurrencyLimiter.getLimit(SERVICE_ID)
+                .getInFlight());
+        }
+    }
+
+    @Test
+    public void thatServletFilterDoesNotReleasePermitTwice() throws Exception {
+
+        ConcurrencyLimitServletFilter servletFilter = new ConcurrencyLimitServletFilter();
+
+        servletFilter.doFilter(new MockHttpServletRequest(), new MockHttpServletResponse(), (request, response) -> {
+            filter.run();
+            releaseFilter.run();
+        });
+
+        assertEquals(0, concurrencyLimiter.getLimit(SERVICE_ID)
+            .getInFlight());
+    }
+
+    // endregion
+}
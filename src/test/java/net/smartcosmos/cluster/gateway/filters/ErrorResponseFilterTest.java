@@ -0,0 +1,105 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+import org.junit.*;
+import org.springframework.http.HttpHeaders;
+
+import net.smartcosmos.cluster.gateway.domain.ErrorResponse;
+import net.smartcosmos.cluster.gateway.resource.RoutingErrorHandler;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.MediaType.APPLICATION_JSON_UTF8_VALUE;
+
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_STATUS_CODE;
+
+public class ErrorResponseFilterTest {
+
+    private RoutingErrorHandler routingErrorHandler;
+
+    private HttpServletResponse response;
+
+    private ErrorResponseFilter filter;
+
+    private RequestContext ctx;
+
+    @Before
+    public void setUp() {
+
+        routingErrorHandler = mock(RoutingErrorHandler.class);
+        response = mock(HttpServletResponse.class);
+        filter = new ErrorResponseFilter(routingErrorHandler);
+
+        RequestContext.getCurrentContext()
+            .unset();
+        ctx = RequestContext.getCurrentContext();
+        ctx.setRequest(mock(HttpServletRequest.class));
+        ctx.setResponse(response);
+    }
+
+    @After
+    public void tearDown() {
+
+        RequestContext.getCurrentContext()
+            .unset();
+    }
+
+    @Test
+    public void thatSuccessfulRequestIsNotFiltered() {
+
+        assertFalse(filter.shouldFilter());
+    }
+
+    @Test
+    public void thatRoutingFailureIsFiltered() {
+
+        ctx.set(ATTR_ERROR_STATUS_CODE, 500);
+
+        assertTrue(filter.shouldFilter());
+    }
+
+    @Test
+    public void thatErrorResponseIsWrittenWithoutForward() {
+
+        ctx.set(ATTR_ERROR_STATUS_CODE, 500);
+        doReturn(ErrorResponse.builder()
+                     .timestamp(0L)
+                     .status(GATEWAY_TIMEOUT.value())
+                     .error(GATEWAY_TIMEOUT.getReasonPhrase())
+                     .message("Read timed out")
+                     .path("/things/1")
+                     .build()).when(routingErrorHandler)
+            .handle(ctx);
+
+        filter.run();
+
+        assertEquals(GATEWAY_TIMEOUT.value(), ctx.getResponseStatusCode());
+        assertTrue(ctx.getZuulResponseHeaders()
+                       .contains(new Pair<>(HttpHeaders.CONTENT_TYPE, APPLICATION_JSON_UTF8_VALUE)));
+        assertTrue(ctx.getResponseBody()
+                       .endsWith(",\"status\":504,\"error\":\"Gateway Timeout\",\"message\":\"Read timed out\",\"path\":\"/things/1\"}"));
+
+        // the SendErrorFilter doesn't forward to the error controller anymore
+        assertTrue(ctx.getBoolean(ErrorResponseFilter.CTX_SEND_ERROR_FILTER_RAN));
+        assertFalse(filter.shouldFilter());
+    }
+
+    @Test
+    public void thatAlreadyHandledErrorIsNotFilteredAgain() {
+
+        ctx.set(ATTR_ERROR_STATUS_CODE, 500);
+        ctx.set(ErrorResponseFilter.CTX_SEND_ERROR_FILTER_RAN, true);
+
+        assertFalse(filter.shouldFilter());
+        verify(routingErrorHandler, never()).handle(any(RequestContext.class));
+    }
+}
@@ -0,0 +1,104 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.util.Collections;
+import java.util.Map;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.zuul.context.RequestContext;
+import org.junit.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+
+import net.smartcosmos.cluster.gateway.security.KeySetUnavailableException;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JwtValidationFilterTest {
+
+    private TokenClaimsCache tokenClaimsCache;
+
+    private HttpServletRequest request;
+
+    private JwtValidationFilter filter;
+
+    private RequestContext ctx;
+
+    @Before
+    public void setUp() {
+
+        tokenClaimsCache = mock(TokenClaimsCache.class);
+        request = mock(HttpServletRequest.class);
+        filter = new JwtValidationFilter(tokenClaimsCache);
+
+        RequestContext.getCurrentContext()
+            .unset();
+        ctx = RequestContext.getCurrentContext();
+        ctx.setRequest(request);
+        ctx.setResponse(mock(HttpServletResponse.class));
+    }
+
+    @After
+    public void tearDown() {
+
+        RequestContext.getCurrentContext()
+            .unset();
+    }
+
+    @Test
+    public void thatOnlyBearerRequestsAreFiltered() {
+
+        assertFalse(filter.shouldFilter());
+
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Basic dXNlcjpwYXNzd29yZA==");
+        assertFalse(filter.shouldFilter());
+
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
+        assertTrue(filter.shouldFilter());
+    }
+
+    @Test
+    public void thatClaimsOfValidTokenAreAttached() {
+
+        Map<String, Object> claims = Collections.singletonMap("user_name", "user");
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
+        when(tokenClaimsCache.getVerifiedClaims(eq("token"))).thenReturn(claims);
+
+        filter.run();
+
+        assertTrue(ctx.sendZuulResponse());
+        assertSame(claims, ctx.get(JwtValidationFilter.CTX_TOKEN_CLAIMS));
+    }
+
+    @Test
+    public void thatInvalidTokenIsRejected() {
+
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
+        when(tokenClaimsCache.getVerifiedClaims(eq("token"))).thenThrow(new InvalidTokenException("Token expired"));
+
+        filter.run();
+
+        assertFalse(ctx.sendZuulResponse());
+        assertEquals(401, ctx.getResponseStatusCode());
+        assertNull(ctx.get(JwtValidationFilter.CTX_TOKEN_CLAIMS));
+    }
+
+    @Test
+    public void thatUnavailableKeySetIsAnsweredWithServiceUnavailable() {
+
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer token");
+        when(tokenClaimsCache.getVerifiedClaims(eq("token"))).thenThrow(new KeySetUnavailableException("JSON Web Key Set unavailable"));
+
+        filter.run();
+
+        assertFalse(ctx.sendZuulResponse());
+        assertEquals(503, ctx.getResponseStatusCode());
+        assertTrue(ctx.getResponseBody()
+                       .contains("\"message\":\"Token validation unavailable\""));
+        assertNull(ctx.get(JwtValidationFilter.CTX_TOKEN_CLAIMS));
+    }
+}
@@ -0,0 +1,133 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.netflix.zuul.context.RequestContext;
+import org.junit.*;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+
+import net.smartcosmos.cluster.gateway.cache.RouteClassificationCache;
+import net.smartcosmos.cluster.gateway.config.PreAuthorizationFilterProperties;
+import net.smartcosmos.cluster.gateway.domain.ErrorResponse;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.NOT_FOUND;
+
+public class NotFoundFilterTest {
+
+    private static final Route NOT_FOUND_ROUTE = new Route("not-found", "/random/path", "forward:/notFound", "", false, null);
+    private static final Route PROXIED_ROUTE = new Route("things", "/1", "smartcosmos-things", "/things", false, null);
+
+    private RouteLocator routeLocator;
+
+    private HttpServletRequest request;
+
+    private NotFoundFilter filter;
+
+    private RequestContext ctx;
+
+    @Before
+    public void setUp() {
+
+        routeLocator = mock(RouteLocator.class);
+        request = mock(HttpServletRequest.class);
+        when(request.getContextPath()).thenReturn("");
+        filter = new NotFoundFilter(new RouteClassificationCache(routeLocator, new PreAuthorizationFilterProperties()));
+
+        RequestContext.getCurrentContext()
+            .unset();
+        ctx = RequestContext.getCurrentContext();
+        ctx.setRequest(request);
+        ctx.setResponse(mock(HttpServletResponse.class));
+    }
+
+    @After
+    public void tearDown() {
+
+        RequestContext.getCurrentContext()
+            .unset();
+    }
+
+    @Test
+    public void thatProxiedRouteIsNotAnswered() {
+
+        when(request.getRequestURI()).thenReturn("/things/1");
+        when(routeLocator.getMatchingRoute(eq("/things/1"))).thenReturn(PROXIED_ROUTE);
+
+        assertTrue(filter.shouldFilter());
+        filter.run();
+
+        assertTrue(ctx.sendZuulResponse());
+        assertNull(ctx.getResponseBody());
+        assertFalse(ctx.containsKey("forward.to"));
+        assertFalse(ctx.getBoolean(NotFoundFilter.CTX_SEND_FORWARD_FILTER_RAN));
+    }
+
+    @Test
+    public void thatNotFoundRouteIsAnsweredLikeNotFoundController() throws Exception {
+
+        when(request.getRequestURI()).thenReturn("/random/path");
+        when(routeLocator.getMatchingRoute(eq("/random/path"))).thenReturn(NOT_FOUND_ROUTE);
+
+        filter.run();
+
+        assertFalse(ctx.sendZuulResponse());
+        assertTrue(ctx.getBoolean(NotFoundFilter.CTX_SEND_FORWARD_FILTER_RAN));
+        assertEquals(NOT_FOUND.value(), ctx.getResponseStatusCode());
+
+        String body = ctx.getResponseBody();
+        ObjectMapper objectMapper = new ObjectMapper();
+        long timestamp = objectMapper.readTree(body)
+            .get("timestamp")
+            .asLong();
+        String expected = objectMapper.writeValueAsString(ErrorResponse.builder()
+                                                              .timestamp(timestamp)
+                                                              .status(NOT_FOUND.value())
+                                                              .error(NOT_FOUND.getReasonPhrase())
+                                                              .path("/random/path")
+                                                              .build());
+        assertEquals(expected, body);
+    }
+
+    @Test
+    public void thatUnmatchedRequestIsAnswered() {
+
+        when(request.getRequestURI()).thenReturn("/unknown");
+
+        filter.run();
+
+        assertFalse(ctx.sendZuulResponse());
+        assertEquals(NOT_FOUND.value(), ctx.getResponseStatusCode());
+        assertTrue(ctx.getResponseBody()
+                       .endsWith(",\"path\":\"/unknown\"}"));
+    }
+
+    @Test
+    public void thatRouteIsLookedUpOncePerPath() {
+
+        when(request.getRequestURI()).thenReturn("/things/1");
+        when(routeLocator.getMatchingRoute(eq("/things/1"))).thenReturn(PROXIED_ROUTE);
+
+        filter.run();
+        filter.run();
+
+        verify(routeLocator, times(1)).getMatchingRoute(anyString());
+    }
+
+    @Test
+    public void thatAnsweredRequestIsNotFiltered() {
+
+        ctx.setSendZuulResponse(false);
+
+        assertFalse(filter.shouldFilter());
+    }
+}
@@ -4,6 +4,7 @@ import javax.servlet.http.HttpServletRequest;
 
 import ch.qos.logback.classic.spi.LoggingEvent;
 import ch.qos.logback.core.Appender;
+import com.netflix.zuul.context.RequestContext;
 
 import org.apache.commons.lang.ArrayUtils;
 import org.junit.*;
@@ -16,6 +17,9 @@ import org.springframework.http.HttpStatus;
 import org.springframework.security.authentication.BadCredentialsException;
 
 import net.smartcosmos.cluster.gateway.AuthenticationClient;
+import net.smartcosmos.cluster.gateway.AuthenticationServerUnavailableException;
+import net.smartcosmos.cluster.gateway.cache.RejectedCredentialsCache;
+import net.smartcosmos.cluster.gateway.cache.RouteClassificationCache;
 
 import static ch.qos.logback.classic.Level.WARN;
 import static org.junit.Assert.*;
@@ -23,10 +27,12 @@ import static org.mockito.Matchers.any;
 import static org.mockito.Matchers.eq;
 import static org.mockito.Mockito.doNothing;
 import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.never;
 import static org.mockito.Mockito.reset;
 import static org.mockito.Mockito.times;
 import static org.mockito.Mockito.verify;
 import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
 import static org.springframework.http.HttpStatus.UNAUTHORIZED;
 
 @SuppressWarnings("unchecked")
@@ -39,6 +45,12 @@ public class PreAuthorizationFilterTest {
     @Mock
     AuthenticationClient authenticationClient;
 
+    @Mock
+    RejectedCredentialsCache rejectedCredentialsCache;
+
+    @Mock
+    RouteClassificationCache routeClassificationCache;
+
     @Spy
     @InjectMocks
     PreAuthorizationFilter filter;
@@ -65,7 +77,9 @@ public class PreAuthorizationFilterTest {
     @After
     public void tearDown() {
 
-        reset(properties, authenticationClient, mockAppender);
+        reset(properties, authenticationClient, rejectedCredentialsCache, routeClassificationCache, mockAppender);
+        RequestContext.getCurrentContext()
+            .unset();
     }
 
     @Test
@@ -279,6 +293,114 @@ public class PreAuthorizationFilterTest {
         verify(filter, times(1)).setErrorResponse(eq(UNAUTHORIZED), eq("Access Denied"));
     }
 
+    @Test
+    public void thatRunCallsSetErrorResponseInCaseOfAuthenticationServerUnavailableException() {
+
+        final String username = "someUser";
+        final String password = "someArbitraryTestingPassw0rd";
+
+        doReturn(new String[] { username, password }).when(filter)
+            .getAuthenticationCredentials();
+
+        when(authenticationClient.getOauthToken(eq(username), eq(password))).thenThrow(new AuthenticationServerUnavailableException("timeout"));
+        doNothing().when(filter)
+            .setErrorResponse(any(), any());
+
+        filter.run();
+
+        verify(filter, times(1)).setErrorResponse(eq(SERVICE_UNAVAILABLE), eq("Authentication service unavailable"));
+    }
+
+    @Test
+    public void thatRunRejectsLocallyWithoutCallingAuthServer() {
+
+        final String username = "someUser";
+        final String password = "someArbitraryTestingPassw0rd";
+        final String key = "someKey";
+
+        doReturn(new String[] { username, password }).when(filter)
+            .getAuthenticationCredentials();
+        when(rejectedCredentialsCache.getKey(eq(username), eq(password))).thenReturn(key);
+        when(rejectedCredentialsCache.isRejected(eq(key), any())).thenReturn(true);
+        doNothing().when(filter)
+            .setErrorResponse(any(), any());
+
+        filter.run();
+
+        verify(filter, times(1)).setErrorResponse(eq(UNAUTHORIZED), eq("Access Denied"));
+        verify(authenticationClient, never()).getOauthToken(any(), any());
+    }
+
+    @Test
+    public void thatRunRecordsFailureInCaseOfBadCredentialsException() {
+
+        final String username = "someUser";
+        final String password = "someArbitraryTestingPassw0rd";
+        final String key = "someKey";
+        final String address = "10.0.0.1";
+
+        doReturn(new String[] { username, password }).when(filter)
+            .getAuthenticationCredentials();
+        when(rejectedCredentialsCache.getKey(eq(username), eq(password))).thenReturn(key);
+        when(request.getRemoteAddr()).thenReturn(address);
+        when(rejectedCredentialsCache.getClientAddress(eq(address), any())).thenReturn(address);
+        when(authenticationClient.getOauthToken(eq(username), eq(password))).thenThrow(new BadCredentialsException("someException"));
+        doNothing().when(filter)
+            .setErrorResponse(any(), any());
+
+        filter.run();
+
+        verify(rejectedCredentialsCache, times(1)).recordFailure(eq(key), eq(address));
+    }
+
+    // endregion
+
+    // region shouldFilter()
+
+    @Test
+    public void thatShouldFilterSkipsRouteLookupWithoutBasicAuth() {
+
+        doReturn(null).when(filter)
+            .getBasicAuthenticationCredentials();
+
+        assertFalse(filter.shouldFilter());
+        verify(routeClassificationCache, never()).isForwardingRoute(any());
+    }
+
+    @Test
+    public void thatShouldFilterSkipsForwardingRoutes() {
+
+        doReturn(BasicAuthenticationCredentials.parse("Basic dXNlcjpwYXNzd29yZA==")).when(filter)
+            .getBasicAuthenticationCredentials();
+        when(request.getContextPath()).thenReturn("");
+        when(request.getRequestURI()).thenReturn("/local/test");
+        when(routeClassificationCache.isForwardingRoute(any())).thenReturn(true);
+
+        assertFalse(filter.shouldFilter());
+    }
+
+    @Test
+    public void thatShouldFilterSkipsAnsweredRequests() {
+
+        RequestContext.getCurrentContext()
+            .setSendZuulResponse(false);
+
+        assertFalse(filter.shouldFilter());
+        verify(routeClassificationCache, never()).isForwardingRoute(any());
+    }
+
+    @Test
+    public void thatShouldFilterAcceptsBasicAuthOnProxiedRoutes() {
+
+        doReturn(BasicAuthenticationCredentials.parse("Basic dXNlcjpwYXNzd29yZA==")).when(filter)
+            .getBasicAuthenticationCredentials();
+        when(request.getContextPath()).thenReturn("");
+        when(request.getRequestURI()).thenReturn("/things/test");
+        when(routeClassificationCache.isForwardingRoute(any())).thenReturn(false);
+
+        assertTrue(filter.shouldFilter());
+    }
+
     // endregion
 
     // region getResponseBody()
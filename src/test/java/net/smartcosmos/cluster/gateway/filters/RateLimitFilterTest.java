@@ -0,0 +1,205 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.util.Collections;
+
+import javax.servlet.http.HttpServletRequest;
+import javax.servlet.http.HttpServletResponse;
+
+import com.netflix.util.Pair;
+import com.netflix.zuul.context.RequestContext;
+import org.junit.*;
+import org.springframework.http.HttpHeaders;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.MacSigner;
+
+import net.smartcosmos.cluster.gateway.config.RateLimitProperties;
+import net.smartcosmos.cluster.gateway.limit.RateLimitStore;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class RateLimitFilterTest {
+
+    private static final String TENANT_URN = "urn:tenant:uuid:1";
+    private static final String USER_URN = "urn:user:uuid:2";
+
+    private RateLimitProperties properties;
+
+    private RateLimitStore rateLimitStore;
+
+    private HttpServletRequest request;
+
+    private RateLimitFilter filter;
+
+    private RequestContext ctx;
+
+    @Before
+    public void setUp() {
+
+        properties = new RateLimitProperties();
+        rateLimitStore = mock(RateLimitStore.class);
+        request = mock(HttpServletRequest.class);
+        filter = new RateLimitFilter(properties, rateLimitStore);
+
+        RequestContext.getCurrentContext()
+            .unset();
+        ctx = RequestContext.getCurrentContext();
+        ctx.setRequest(request);
+        ctx.setResponse(mock(HttpServletResponse.class));
+    }
+
+    @After
+    public void tearDown() {
+
+        RequestContext.getCurrentContext()
+            .unset();
+    }
+
+    private static String token(String claims) {
+
+        return JwtHelper.encode(claims, new MacSigner("secret"))
+            .getEncoded();
+    }
+
+    @Test
+    public void thatRequestWithoutBearerTokenIsNotFiltered() {
+
+        assertFalse(filter.shouldFilter());
+
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Basic dXNlcjpwYXNzd29yZA==");
+        assertFalse(filter.shouldFilter());
+    }
+
+    @Test
+    public void thatTokenAddedByPreAuthorizationFilterIsUsed() {
+
+        ctx.addZuulRequestHeader(HttpHeaders.AUTHORIZATION, "Bearer abc");
+
+        assertTrue(filter.shouldFilter());
+        assertEquals("abc", filter.getBearerToken());
+    }
+
+    @Test
+    public void thatTenantAndUserAreLimited() {
+
+        ctx.addZuulRequestHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token(
+            "{\"user_name\":\"user\",\"tenantUrn\":\"" + TENANT_URN + "\",\"authorities\":[\"a\"],\"userUrn\":\"" + USER_URN + "\"}"));
+
+        filter.run();
+
+        verify(rateLimitStore).tryConsume(eq("tenant:" + TENANT_URN), eq(properties.getTenant()));
+        verify(rateLimitStore).tryConsume(eq("user:" + USER_URN), eq(properties.getUser()));
+        assertTrue(ctx.sendZuulResponse());
+    }
+
+    @Test
+    public void thatTenantTokenIsRefundedIfUserIsThrottled() {
+
+        ctx.addZuulRequestHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token(
+            "{\"tenantUrn\":\"" + TENANT_URN + "\",\"userUrn\":\"" + USER_URN + "\"}"));
+        when(rateLimitStore.tryConsume(eq("user:" + USER_URN), any(RateLimitProperties.Bucket.class))).thenReturn(1000L);
+
+        filter.run();
+
+        assertEquals(429, ctx.getResponseStatusCode());
+        verify(rateLimitStore).refund(eq("tenant:" + TENANT_URN), eq(properties.getTenant()));
+    }
+
+    @Test
+    public void thatTenantTokenIsNotRefundedIfTenantIsThrottled() {
+
+        ctx.addZuulRequestHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token(
+            "{\"tenantUrn\":\"" + TENANT_URN + "\",\"userUrn\":\"" + USER_URN + "\"}"));
+        when(rateLimitStore.tryConsume(eq("tenant:" + TENANT_URN), any(RateLimitProperties.Bucket.class))).thenReturn(1000L);
+
+        filter.run();
+
+        verify(rateLimitStore, never()).tryConsume(eq("user:" + USER_URN), any(RateLimitProperties.Bucket.class));
+        verify(rateLimitStore, never()).refund(anyString(), any(RateLimitProperties.Bucket.class));
+    }
+
+    @Test
+    public void thatVerifiedClaimsAreUsed() {
+
+        ctx.set(JwtValidationFilter.CTX_TOKEN_CLAIMS, Collections.singletonMap("tenantUrn", TENANT_URN));
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer not-decoded");
+
+        filter.run();
+
+        verify(rateLimitStore).tryConsume(eq("tenant:" + TENANT_URN), eq(properties.getTenant()));
+    }
+
+    @Test
+    public void thatClaimsOfUnverifiedTokenAreNotUsed() {
+
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer " + token(
+            "{\"tenantUrn\":\"" + TENANT_URN + "\",\"userUrn\":\"" + USER_URN + "\"}"));
+
+        filter.run();
+
+        verify(rateLimitStore).tryConsume(eq("address:10.0.0.1"), eq(properties.getAddress()));
+        verify(rateLimitStore, never()).tryConsume(eq("tenant:" + TENANT_URN), any(RateLimitProperties.Bucket.class));
+        verify(rateLimitStore, never()).tryConsume(eq("user:" + USER_URN), any(RateLimitProperties.Bucket.class));
+    }
+
+    @Test
+    public void thatExceededLimitIsAnsweredWithTooManyRequests() {
+
+        ctx.addZuulRequestHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token("{\"tenantUrn\":\"" + TENANT_URN + "\"}"));
+        when(rateLimitStore.tryConsume(anyString(), any(RateLimitProperties.Bucket.class))).thenReturn(1500L);
+
+        filter.run();
+
+        assertFalse(ctx.sendZuulResponse());
+        assertEquals(429, ctx.getResponseStatusCode());
+        assertTrue(ctx.getZuulResponseHeaders()
+                       .contains(new Pair<>(HttpHeaders.RETRY_AFTER, "2")));
+        assertTrue(ctx.getResponseBody()
+                       .contains("\"message\":\"Rate limit exceeded\""));
+    }
+
+    @Test
+    public void thatDisabledBucketIsNotConsulted() {
+
+        properties.getUser()
+            .setCapacity(0);
+        ctx.addZuulRequestHeader(HttpHeaders.AUTHORIZATION, "Bearer " + token("{\"userUrn\":\"" + USER_URN + "\"}"));
+
+        filter.run();
+
+        verify(rateLimitStore, never()).tryConsume(anyString(), any(RateLimitProperties.Bucket.class));
+    }
+
+    @Test
+    public void thatInvalidTokenIsLimitedByAddress() {
+
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer not-a-jwt");
+
+        filter.run();
+
+        verify(rateLimitStore).tryConsume(eq("address:10.0.0.1"), eq(properties.getAddress()));
+        assertTrue(ctx.sendZuulResponse());
+    }
+
+    @Test
+    public void thatDisabledAddressBucketIsNotConsulted() {
+
+        properties.getAddress()
+            .setCapacity(0);
+        when(request.getRemoteAddr()).thenReturn("10.0.0.1");
+        when(request.getHeader(HttpHeaders.AUTHORIZATION)).thenReturn("Bearer not-a-jwt");
+
+        filter.run();
+
+        verify(rateLimitStore, never()).tryConsume(anyString(), any(RateLimitProperties.Bucket.class));
+        assertTrue(ctx.sendZuulResponse());
+    }
+}
@@ -0,0 +1,155 @@
+package net.smartcosmos.cluster.gateway.filters;
+
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+import org.springframework.boot.actuate.metrics.Metric;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+
+import net.smartcosmos.cluster.gateway.config.JwtValidationProperties;
+import net.smartcosmos.cluster.gateway.security.KeySetUnavailableException;
+import net.smartcosmos.cluster.gateway.security.TokenVerifier;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenClaimsCacheTest {
+
+    private JwtValidationProperties properties;
+
+    private TokenVerifier tokenVerifier;
+
+    private TokenClaimsCache claimsCache;
+
+    @Before
+    public void setUp() {
+
+        properties = new JwtValidationProperties();
+        tokenVerifier = mock(TokenVerifier.class);
+        claimsCache = new TokenClaimsCache(tokenVerifier, properties);
+    }
+
+    private static Map<String, Object> claimsExpiringIn(long seconds) {
+
+        return Collections.singletonMap("exp", TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + seconds);
+    }
+
+    @Test
+    public void thatRepeatedTokenIsVerifiedOnce() {
+
+        Map<String, Object> claims = claimsExpiringIn(60);
+        when(tokenVerifier.verify(eq("token"))).thenReturn(claims);
+
+        assertSame(claims, claimsCache.getVerifiedClaims("token"));
+        assertSame(claims, claimsCache.getVerifiedClaims("token"));
+        assertSame(claims, claimsCache.getVerifiedClaims("token"));
+
+        verify(tokenVerifier, times(1)).verify(anyString());
+    }
+
+    @Test
+    public void thatExpiredClaimsAreVerifiedAgain() {
+
+        when(tokenVerifier.verify(eq("token"))).thenReturn(claimsExpiringIn(-1))
+            .thenThrow(new InvalidTokenException("Token expired"));
+
+        claimsCache.getVerifiedClaims("token");
+        try {
+            claimsCache.getVerifiedClaims("token");
+            fail("Expired token accepted from cache");
+        } catch (InvalidTokenException e) {
+            verify(tokenVerifier, times(2)).verify(anyString());
+        }
+    }
+
+    @Test
+    public void thatInvalidTokenIsNotCached() {
+
+        when(tokenVerifier.verify(eq("token"))).thenThrow(new InvalidTokenException("Invalid token signature"));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                claimsCache.getVerifiedClaims("token");
+                fail("Invalid token accepted");
+            } catch (InvalidTokenException e) {
+                // expected
+            }
+        }
+        verify(tokenVerifier, times(2)).verify(anyString());
+    }
+
+    @Test
+    public void thatChangedKeySetInvalidatesClaims() {
+
+        when(tokenVerifier.verify(eq("token"))).thenReturn(claimsExpiringIn(60));
+
+        claimsCache.getVerifiedClaims("token");
+        claimsCache.getVerifiedClaims("token");
+        when(tokenVerifier.getKeySetVersion()).thenReturn(1);
+        claimsCache.getVerifiedClaims("token");
+        claimsCache.getVerifiedClaims("token");
+
+        verify(tokenVerifier, times(2)).verify(anyString());
+    }
+
+    @Test
+    public void thatUnavailableKeySetIsNotCached() {
+
+        Map<String, Object> claims = claimsExpiringIn(60);
+        when(tokenVerifier.verify(eq("token"))).thenThrow(new KeySetUnavailableException("JSON Web Key Set unavailable"))
+            .thenReturn(claims);
+
+        try {
+            claimsCache.getVerifiedClaims("token");
+            fail("Token verified without key set");
+        } catch (KeySetUnavailableException e) {
+            // expected
+        }
+        assertSame(claims, claimsCache.getVerifiedClaims("token"));
+    }
+
+    @Test
+    public void thatDisabledCacheVerifiesEveryToken() {
+
+        properties.getClaimsCache()
+            .setEnabled(false);
+        claimsCache = new TokenClaimsCache(tokenVerifier, properties);
+        when(tokenVerifier.verify(eq("token"))).thenReturn(claimsExpiringIn(60));
+
+        claimsCache.getVerifiedClaims("token");
+        claimsCache.getVerifiedClaims("token");
+
+        verify(tokenVerifier, times(2)).verify(anyString());
+    }
+
+    @Test
+    public void thatFingerprintDiffersPerToken() {
+
+        assertEquals(TokenClaimsCache.getFingerprint("a.b.c"), TokenClaimsCache.getFingerprint("a.b.c"));
+        assertNotEquals(TokenClaimsCache.getFingerprint("a.b.c"), TokenClaimsCache.getFingerprint("a.b.d"));
+    }
+
+    @Test
+    public void thatHitsAndMissesArePublished() {
+
+        when(tokenVerifier.verify(eq("token"))).thenReturn(claimsExpiringIn(60));
+
+        claimsCache.getVerifiedClaims("token");
+        claimsCache.getVerifiedClaims("token");
+
+        for (Metric<?> metric : claimsCache.metrics()) {
+            if (metric.getName()
+                .endsWith(".hit-ratio")) {
+                assertEquals(0.5, metric.getValue()
+                    .doubleValue(), 0.0);
+            }
+        }
+    }
+}
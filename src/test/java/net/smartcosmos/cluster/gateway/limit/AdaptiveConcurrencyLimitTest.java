@@ -0,0 +1,153 @@
+package net.smartcosmos.cluster.gateway.limit;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+
+import net.smartcosmos.cluster.gateway.config.ConcurrencyLimitProperties;
+
+import static org.junit.Assert.*;
+
+public class AdaptiveConcurrencyLimitTest {
+
+    private static final long LATENCY = TimeUnit.MILLISECONDS.toNanos(10);
+
+    private ConcurrencyLimitProperties properties;
+
+    @Before
+    public void setUp() {
+
+        properties = new ConcurrencyLimitProperties();
+        properties.setInitialLimit(10);
+        properties.setMinLimit(2);
+        properties.setMaxLimit(20);
+    }
+
+    @Test
+    public void thatRequestsAboveLimitAreRejected() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        for (int i = 0; i < 10; i++) {
+            assertTrue(limit.tryAcquire());
+        }
+        assertFalse(limit.tryAcquire());
+        assertFalse(limit.tryAcquire());
+
+        assertEquals(10, limit.getInFlight());
+        assertEquals(2, limit.getRejectedCount());
+    }
+
+    @Test
+    public void thatLimitIncreasesIfUsedAndLatencyIsStable() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        for (int i = 0; i < 10; i++) {
+            limit.tryAcquire();
+        }
+        limit.release(LATENCY, false);
+
+        assertEquals(11, limit.getLimit());
+        assertEquals(9, limit.getInFlight());
+    }
+
+    @Test
+    public void thatLimitIsNotIncreasedIfMostlyUnused() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        limit.tryAcquire();
+        limit.release(LATENCY, false);
+
+        assertEquals(10, limit.getLimit());
+    }
+
+    @Test
+    public void thatLimitDecreasesOnFailure() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        limit.tryAcquire();
+        limit.release(LATENCY, true);
+
+        assertEquals(9, limit.getLimit());
+    }
+
+    @Test
+    public void thatLimitDecreasesOnLatencyIncrease() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+
+        limit.tryAcquire();
+        limit.release(LATENCY, false);
+        limit.tryAcquire();
+        limit.release(LATENCY * 3, false);
+
+        assertEquals(9, limit.getLimit());
+    }
+
+    @Test
+    public void thatLimitDecreasesAtMostOncePerAverageLatency() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        long now = 0;
+
+        limit.tryAcquire();
+        limit.release(LATENCY, false, now);
+        for (int i = 0; i < 5; i++) {
+            limit.tryAcquire();
+            limit.release(LATENCY * 3, false, now);
+        }
+        assertEquals(9, limit.getLimit());
+
+        now += LATENCY * 2;
+        limit.tryAcquire();
+        limit.release(LATENCY, true, now);
+        assertEquals(8, limit.getLimit());
+    }
+
+    @Test
+    public void thatSlowRequestsOfMixedEndpointsDoNotDriveLimitDown() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        long now = 0;
+        int requests = 0;
+
+        // every third request goes to a slow endpoint, all requests of a round complete within one interactive latency
+        for (int round = 0; round < 200; round++) {
+            int acquired = 0;
+            while (acquired < 15 && limit.tryAcquire()) {
+                acquired++;
+            }
+            for (int i = 0; i < acquired; i++) {
+                limit.release(++requests % 3 == 0 ? LATENCY * 50 : LATENCY, false, now);
+            }
+            now += LATENCY;
+        }
+
+        assertTrue(limit.getLimit() >= properties.getInitialLimit());
+    }
+
+    @Test
+    public void thatLimitStaysWithinBounds() {
+
+        AdaptiveConcurrencyLimit limit = new AdaptiveConcurrencyLimit(properties);
+        long now = 0;
+
+        for (int i = 0; i < 100; i++) {
+            limit.tryAcquire();
+            limit.release(LATENCY, true, now);
+            now += LATENCY;
+        }
+        assertEquals(2, limit.getLimit());
+
+        for (int i = 0; i < 100; i++) {
+            while (limit.tryAcquire()) {
+                // fill up the limit
+            }
+            limit.release(LATENCY, false);
+        }
+        assertEquals(20, limit.getLimit());
+    }
+}
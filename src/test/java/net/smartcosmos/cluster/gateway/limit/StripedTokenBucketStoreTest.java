@@ -0,0 +1,105 @@
+package net.smartcosmos.cluster.gateway.limit;
+
+import java.util.concurrent.TimeUnit;
+
+import com.google.common.base.Ticker;
+import org.junit.*;
+
+import net.smartcosmos.cluster.gateway.config.RateLimitProperties;
+
+import static org.junit.Assert.*;
+
+public class StripedTokenBucketStoreTest {
+
+    private static final RateLimitProperties.Bucket BUCKET = new RateLimitProperties.Bucket(3, 2);
+
+    private long now;
+
+    private StripedTokenBucketStore store;
+
+    @Before
+    public void setUp() {
+
+        now = TimeUnit.HOURS.toNanos(1);
+        store = new StripedTokenBucketStore(new RateLimitProperties(), new Ticker() {
+
+            @Override
+            public long read() {
+
+                return now;
+            }
+        });
+    }
+
+    @Test
+    public void thatBurstUpToCapacityIsAllowed() {
+
+        assertEquals(0, store.tryConsume("key", BUCKET));
+        assertEquals(0, store.tryConsume("key", BUCKET));
+        assertEquals(0, store.tryConsume("key", BUCKET));
+        assertEquals(500, store.tryConsume("key", BUCKET));
+    }
+
+    @Test
+    public void thatBucketIsRefilled() {
+
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("key", BUCKET);
+        }
+
+        now += TimeUnit.MILLISECONDS.toNanos(250);
+        assertEquals(250, store.tryConsume("key", BUCKET));
+
+        now += TimeUnit.MILLISECONDS.toNanos(250);
+        assertEquals(0, store.tryConsume("key", BUCKET));
+        assertEquals(500, store.tryConsume("key", BUCKET));
+    }
+
+    @Test
+    public void thatBucketIsNotFilledAboveCapacity() {
+
+        store.tryConsume("key", BUCKET);
+        now += TimeUnit.MINUTES.toNanos(10);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, store.tryConsume("key", BUCKET));
+        }
+        assertTrue(store.tryConsume("key", BUCKET) > 0);
+    }
+
+    @Test
+    public void thatBucketsAreIndependent() {
+
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("tenant:a", BUCKET);
+        }
+
+        assertTrue(store.tryConsume("tenant:a", BUCKET) > 0);
+        assertEquals(0, store.tryConsume("tenant:b", BUCKET));
+    }
+
+    @Test
+    public void thatRefundedTokenCanBeConsumedAgain() {
+
+        for (int i = 0; i < 3; i++) {
+            store.tryConsume("key", BUCKET);
+        }
+
+        store.refund("key", BUCKET);
+        assertEquals(0, store.tryConsume("key", BUCKET));
+        assertEquals(500, store.tryConsume("key", BUCKET));
+    }
+
+    @Test
+    public void thatRefundDoesNotFillBucketAboveCapacity() {
+
+        store.tryConsume("key", BUCKET);
+        store.refund("key", BUCKET);
+        store.refund("key", BUCKET);
+
+        for (int i = 0; i < 3; i++) {
+            assertEquals(0, store.tryConsume("key", BUCKET));
+        }
+        assertTrue(store.tryConsume("key", BUCKET) > 0);
+    }
+}
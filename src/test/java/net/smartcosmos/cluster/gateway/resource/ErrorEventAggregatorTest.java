@@ -0,0 +1,125 @@
+package net.smartcosmos.cluster.gateway.resource;
+
+import java.net.SocketTimeoutException;
+import java.util.HashMap;
+import java.util.Map;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.netflix.client.ClientException;
+import org.junit.*;
+import org.mockito.ArgumentCaptor;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import net.smartcosmos.cluster.gateway.config.ErrorLoggingProperties;
+
+import static ch.qos.logback.classic.Level.WARN;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+
+@SuppressWarnings("unchecked")
+public class ErrorEventAggregatorTest {
+
+    private ErrorEventAggregator aggregator;
+
+    private Appender mockAppender;
+
+    @Before
+    public void setUp() {
+
+        ErrorLoggingProperties properties = new ErrorLoggingProperties();
+        properties.setSamplesPerInterval(2);
+        properties.setMaximumKeys(2);
+        aggregator = new ErrorEventAggregator(properties);
+
+        mockAppender = mock(Appender.class);
+        when(mockAppender.getName()).thenReturn("MOCK");
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME)).addAppender(mockAppender);
+    }
+
+    @After
+    public void tearDown() {
+
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME)).detachAppender(mockAppender);
+        aggregator.destroy();
+    }
+
+    private Map<String, Number> metrics() {
+
+        Map<String, Number> metrics = new HashMap<>();
+        for (Metric<?> metric : aggregator.metrics()) {
+            metrics.put(metric.getName(), metric.getValue());
+        }
+        return metrics;
+    }
+
+    @Test
+    public void thatOnlyFirstFailuresOfIntervalAreSampled() {
+
+        assertTrue(aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new SocketTimeoutException()));
+        assertTrue(aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new SocketTimeoutException()));
+        assertFalse(aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new SocketTimeoutException()));
+
+        aggregator.logSummary();
+
+        assertTrue(aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new SocketTimeoutException()));
+    }
+
+    @Test
+    public void thatFailuresAreCountedPerServiceStatusAndException() {
+
+        aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new SocketTimeoutException());
+        aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new SocketTimeoutException());
+        aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new ClientException("down"));
+
+        Map<String, Number> metrics = metrics();
+        assertEquals(3L, metrics.get("gateway.errors.total"));
+        assertEquals(2L, metrics.get("gateway.errors.smartcosmos-things.500.SocketTimeoutException"));
+        assertEquals(1L, metrics.get("gateway.errors.smartcosmos-things.500.ClientException"));
+    }
+
+    @Test
+    public void thatCombinationsAboveMaximumAreCountedAsOther() {
+
+        aggregator.record("a", "service-a", INTERNAL_SERVER_ERROR, null);
+        aggregator.record("b", "service-b", INTERNAL_SERVER_ERROR, null);
+        aggregator.record("c", "service-c", INTERNAL_SERVER_ERROR, null);
+
+        Map<String, Number> metrics = metrics();
+        assertEquals(3L, metrics.get("gateway.errors.total"));
+        assertEquals(1L, metrics.get("gateway.errors.other.0.other"));
+    }
+
+    @Test
+    public void thatSummaryIsOneLinePerInterval() {
+
+        for (int i = 0; i < 100; i++) {
+            aggregator.record("things", "smartcosmos-things", INTERNAL_SERVER_ERROR, new SocketTimeoutException());
+        }
+
+        aggregator.logSummary();
+
+        ArgumentCaptor<LoggingEvent> captor = ArgumentCaptor.forClass(LoggingEvent.class);
+        verify(mockAppender, times(1)).doAppend(captor.capture());
+        assertEquals(WARN, captor.getValue()
+            .getLevel());
+        assertTrue(captor.getValue()
+                       .getFormattedMessage()
+                       .startsWith("100 requests failed in the last 60 seconds, 2 logged individually:"));
+    }
+
+    @Test
+    public void thatSummaryIsSkippedWithoutFailures() {
+
+        aggregator.logSummary();
+
+        verify(mockAppender, never()).doAppend(any());
+    }
+}
@@ -0,0 +1,111 @@
+package net.smartcosmos.cluster.gateway.resource;
+
+import java.net.ConnectException;
+import java.net.SocketTimeoutException;
+import java.util.concurrent.TimeoutException;
+
+import com.netflix.client.ClientException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.exception.HystrixRuntimeException.FailureType;
+import com.netflix.zuul.exception.ZuulException;
+import org.junit.*;
+import org.springframework.http.HttpStatus;
+
+import net.smartcosmos.cluster.gateway.config.ExceptionStatusProperties;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.springframework.http.HttpStatus.BAD_GATEWAY;
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+public class ExceptionStatusClassifierTest {
+
+    private ExceptionStatusProperties properties;
+
+    private ExceptionStatusClassifier classifier;
+
+    @Before
+    public void setUp() {
+
+        properties = new ExceptionStatusProperties();
+        classifier = new ExceptionStatusClassifier(properties);
+    }
+
+    private static ZuulException zuulException(FailureType failureType, Throwable cause) {
+
+        return new ZuulException(new HystrixRuntimeException(failureType, null, "smartcosmos-metadata " + failureType, cause, null),
+                                 500,
+                                 failureType.name());
+    }
+
+    // region default mappings
+
+    @Test
+    public void thatDefaultMappingsMatchExpectedStatus() {
+
+        Object[][] matrix = {
+            { new SocketTimeoutException(), GATEWAY_TIMEOUT },
+            { new TimeoutException(), GATEWAY_TIMEOUT },
+            { new ClientException("no server"), SERVICE_UNAVAILABLE },
+            { new ClientException(ClientException.ErrorType.NUMBEROF_RETRIES_EXEEDED, "retries"), SERVICE_UNAVAILABLE },
+            { mock(ClientException.class), SERVICE_UNAVAILABLE },
+            { mock(SocketTimeoutException.class), GATEWAY_TIMEOUT },
+            { zuulException(FailureType.REJECTED_SEMAPHORE_EXECUTION, null), SERVICE_UNAVAILABLE },
+            { zuulException(FailureType.REJECTED_THREAD_EXECUTION, null), SERVICE_UNAVAILABLE },
+            { zuulException(FailureType.SHORTCIRCUIT, null), SERVICE_UNAVAILABLE },
+            { zuulException(FailureType.TIMEOUT, new TimeoutException()), GATEWAY_TIMEOUT },
+            { zuulException(FailureType.COMMAND_EXCEPTION, new RuntimeException("failure")), null },
+            { new ConnectException(), null },
+            { new RuntimeException("failure"), null },
+            { new Exception("failure", new SocketTimeoutException()), null },
+            { null, null },
+            };
+
+        for (Object[] row : matrix) {
+            assertEquals(String.valueOf(row[0]), row[1], classifier.getStatus((Throwable) row[0]));
+        }
+    }
+
+    // endregion
+
+    // region configured mappings
+
+    @Test
+    public void thatConfiguredExceptionIsMappedWithSubclasses() {
+
+        properties.getExceptions()
+            .put(ConnectException.class.getName(), BAD_GATEWAY);
+        classifier = new ExceptionStatusClassifier(properties);
+
+        assertEquals(BAD_GATEWAY, classifier.getStatus(new ConnectException()));
+        assertEquals(BAD_GATEWAY, classifier.getStatus(new ConnectException() {}));
+    }
+
+    @Test
+    public void thatConfiguredMappingOverridesDefault() {
+
+        properties.getExceptions()
+            .put(ClientException.class.getName(), BAD_GATEWAY);
+        properties.getHystrixFailures()
+            .put(FailureType.COMMAND_EXCEPTION, INTERNAL_SERVER_ERROR);
+        classifier = new ExceptionStatusClassifier(properties);
+
+        assertEquals(BAD_GATEWAY, classifier.getStatus(new ClientException("no server")));
+        assertEquals(INTERNAL_SERVER_ERROR, classifier.getStatus(zuulException(FailureType.COMMAND_EXCEPTION, new RuntimeException())));
+    }
+
+    @Test
+    public void thatClosestSuperclassWins() {
+
+        properties.getExceptions()
+            .put(Exception.class.getName(), INTERNAL_SERVER_ERROR);
+        classifier = new ExceptionStatusClassifier(properties);
+
+        assertEquals(GATEWAY_TIMEOUT, classifier.getStatus(new SocketTimeoutException()));
+        assertEquals(INTERNAL_SERVER_ERROR, classifier.getStatus(new IllegalStateException()));
+    }
+
+    // endregion
+}
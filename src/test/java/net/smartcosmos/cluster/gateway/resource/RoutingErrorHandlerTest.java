@@ -0,0 +1,927 @@
+package net.smartcosmos.cluster.gateway.resource;
+
+import java.net.SocketTimeoutException;
+import java.util.List;
+import java.util.concurrent.TimeoutException;
+
+import ch.qos.logback.classic.spi.LoggingEvent;
+import ch.qos.logback.core.Appender;
+import com.netflix.client.ClientException;
+import com.netflix.hystrix.exception.HystrixRuntimeException;
+import com.netflix.hystrix.exception.HystrixRuntimeException.FailureType;
+import com.netflix.zuul.context.RequestContext;
+import com.netflix.zuul.exception.ZuulException;
+
+import org.junit.*;
+import org.junit.runner.RunWith;
+import org.mockito.*;
+import org.mockito.runners.MockitoJUnitRunner;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
+
+import net.smartcosmos.cluster.gateway.config.ErrorLoggingProperties;
+import net.smartcosmos.cluster.gateway.config.ExceptionStatusProperties;
+import net.smartcosmos.cluster.gateway.domain.ErrorResponse;
+
+import static ch.qos.logback.classic.Level.DEBUG;
+import static ch.qos.logback.classic.Level.TRACE;
+import static ch.qos.logback.classic.Level.WARN;
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.any;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.doReturn;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.reset;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.http.HttpStatus.GATEWAY_TIMEOUT;
+import static org.springframework.http.HttpStatus.INTERNAL_SERVER_ERROR;
+import static org.springframework.http.HttpStatus.I_AM_A_TEAPOT;
+import static org.springframework.http.HttpStatus.SERVICE_UNAVAILABLE;
+
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_EXCEPTION;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_MESSAGE;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_ERROR_STATUS_CODE;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_PROXY;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ATTR_SERVICE_ID;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ERROR_MESSAGE_TIMEOUT;
+import static net.smartcosmos.cluster.gateway.resource.GatewayErrorController.ZUUL_REQUEST_URI;
+
+@SuppressWarnings("unchecked")
+@RunWith(MockitoJUnitRunner.class)
+public class RoutingErrorHandlerTest {
+
+    @Mock
+    RequestContext requestContext;
+
+    @Spy
+    RoutingErrorHandler errorHandler = new RoutingErrorHandler(new ErrorEventAggregator(new ErrorLoggingProperties()),
+                                                               new ExceptionStatusClassifier(new ExceptionStatusProperties()));
+
+    @Mock
+    Appender mockAppender;
+
+    @Captor
+    private ArgumentCaptor<LoggingEvent> captorLoggingEvent;
+
+    private static Logger logger = LoggerFactory.getLogger(RoutingErrorHandler.class);
+
+    @Before
+    public void setUp() {
+
+        ch.qos.logback.classic.Logger root = (ch.qos.logback.classic.Logger) LoggerFactory.getLogger(ch.qos.logback.classic.Logger.ROOT_LOGGER_NAME);
+        when(mockAppender.getName()).thenReturn("MOCK");
+        root.addAppender(mockAppender);
+        root.setLevel(TRACE);
+
+        when(requestContext.containsKey(anyString())).thenReturn(false);
+    }
+
+    @After
+    public void tearDown() {
+
+        reset(errorHandler, mockAppender, requestContext);
+    }
+
+    @Test
+    public void thatMockingWorks() {
+
+        assertNotNull(errorHandler);
+        assertNotNull(mockAppender);
+        assertNotNull(requestContext);
+        assertNotNull(logger);
+    }
+
+    // region handle()
+
+    // region empty context
+
+    @Test
+    public void thatErrorCallsErrorResponseForEmptyContext() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedMessage = "No context information available. A reason for this can be that no configured route matched the request.";
+        final String expectedPath = null;
+
+        when(requestContext.isEmpty()).thenReturn(true);
+
+        errorHandler.handle(requestContext);
+
+        verify(errorHandler, times(1)).errorResponse(eq(expectedStatus), eq(expectedMessage), eq(expectedPath));
+    }
+
+    @Test
+    public void thatErrorLogsInformationAtWarnLevelForEmptyContext() {
+
+        when(requestContext.isEmpty()).thenReturn(true);
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(1)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getValue();
+        assertEquals(WARN, loggingEvent.getLevel());
+    }
+
+    @Test
+    public void thatErrorLogsMessageForEmptyContext() {
+
+        final String expectedLogMessage = "No context information available. A reason for this can be that no configured route matched the request.";
+
+        when(requestContext.isEmpty()).thenReturn(true);
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(1)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getValue();
+        assertEquals(expectedLogMessage, loggingEvent.getFormattedMessage());
+    }
+
+    @Test
+    public void thatHandleReturnsExpectedErrorResponseForEmptyContext() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedMessage = "No context information available. A reason for this can be that no configured route matched the request.";
+        final String expectedPath = null;
+
+        when(requestContext.isEmpty()).thenReturn(true);
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals((Integer) expectedStatus.value(), responseBody.getStatus());
+        assertEquals(expectedMessage, responseBody.getMessage());
+        assertEquals(expectedPath, responseBody.getPath());
+    }
+
+    // endregion
+
+    // region context information available
+
+    @Test
+    public void thatErrorReadsContextInformationIs() {
+
+        when(requestContext.isEmpty()).thenReturn(false);
+
+        errorHandler.handle(requestContext);
+
+        verify(errorHandler, times(1)).getRequestUriFromRequestContext(eq(requestContext));
+        verify(errorHandler, times(1)).getHttpStatusFromRequestContext(eq(requestContext));
+        verify(errorHandler, times(1)).getRouteFromRequestContext(eq(requestContext));
+        verify(errorHandler, times(1)).getServiceIdFromRequestContext(eq(requestContext));
+        verify(errorHandler, times(1)).getErrorMessageFromRequestContext(eq(requestContext));
+        verify(errorHandler, times(1)).getExceptionFromRequestContext(eq(requestContext));
+    }
+
+    @Test
+    public void thatErrorLogsAtWarnLevel() {
+
+        when(requestContext.isEmpty()).thenReturn(false);
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        List<LoggingEvent> loggingEvents = captorLoggingEvent.getAllValues();
+
+        Boolean loggedAtWarn = false;
+        for (LoggingEvent loggingEvent : loggingEvents) {
+            if (WARN.equals(loggingEvent.getLevel())) {
+                loggedAtWarn = true;
+                break;
+            }
+        }
+        assertTrue(loggedAtWarn);
+    }
+
+    @Test
+    public void thatErrorLogsAtDebugLevel() {
+
+        when(requestContext.isEmpty()).thenReturn(false);
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        List<LoggingEvent> loggingEvents = captorLoggingEvent.getAllValues();
+
+        Boolean loggedAtDebug = false;
+        for (LoggingEvent loggingEvent : loggingEvents) {
+            if (DEBUG.equals(loggingEvent.getLevel())) {
+                loggedAtDebug = true;
+                break;
+            }
+        }
+        assertTrue(loggedAtDebug);
+    }
+
+    @Test
+    public void thatErrorLogsRoute() {
+
+        final String expectedRoute = "some-route";
+        final String expectedLogOutput = String.format("Using route '%s'", expectedRoute);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedRoute).when(errorHandler)
+            .getRouteFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsService() {
+
+        final String expectedService = "some-service";
+        final String expectedLogOutput = String.format("to service '%s'", expectedService);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedService).when(errorHandler)
+            .getServiceIdFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsRequest() {
+
+        final String expectedRequest = "/path";
+        final String expectedLogOutput = String.format("for request '%s'", expectedRequest);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedRequest).when(errorHandler)
+            .getRequestUriFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsStatusCode() {
+
+        final HttpStatus expectedHttpStatus = I_AM_A_TEAPOT;
+        final String expectedLogOutput = String.format("Status code: '%s'", expectedHttpStatus.value());
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedHttpStatus).when(errorHandler)
+            .getHttpStatusFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsErrorMessage() {
+
+        final String expectedErrorMessage = "some error";
+        final String expectedLogOutput = String.format("Error: '%s'", expectedErrorMessage);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedErrorMessage).when(errorHandler)
+            .getErrorMessageFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsMessageForMissingCause() {
+
+        final Exception expectedException = null;
+        final String expectedExceptionString = "No exception available in context";
+        final String expectedLogOutput = String.format("Cause: %s", expectedExceptionString);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedException).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsCause() {
+
+        final Exception expectedException = new RuntimeException("some exception");
+        final String expectedExceptionString = expectedException.toString();
+        final String expectedLogOutput = String.format("Cause: %s", expectedExceptionString);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedException).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsMessageForMissingRootCause() {
+
+        final Exception expectedException = new Exception("some exception");
+        final String expectedRootCauseString = "N/A";
+        final String expectedLogOutput = String.format("Root cause: %s", expectedRootCauseString);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedException).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsRootCause() {
+
+        final Exception rootCause = new RuntimeException("some root cause");
+        final Exception expectedException = new Exception("some exception", rootCause);
+        final String expectedRootCauseString = rootCause.toString();
+        final String expectedLogOutput = String.format("Root cause: %s", expectedRootCauseString);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(expectedException).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorLogsCompleteMessageCorrectly() {
+
+        final String expectedRoute = "some-route";
+        final String expectedServiceId = "some-service";
+        final String expectedRequestUri = "/some/dummy/path";
+        final HttpStatus expectedHttpStatus = I_AM_A_TEAPOT;
+        final String expectedErrorMessage = "some error";
+        final Exception expectedRootCause = new RuntimeException("some root cause");
+        final Exception expectedException = new Exception("some exception", expectedRootCause);
+
+        final String expectedLogOutput = String.format("Using route '%s' to service '%s' for request '%s' failed.\n"
+                                                       + "Status code: '%s', Error: '%s'\n"
+                                                       + "Cause: %s\n"
+                                                       + "Root cause: %s",
+                                                       expectedRoute,
+                                                       expectedServiceId,
+                                                       expectedRequestUri,
+                                                       expectedHttpStatus,
+                                                       expectedErrorMessage,
+                                                       expectedException.toString(),
+                                                       expectedRootCause.toString());
+
+        when(requestContext.isEmpty()).thenReturn(false);
+
+        doReturn(expectedRoute).when(errorHandler)
+            .getRouteFromRequestContext(eq(requestContext));
+        doReturn(expectedServiceId).when(errorHandler)
+            .getServiceIdFromRequestContext(eq(requestContext));
+        doReturn(expectedRequestUri).when(errorHandler)
+            .getRequestUriFromRequestContext(eq(requestContext));
+        doReturn(expectedHttpStatus).when(errorHandler)
+            .getHttpStatusFromRequestContext(eq(requestContext));
+        doReturn(expectedErrorMessage).when(errorHandler)
+            .getErrorMessageFromRequestContext(eq(requestContext));
+        doReturn(expectedException).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        errorHandler.handle(requestContext);
+
+        verify(mockAppender, times(2)).doAppend(captorLoggingEvent.capture());
+        LoggingEvent loggingEvent = captorLoggingEvent.getAllValues()
+            .get(0);
+        String logMessage = loggingEvent.getFormattedMessage();
+
+        assertTrue(logMessage.contains(expectedLogOutput));
+    }
+
+    @Test
+    public void thatErrorReturnsCorrectResponseBodyWithRootCause() {
+
+        final String expectedRoute = "some-route";
+        final String expectedPath = "/some/dummy/path";
+        final Exception expectedRootCause = new RuntimeException("some root cause");
+        final Exception expectedException = new Exception("some exception", expectedRootCause);
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedExceptionMessage = String.format("%s: %s", expectedException.getMessage(), expectedRootCause.getMessage());
+        final String expectedMessage = String.format("Gateway error: '%s' failed: %s", expectedRoute, expectedExceptionMessage);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+
+        doReturn(expectedRoute).when(errorHandler)
+            .getRouteFromRequestContext(eq(requestContext));
+        doReturn(expectedPath).when(errorHandler)
+            .getRequestUriFromRequestContext(eq(requestContext));
+        doReturn(expectedException).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals((Integer) expectedStatus.value(), responseBody.getStatus());
+        assertEquals(expectedMessage, responseBody.getMessage());
+        assertEquals(expectedPath, responseBody.getPath());
+    }
+
+    @Test
+    public void thatErrorReturnsCorrectResponseBodyWithoutRootCause() {
+
+        final String expectedRoute = "some-route";
+        final String expectedPath = "/some/dummy/path";
+        final Exception expectedException = new Exception("some exception");
+
+        final String expectedExceptionMessage = String.format("%s", expectedException.getMessage());
+        final String expectedMessage = String.format("Gateway error: '%s' failed: %s", expectedRoute, expectedExceptionMessage);
+
+        when(requestContext.isEmpty()).thenReturn(false);
+
+        doReturn(expectedRoute).when(errorHandler)
+            .getRouteFromRequestContext(eq(requestContext));
+        doReturn(expectedPath).when(errorHandler)
+            .getRequestUriFromRequestContext(eq(requestContext));
+        doReturn(expectedException).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals(expectedMessage, responseBody.getMessage());
+        assertEquals(expectedPath, responseBody.getPath());
+    }
+
+    @Test
+    public void thatErrorLogsOnlyAtDebugLevelIfSamplesAreExhausted() {
+
+        ErrorLoggingProperties properties = new ErrorLoggingProperties();
+        properties.setSamplesPerInterval(1);
+        RoutingErrorHandler sampledHandler = new RoutingErrorHandler(new ErrorEventAggregator(properties),
+                                                                     new ExceptionStatusClassifier(new ExceptionStatusProperties()));
+        when(requestContext.isEmpty()).thenReturn(false);
+
+        sampledHandler.handle(requestContext);
+        sampledHandler.handle(requestContext);
+
+        verify(mockAppender, times(3)).doAppend(captorLoggingEvent.capture());
+        List<LoggingEvent> loggingEvents = captorLoggingEvent.getAllValues();
+        assertEquals(WARN, loggingEvents.get(0)
+            .getLevel());
+        assertEquals(DEBUG, loggingEvents.get(1)
+            .getLevel());
+        assertEquals(DEBUG, loggingEvents.get(2)
+            .getLevel());
+    }
+
+    // endregion
+
+    // region timeout
+
+    @Test
+    public void thatThatErrorReturnsGatewayTimeout() {
+
+        final HttpStatus expectedStatus = GATEWAY_TIMEOUT;
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(GATEWAY_TIMEOUT).when(errorHandler)
+            .getMappedStatus(any(), any());
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals((Integer) expectedStatus.value(), responseBody.getStatus());
+    }
+
+    @Test
+    public void thatThatErrorReturnsGatewayTimeoutInCaseOfTimeoutErrorMessage() {
+
+        final HttpStatus expectedStatus = GATEWAY_TIMEOUT;
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        when(errorHandler.getErrorMessageFromRequestContext(eq(requestContext))).thenReturn(ERROR_MESSAGE_TIMEOUT);
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals((Integer) expectedStatus.value(), responseBody.getStatus());
+    }
+
+    // endregion
+
+    // region service unavailable
+
+    @Test
+    public void thatThatErrorReturnsServiceUnavailable() {
+
+        final HttpStatus expectedStatus = SERVICE_UNAVAILABLE;
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(SERVICE_UNAVAILABLE).when(errorHandler)
+            .getMappedStatus(any(), any());
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals((Integer) expectedStatus.value(), responseBody.getStatus());
+    }
+
+    @Test
+    public void thatThatErrorReturnsServiceUnavailableForSemaphoreRejection() {
+
+        final Exception exception = zuulException(FailureType.REJECTED_SEMAPHORE_EXECUTION, new RuntimeException("could not acquire a semaphore"));
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(exception).when(errorHandler)
+            .getExceptionFromRequestContext(eq(requestContext));
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals((Integer) SERVICE_UNAVAILABLE.value(), responseBody.getStatus());
+    }
+
+    // endregion
+
+    // region other response
+
+    @Test
+    public void thatThatErrorReturnsInternalServerErrorAsDefault() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+
+        when(requestContext.isEmpty()).thenReturn(false);
+        doReturn(null).when(errorHandler)
+            .getMappedStatus(any(), any());
+
+        ErrorResponse responseBody = errorHandler.handle(requestContext);
+
+        assertEquals((Integer) expectedStatus.value(), responseBody.getStatus());
+    }
+
+    // endregion
+
+    // endregion
+
+    // region errorResponse()
+
+    @Test
+    public void thatErrorResponseReturnsErrorResponse() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedMessage = "someMessage";
+        final String expectedPath = "/path";
+
+        ErrorResponse errorResponse = errorHandler.errorResponse(expectedStatus, expectedMessage, expectedPath);
+
+        assertNotNull(errorResponse);
+    }
+
+    @Test
+    public void thatErrorResponseIncludesHttpStatusInBody() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedMessage = "someMessage";
+        final String expectedPath = "/path";
+
+        ErrorResponse errorResponse = errorHandler.errorResponse(expectedStatus, expectedMessage, expectedPath);
+
+        assertNotNull(errorResponse.getStatus());
+        assertEquals((Integer) expectedStatus.value(), errorResponse.getStatus());
+
+        assertNotNull(errorResponse.getError());
+        assertEquals(expectedStatus.getReasonPhrase(), errorResponse.getError());
+    }
+
+    @Test
+    public void thatErrorResponseIncludesTimestampInBody() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedMessage = "someMessage";
+        final String expectedPath = "/path";
+
+        ErrorResponse errorResponse = errorHandler.errorResponse(expectedStatus, expectedMessage, expectedPath);
+
+        assertNotNull(errorResponse.getTimestamp());
+        assertTrue(errorResponse.getTimestamp() instanceof Long);
+    }
+
+    @Test
+    public void thatErrorResponseIncludesMessageInBody() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedMessage = "someMessage";
+        final String expectedPath = "/path";
+
+        ErrorResponse errorResponse = errorHandler.errorResponse(expectedStatus, expectedMessage, expectedPath);
+
+        assertNotNull(errorResponse.getMessage());
+        assertEquals(expectedMessage, errorResponse.getMessage());
+    }
+
+    @Test
+    public void thatErrorResponseIncludesPathInBody() {
+
+        final HttpStatus expectedStatus = INTERNAL_SERVER_ERROR;
+        final String expectedMessage = "someMessage";
+        final String expectedPath = "/path";
+
+        ErrorResponse errorResponse = errorHandler.errorResponse(expectedStatus, expectedMessage, expectedPath);
+
+        assertNotNull(errorResponse.getMessage());
+        assertEquals(expectedPath, errorResponse.getPath());
+    }
+
+    // endregion
+
+    // region getMappedStatus()
+
+    @Test
+    public void thatGetMappedStatusReturnsServiceUnavailableForClientException() {
+
+        Exception exception = mock(ClientException.class);
+        assertEquals(SERVICE_UNAVAILABLE, errorHandler.getMappedStatus(exception, null));
+    }
+
+    @Test
+    public void thatGetMappedStatusReturnsNullForArbitraryException() {
+
+        Exception exception = mock(Exception.class);
+        assertNull(errorHandler.getMappedStatus(exception, null));
+    }
+
+    @Test
+    public void thatGetMappedStatusReturnsServiceUnavailableForHystrixRejections() {
+
+        assertEquals(SERVICE_UNAVAILABLE, errorHandler.getMappedStatus(zuulException(FailureType.REJECTED_SEMAPHORE_EXECUTION, null), null));
+        assertEquals(SERVICE_UNAVAILABLE, errorHandler.getMappedStatus(zuulException(FailureType.REJECTED_THREAD_EXECUTION, null), null));
+        assertEquals(SERVICE_UNAVAILABLE, errorHandler.getMappedStatus(zuulException(FailureType.SHORTCIRCUIT, null), null));
+    }
+
+    @Test
+    public void thatGetMappedStatusReturnsOtherStatusForOtherHystrixFailures() {
+
+        assertNull(errorHandler.getMappedStatus(zuulException(FailureType.COMMAND_EXCEPTION, new RuntimeException("failure")), null));
+        assertEquals(GATEWAY_TIMEOUT, errorHandler.getMappedStatus(zuulException(FailureType.TIMEOUT, new TimeoutException()), null));
+    }
+
+    @Test
+    public void thatGetMappedStatusReturnsGatewayTimeoutForSocketTimeoutException() {
+
+        Exception exception = mock(SocketTimeoutException.class);
+        assertEquals(GATEWAY_TIMEOUT, errorHandler.getMappedStatus(exception, null));
+    }
+
+    @Test
+    public void thatGetMappedStatusReturnsGatewayTimeoutForTimeoutException() {
+
+        Exception exception = mock(TimeoutException.class);
+        assertEquals(GATEWAY_TIMEOUT, errorHandler.getMappedStatus(exception, null));
+    }
+
+    @Test
+    public void thatGetMappedStatusFallsBackToRootCause() {
+
+        SocketTimeoutException rootCause = new SocketTimeoutException();
+        assertEquals(GATEWAY_TIMEOUT, errorHandler.getMappedStatus(new RuntimeException("failure", rootCause), rootCause));
+    }
+
+    @Test
+    public void thatGetMappedStatusPrefersTimeoutOfRootCause() {
+
+        assertEquals(GATEWAY_TIMEOUT, errorHandler.getMappedStatus(new ClientException("read timed out"), new SocketTimeoutException()));
+    }
+
+    @Test
+    public void thatGetMappedStatusPrefersExceptionOverOtherRootCause() {
+
+        assertEquals(SERVICE_UNAVAILABLE, errorHandler.getMappedStatus(new ClientException("no server"), new IllegalStateException()));
+    }
+
+    // endregion
+
+    // region getRequestUriFromRequestContext()
+
+    @Test
+    public void thatGetRequestUriFromRequestContextDefaultsToUnknown() {
+
+        final String expectedUri = "unknown-uri";
+
+        when(requestContext.containsKey(eq(ZUUL_REQUEST_URI))).thenReturn(false);
+
+        String uri = errorHandler.getRequestUriFromRequestContext(requestContext);
+
+        assertEquals(expectedUri, uri);
+    }
+
+    @Test
+    public void thatGetRequestUriFromRequestContextSucceeds() {
+
+        final String expectedUri = "/some/request/uri";
+
+        when(requestContext.containsKey(eq(ZUUL_REQUEST_URI))).thenReturn(true);
+        when(requestContext.get(eq(ZUUL_REQUEST_URI))).thenReturn(expectedUri);
+
+        String uri = errorHandler.getRequestUriFromRequestContext(requestContext);
+
+        assertEquals(expectedUri, uri);
+    }
+
+    // endregion
+
+    // region getHttpStatusFromRequestContext()
+
+    @Test
+    public void thatGetHttpStatusFromRequestContextDefaultsToNull() {
+
+        final HttpStatus expectedHttpStatus = null;
+
+        when(requestContext.containsKey(eq(ATTR_ERROR_STATUS_CODE))).thenReturn(false);
+
+        HttpStatus httpStatus = errorHandler.getHttpStatusFromRequestContext(requestContext);
+
+        assertEquals(expectedHttpStatus, httpStatus);
+    }
+
+    @Test
+    public void thatGetHttpStatusFromRequestContextSucceeds() {
+
+        final HttpStatus expectedHttpStatus = I_AM_A_TEAPOT;
+
+        when(requestContext.containsKey(eq(ATTR_ERROR_STATUS_CODE))).thenReturn(true);
+        when(requestContext.get(eq(ATTR_ERROR_STATUS_CODE))).thenReturn(expectedHttpStatus.value());
+
+        HttpStatus httpStatus = errorHandler.getHttpStatusFromRequestContext(requestContext);
+
+        assertEquals(expectedHttpStatus, httpStatus);
+    }
+
+    // endregion
+
+    // region getRouteFromRequestContext()
+
+    @Test
+    public void thatGetRouteFromRequestContextDefaultsToUnknown() {
+
+        final String expectedRoute = "unknown-route";
+
+        when(requestContext.containsKey(eq(ATTR_PROXY))).thenReturn(false);
+
+        String route = errorHandler.getRouteFromRequestContext(requestContext);
+
+        assertEquals(expectedRoute, route);
+    }
+
+    @Test
+    public void thatGetRouteFromRequestContextSucceeds() {
+
+        final String expectedRoute = "some-route";
+
+        when(requestContext.containsKey(eq(ATTR_PROXY))).thenReturn(true);
+        when(requestContext.get(eq(ATTR_PROXY))).thenReturn(expectedRoute);
+
+        String route = errorHandler.getRouteFromRequestContext(requestContext);
+
+        assertEquals(expectedRoute, route);
+    }
+
+    // endregion
+
+    // region getServiceIdFromRequestContext()
+
+    @Test
+    public void thatGetServiceIdFromRequestContextDefaultsToUnknown() {
+
+        final String expectedServiceId = "unknown-service";
+
+        when(requestContext.containsKey(eq(ATTR_SERVICE_ID))).thenReturn(false);
+
+        String serviceId = errorHandler.getServiceIdFromRequestContext(requestContext);
+
+        assertEquals(expectedServiceId, serviceId);
+    }
+
+    @Test
+    public void thatGetServiceIdFromRequestContextSucceeds() {
+
+        final String expectedServiceId = "some-service";
+
+        when(requestContext.containsKey(eq(ATTR_SERVICE_ID))).thenReturn(true);
+        when(requestContext.get(eq(ATTR_SERVICE_ID))).thenReturn(expectedServiceId);
+
+        String serviceId = errorHandler.getServiceIdFromRequestContext(requestContext);
+
+        assertEquals(expectedServiceId, serviceId);
+    }
+
+    // endregion
+
+    // region getExceptionFromRequestContext()
+
+    @Test
+    public void thatGetExceptionFromRequestContextDefaultsToNull() {
+
+        final Exception expectedException = null;
+
+        when(requestContext.containsKey(eq(ATTR_ERROR_EXCEPTION))).thenReturn(false);
+
+        Exception exception = errorHandler.getExceptionFromRequestContext(requestContext);
+
+        assertEquals(expectedException, exception);
+    }
+
+    @Test
+    public void thatGetExceptionFromRequestContextSucceeds() {
+
+        final Exception expectedException = mock(Exception.class);
+
+        when(requestContext.containsKey(eq(ATTR_ERROR_EXCEPTION))).thenReturn(true);
+        when(requestContext.get(eq(ATTR_ERROR_EXCEPTION))).thenReturn(expectedException);
+
+        Exception exception = errorHandler.getExceptionFromRequestContext(requestContext);
+
+        assertEquals(expectedException, exception);
+    }
+
+    // endregion
+
+    // region getErrorMessageFromRequestContext()
+
+    @Test
+    public void thatGetErrorMessageFromRequestContextDefaultsToUnknown() {
+
+        final String expectedErrorMessage = "No message available";
+
+        when(requestContext.containsKey(eq(ATTR_ERROR_MESSAGE))).thenReturn(false);
+
+        String serviceId = errorHandler.getErrorMessageFromRequestContext(requestContext);
+
+        assertEquals(expectedErrorMessage, serviceId);
+    }
+
+    @Test
+    public void thatGetErrorMessageFromRequestContextSucceeds() {
+
+        final String expectedErrorMessage = "Some error message";
+
+        when(requestContext.containsKey(eq(ATTR_ERROR_MESSAGE))).thenReturn(true);
+        when(requestContext.get(eq(ATTR_ERROR_MESSAGE))).thenReturn(expectedErrorMessage);
+
+        String serviceId = errorHandler.getErrorMessageFromRequestContext(requestContext);
+
+        assertEquals(expectedErrorMessage, serviceId);
+    }
+
+    // endregion
+
+    private static Exception zuulException(FailureType failureType, Exception cause) {
+
+        return new ZuulException(new HystrixRuntimeException(failureType, null, "smartcosmos-metadata " + failureType, cause, null),
+                                 500,
+                                 "Forwarding error");
+    }
+}
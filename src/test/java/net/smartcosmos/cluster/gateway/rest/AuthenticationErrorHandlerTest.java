@@ -1,7 +1,10 @@
 package net.smartcosmos.cluster.gateway.rest;
 
+import java.io.ByteArrayInputStream;
 import java.io.IOException;
+import java.nio.charset.StandardCharsets;
 
+import org.apache.http.conn.ConnectionReleaseTrigger;
 import org.junit.*;
 import org.junit.runner.RunWith;
 import org.mockito.*;
@@ -14,6 +17,8 @@ import org.springframework.web.client.DefaultResponseErrorHandler;
 import org.springframework.web.client.ResponseErrorHandler;
 import org.springframework.web.client.RestClientException;
 
+import net.smartcosmos.cluster.gateway.config.AuthenticationServerConnectionProperties;
+
 import static org.junit.Assert.*;
 import static org.mockito.Mockito.mock;
 import static org.mockito.Mockito.reset;
@@ -85,6 +90,20 @@ public class AuthenticationErrorHandlerTest {
         errorHandler.handleError(response);
     }
 
+    @Test
+    public void thatHandleErrorUsesErrorDescriptionFromResponseBody() throws Exception {
+
+        when(response.getStatusCode()).thenReturn(HttpStatus.BAD_REQUEST);
+        when(response.getBody()).thenReturn(body("{\"error\":\"invalid_grant\",\"error_description\":\"User is disabled\"}"));
+
+        try {
+            errorHandler.handleError(response);
+            fail("BadCredentialsException expected");
+        } catch (BadCredentialsException e) {
+            assertEquals("User is disabled", e.getMessage());
+        }
+    }
+
     @Test
     public void thatHandleErrorThrowsExceptionLikeBaseClass() throws Exception {
 
@@ -160,6 +179,154 @@ public class AuthenticationErrorHandlerTest {
         assertEquals(expectedDescription, description);
     }
 
+    @Test
+    public void thatGetErrorDescriptionFromBodyKeepsCommasAndColons() throws Exception {
+
+        final String expectedDescription = "Bad credentials: user 'a,b' unknown";
+        final String responseBody = String.format("{\"error\":\"invalid_grant\",\"error_description\":\"%s\"}", expectedDescription);
+
+        String description = errorHandler.getErrorDescriptionFromBody(responseBody);
+
+        assertEquals(expectedDescription, description);
+    }
+
+    @Test
+    public void thatGetErrorDescriptionFromBodySkipsNestedValues() throws Exception {
+
+        final String expectedDescription = "some arbitrary error description";
+        final String responseBody = String.format("{\"details\":{\"error_description\":\"nested\"},\"list\":[1,{\"a\":\"b\"}],"
+                                                  + "\"error_description\":\"%s\"}", expectedDescription);
+
+        String description = errorHandler.getErrorDescriptionFromBody(responseBody);
+
+        assertEquals(expectedDescription, description);
+    }
+
+    // endregion
+
+    // region getErrorDescription()
+
+    @Test
+    public void thatGetErrorDescriptionDecodesUtf8() throws Exception {
+
+        final String expectedDescription = "Benutzer gesperrt – bitte überprüfen";
+        when(response.getBody()).thenReturn(body(String.format("{\"error_description\":\"%s\"}", expectedDescription)));
+
+        String description = errorHandler.getErrorDescription(response);
+
+        assertEquals(expectedDescription, description);
+    }
+
+    @Test
+    public void thatGetErrorDescriptionStopsReadingAfterDescription() throws Exception {
+
+        final String expectedDescription = "some arbitrary error description";
+        // invalid JSON after the description is never reached
+        when(response.getBody()).thenReturn(body(String.format("{\"error_description\":\"%s\", this is not JSON", expectedDescription)));
+
+        String description = errorHandler.getErrorDescription(response);
+
+        assertEquals(expectedDescription, description);
+    }
+
+    @Test
+    public void thatGetErrorDescriptionReturnsFallbackMessageForOversizedBody() throws Exception {
+
+        StringBuilder responseBody = new StringBuilder("{\"padding\":\"");
+        for (int i = 0; i < 128 * 1024; i++) {
+            responseBody.append('x');
+        }
+        responseBody.append("\",\"error_description\":\"too late\"}");
+        when(response.getBody()).thenReturn(body(responseBody.toString()));
+
+        String description = errorHandler.getErrorDescription(response);
+
+        assertEquals("Invalid username or password", description);
+    }
+
+    @Test
+    public void thatGetErrorDescriptionReturnsFallbackMessageForMissingBody() throws Exception {
+
+        when(response.getBody()).thenReturn(null);
+
+        String description = errorHandler.getErrorDescription(response);
+
+        assertEquals("Invalid username or password", description);
+    }
+
+    @Test
+    public void thatGetErrorDescriptionAbortsConnectionForOversizedBody() throws Exception {
+
+        AuthenticationServerConnectionProperties properties = new AuthenticationServerConnectionProperties();
+        properties.setMaxErrorBodySize(64);
+        AuthenticationErrorHandler cappedErrorHandler = new AuthenticationErrorHandler(properties);
+
+        ReleasableInputStream responseBody = new ReleasableInputStream(
+            "{\"error_description\":\"some arbitrary error description\",\"padding\":\"xxxxxxxxxxxxxxxxxxxxxxxxxxxxxxxx\"}");
+        when(response.getBody()).thenReturn(responseBody);
+
+        String description = cappedErrorHandler.getErrorDescription(response);
+
+        assertEquals("some arbitrary error description", description);
+        assertTrue(responseBody.isAborted());
+    }
+
+    @Test
+    public void thatGetErrorDescriptionKeepsConnectionForBodyWithinLimit() throws Exception {
+
+        AuthenticationServerConnectionProperties properties = new AuthenticationServerConnectionProperties();
+        properties.setMaxErrorBodySize(64);
+        AuthenticationErrorHandler cappedErrorHandler = new AuthenticationErrorHandler(properties);
+
+        ReleasableInputStream responseBody = new ReleasableInputStream("{\"error_description\":\"some description\"}");
+        when(response.getBody()).thenReturn(responseBody);
+
+        String description = cappedErrorHandler.getErrorDescription(response);
+
+        assertEquals("some description", description);
+        assertFalse(responseBody.isAborted());
+    }
+
+    @Test
+    public void thatGetErrorDescriptionReusesBufferForSubsequentResponses() throws Exception {
+
+        when(response.getBody()).thenReturn(body("{\"error_description\":\"first description with some length\"}"));
+        assertEquals("first description with some length", errorHandler.getErrorDescription(response));
+
+        when(response.getBody()).thenReturn(body("{\"error_description\":\"second\"}"));
+        assertEquals("second", errorHandler.getErrorDescription(response));
+    }
+
     // endregion
 
+    private static ByteArrayInputStream body(String content) {
+
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static class ReleasableInputStream extends ByteArrayInputStream implements ConnectionReleaseTrigger {
+
+        private boolean aborted;
+
+        ReleasableInputStream(String content) {
+
+            super(content.getBytes(StandardCharsets.UTF_8));
+        }
+
+        boolean isAborted() {
+
+            return aborted;
+        }
+
+        @Override
+        public void releaseConnection() {
+
+        }
+
+        @Override
+        public void abortConnection() {
+
+            aborted = true;
+        }
+    }
 }
@@ -0,0 +1,110 @@
+package net.smartcosmos.cluster.gateway.rest;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import org.apache.http.HttpClientConnection;
+import org.apache.http.HttpHost;
+import org.apache.http.conn.ConnectionPoolTimeoutException;
+import org.apache.http.conn.routing.HttpRoute;
+import org.junit.*;
+import org.springframework.boot.actuate.metrics.Metric;
+
+import static org.junit.Assert.*;
+
+public class InstrumentedConnectionManagerTest {
+
+    private static final String METRIC_PREFIX = "test.pool.";
+    private static final HttpRoute ROUTE = new HttpRoute(new HttpHost("localhost", 8080));
+
+    private InstrumentedConnectionManager connectionManager;
+
+    private ExecutorService executorService;
+
+    @Before
+    public void setUp() {
+
+        connectionManager = new InstrumentedConnectionManager(METRIC_PREFIX, -1);
+        connectionManager.setMaxTotal(1);
+        connectionManager.setDefaultMaxPerRoute(1);
+        executorService = Executors.newSingleThreadExecutor();
+    }
+
+    @After
+    public void tearDown() {
+
+        executorService.shutdownNow();
+        connectionManager.shutdown();
+    }
+
+    private Map<String, Number> metrics() {
+
+        Map<String, Number> metrics = new HashMap<>();
+        for (Metric<?> metric : connectionManager.metrics()) {
+            metrics.put(metric.getName(), metric.getValue());
+        }
+        return metrics;
+    }
+
+    private HttpClientConnection lease(long timeoutMillis) throws Exception {
+
+        return connectionManager.requestConnection(ROUTE, null)
+            .get(timeoutMillis, TimeUnit.MILLISECONDS);
+    }
+
+    @Test
+    public void thatLeaseIsCounted() throws Exception {
+
+        lease(1000);
+
+        Map<String, Number> metrics = metrics();
+        assertEquals(1L, metrics.get(METRIC_PREFIX + "lease.count"));
+        assertEquals(0L, metrics.get(METRIC_PREFIX + "lease.timeout"));
+        assertEquals(1, metrics.get(METRIC_PREFIX + "leased"));
+        assertEquals(1, metrics.get(METRIC_PREFIX + "max"));
+    }
+
+    @Test
+    public void thatLeaseTimeoutIsCounted() throws Exception {
+
+        lease(1000);
+
+        try {
+            lease(100);
+            fail("ConnectionPoolTimeoutException expected");
+        } catch (ConnectionPoolTimeoutException e) {
+            // expected
+        }
+
+        Map<String, Number> metrics = metrics();
+        assertEquals(1L, metrics.get(METRIC_PREFIX + "lease.count"));
+        assertEquals(1L, metrics.get(METRIC_PREFIX + "lease.timeout"));
+        assertTrue(metrics.get(METRIC_PREFIX + "lease.wait.max")
+                       .longValue() >= 50);
+    }
+
+    @Test
+    public void thatWaitForReleasedConnectionIsMeasured() throws Exception {
+
+        final HttpClientConnection connection = lease(1000);
+        executorService.submit(() -> {
+            Thread.sleep(200);
+            connectionManager.releaseConnection(connection, null, 0, TimeUnit.MILLISECONDS);
+            return null;
+        });
+
+        lease(5000);
+
+        Map<String, Number> metrics = metrics();
+        assertEquals(2L, metrics.get(METRIC_PREFIX + "lease.count"));
+        assertEquals(0L, metrics.get(METRIC_PREFIX + "lease.timeout"));
+        assertTrue(metrics.get(METRIC_PREFIX + "lease.wait.max")
+                       .longValue() >= 150);
+        assertTrue(metrics.get(METRIC_PREFIX + "lease.wait.total")
+                       .longValue() >= metrics.get(METRIC_PREFIX + "lease.wait.max")
+                       .longValue());
+    }
+}
@@ -0,0 +1,132 @@
+package net.smartcosmos.cluster.gateway.routing;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Random;
+
+import org.junit.*;
+import org.springframework.util.AntPathMatcher;
+
+import static org.junit.Assert.*;
+
+public class RoutePatternIndexTest {
+
+    private static final String[] SEGMENTS = { "things", "metadata", "users", "local", "oauth", "a", "b", "", " things" };
+    private static final String[] WILDCARDS = { "*", "**", "?", "th*", "{id}", "*s", "thin?s" };
+
+    // region explicit patterns
+
+    @Test
+    public void thatFirstMatchingPatternWins() {
+
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/things/**", "things");
+        patterns.put("/things/special/**", "special");
+        patterns.put("/**", "default");
+        RoutePatternIndex<String> index = new RoutePatternIndex<>(patterns);
+
+        assertEquals("things", index.getMatch("/things/special/1"));
+        assertEquals("things", index.getMatch("/things"));
+        assertEquals("default", index.getMatch("/users/1"));
+        assertEquals("default", index.getMatch("/"));
+    }
+
+    @Test
+    public void thatMoreSpecificPatternWinsIfAddedFirst() {
+
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/things/special/**", "special");
+        patterns.put("/things/**", "things");
+        RoutePatternIndex<String> index = new RoutePatternIndex<>(patterns);
+
+        assertEquals("special", index.getMatch("/things/special/1"));
+        assertEquals("things", index.getMatch("/things/other/1"));
+    }
+
+    @Test
+    public void thatWildcardPatternsAreMatched() {
+
+        Map<String, String> patterns = new LinkedHashMap<>();
+        patterns.put("/*/metadata/**", "metadata");
+        patterns.put("/users/{id}", "user");
+        patterns.put("/local/th?ngs", "local");
+        RoutePatternIndex<String> index = new RoutePatternIndex<>(patterns);
+
+        assertEquals("metadata", index.getMatch("/things/metadata/1"));
+        assertEquals("user", index.getMatch("/users/1"));
+        assertEquals("local", index.getMatch("/local/things"));
+        assertNull(index.getMatch("/users/1/2"));
+        assertNull(index.getMatch("/unknown"));
+    }
+
+    @Test
+    public void thatEmptyIndexMatchesNothing() {
+
+        RoutePatternIndex<String> index = new RoutePatternIndex<>(new LinkedHashMap<>());
+
+        assertEquals(0, index.size());
+        assertNull(index.getMatch("/things"));
+    }
+
+    // endregion
+
+    // region comparison with linear matching
+
+    /**
+     * Compares the index with matching the patterns in order, as done by Zuul's {@code SimpleRouteLocator}, for random patterns and paths.
+     */
+    @Test
+    public void thatIndexMatchesLinearScanForRandomPatterns() {
+
+        final Random random = new Random(42);
+        final AntPathMatcher pathMatcher = new AntPathMatcher();
+
+        for (int round = 0; round < 200; round++) {
+            Map<String, Integer> patterns = new LinkedHashMap<>();
+            int patternCount = 1 + random.nextInt(50);
+            for (int i = 0; i < patternCount; i++) {
+                patterns.putIfAbsent(randomPath(random, true), i);
+            }
+            RoutePatternIndex<Integer> index = new RoutePatternIndex<>(patterns);
+
+            for (int i = 0; i < 500; i++) {
+                String path = randomPath(random, false);
+
+                Integer expected = null;
+                for (Map.Entry<String, Integer> pattern : patterns.entrySet()) {
+                    if (pathMatcher.match(pattern.getKey(), path)) {
+                        expected = pattern.getValue();
+                        break;
+                    }
+                }
+
+                assertEquals(patterns.keySet() + " " + path, expected, index.getMatch(path));
+            }
+        }
+    }
+
+    // endregion
+
+    private static String randomPath(Random random, boolean pattern) {
+
+        StringBuilder path = new StringBuilder();
+        if (random.nextInt(20) > 0) {
+            path.append('/');
+        }
+        int segments = random.nextInt(5);
+        for (int i = 0; i < segments; i++) {
+            if (i > 0) {
+                path.append('/');
+            }
+            if (pattern && random.nextInt(4) == 0) {
+                path.append(WILDCARDS[random.nextInt(WILDCARDS.length)]);
+            } else {
+                path.append(SEGMENTS[random.nextInt(SEGMENTS.length)]);
+            }
+        }
+        if (random.nextInt(10) == 0) {
+            path.append('/');
+        }
+        return path.toString();
+    }
+}
@@ -0,0 +1,186 @@
+package net.smartcosmos.cluster.gateway.routing;
+
+import java.util.Arrays;
+import java.util.Map;
+
+import com.netflix.config.ConfigurationManager;
+
+import org.junit.*;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.RouteLocator;
+
+import net.smartcosmos.cluster.gateway.config.RouteProfileProperties;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class RouteProfileManagerTest {
+
+    private static final Route METADATA_ROUTE = new Route("metadata", "/**", "smartcosmos-metadata", "/metadata", false, null);
+    private static final Route BULK_ROUTE = new Route("bulkimport", "/**", "smartcosmos-edge-bulkimport", "/bulkimport", false, null);
+    private static final Route URL_ROUTE = new Route("external", "/**", "http://example.com", "/external", false, null);
+
+    private static final String BULK_HYSTRIX_TIMEOUT = "hystrix.command.smartcosmos-edge-bulkimport.execution.isolation.thread.timeoutInMilliseconds";
+
+    private RouteProfileProperties properties;
+
+    private RouteProfileManager routeProfileManager;
+
+    @Before
+    public void setUp() {
+
+        RouteLocator routeLocator = mock(RouteLocator.class);
+        when(routeLocator.getRoutes()).thenReturn(Arrays.asList(METADATA_ROUTE, BULK_ROUTE, URL_ROUTE));
+
+        properties = new RouteProfileProperties();
+        routeProfileManager = new RouteProfileManager(routeLocator, properties);
+    }
+
+    @After
+    public void tearDown() {
+
+        // removes all properties set by the test
+        properties.getRoutes()
+            .clear();
+        properties.setDefaultProfile(null);
+        routeProfileManager.applyProfiles();
+    }
+
+    @Test
+    public void thatProfileIsAppliedByRouteId() {
+
+        properties.getRoutes()
+            .put("bulkimport", RouteProfileProperties.PROFILE_BULK);
+
+        routeProfileManager.applyProfiles();
+
+        RouteProfileProperties.Profile bulk = properties.getProfiles()
+            .get(RouteProfileProperties.PROFILE_BULK);
+        assertEquals(bulk.getTimeout(), getProperty(BULK_HYSTRIX_TIMEOUT));
+        assertEquals(bulk.getReadTimeout(), getProperty("smartcosmos-edge-bulkimport.ribbon.ReadTimeout"));
+        assertEquals(bulk.getConnectTimeout(), getProperty("smartcosmos-edge-bulkimport.ribbon.ConnectTimeout"));
+        assertNull(getProperty("smartcosmos-metadata.ribbon.ReadTimeout"));
+    }
+
+    @Test
+    public void thatProfileIsAppliedByServiceId() {
+
+        properties.getRoutes()
+            .put("smartcosmos-metadata", RouteProfileProperties.PROFILE_STREAMING);
+
+        routeProfileManager.applyProfiles();
+
+        assertEquals(properties.getProfiles()
+                         .get(RouteProfileProperties.PROFILE_STREAMING)
+                         .getReadTimeout(), getProperty("smartcosmos-metadata.ribbon.ReadTimeout"));
+    }
+
+    @Test
+    public void thatDefaultProfileIsAppliedToServiceRoutesOnly() {
+
+        properties.setDefaultProfile(RouteProfileProperties.PROFILE_INTERACTIVE);
+
+        routeProfileManager.applyProfiles();
+
+        Map<String, Map<String, Object>> settings = routeProfileManager.getEffectiveSettings();
+        assertEquals(2, settings.size());
+        assertEquals(RouteProfileProperties.PROFILE_INTERACTIVE, settings.get("metadata")
+            .get("profile"));
+        assertEquals("smartcosmos-edge-bulkimport", settings.get("bulkimport")
+            .get("serviceId"));
+        assertFalse(settings.containsKey("external"));
+    }
+
+    @Test
+    public void thatChangedProfilesAreAppliedOnRefresh() {
+
+        properties.getRoutes()
+            .put("bulkimport", RouteProfileProperties.PROFILE_BULK);
+        routeProfileManager.applyProfiles();
+
+        properties.getRoutes()
+            .put("bulkimport", RouteProfileProperties.PROFILE_STREAMING);
+        routeProfileManager.onRoutesOrConfigurationChanged();
+
+        assertEquals(properties.getProfiles()
+                         .get(RouteProfileProperties.PROFILE_STREAMING)
+                         .getTimeout(), getProperty(BULK_HYSTRIX_TIMEOUT));
+    }
+
+    @Test
+    public void thatPropertiesAreRemovedIfProfileIsUnassigned() {
+
+        properties.getRoutes()
+            .put("bulkimport", RouteProfileProperties.PROFILE_BULK);
+        routeProfileManager.applyProfiles();
+
+        properties.getRoutes()
+            .clear();
+        routeProfileManager.applyProfiles();
+
+        assertNull(getProperty("smartcosmos-edge-bulkimport.ribbon.ReadTimeout"));
+        assertTrue(routeProfileManager.getEffectiveSettings()
+                       .isEmpty());
+    }
+
+    @Test
+    public void thatSemaphoreIsolationIsApplied() {
+
+        properties.getRoutes()
+            .put("metadata", RouteProfileProperties.PROFILE_LOW_LATENCY);
+
+        routeProfileManager.applyProfiles();
+
+        assertEquals("SEMAPHORE", getProperty("hystrix.command.smartcosmos-metadata.execution.isolation.strategy"));
+        assertEquals(properties.getProfiles()
+                         .get(RouteProfileProperties.PROFILE_LOW_LATENCY)
+                         .getMaxConcurrentRequests(),
+                     getProperty("hystrix.command.smartcosmos-metadata.execution.isolation.semaphore.maxConcurrentRequests"));
+    }
+
+    @Test
+    public void thatHystrixTimeoutCoversRibbonTimeoutsAndRetries() {
+
+        RouteProfileProperties.Profile profile = new RouteProfileProperties.Profile();
+        profile.setTimeout(2000);
+        profile.setConnectTimeout(500);
+        profile.setReadTimeout(1000);
+        profile.setMaxAutoRetries(1);
+        profile.setMaxAutoRetriesNextServer(1);
+        properties.getProfiles()
+            .put("custom", profile);
+        properties.getRoutes()
+            .put("bulkimport", "custom");
+
+        routeProfileManager.applyProfiles();
+
+        assertEquals(6000, getProperty(BULK_HYSTRIX_TIMEOUT));
+    }
+
+    @Test
+    public void thatPredefinedProfilesTimeOutAfterRibbon() {
+
+        for (RouteProfileProperties.Profile profile : properties.getProfiles()
+            .values()) {
+            assertEquals(profile.getTimeout(), routeProfileManager.getHystrixTimeout("service", profile));
+        }
+    }
+
+    @Test
+    public void thatUnknownProfileIsIgnored() {
+
+        properties.getRoutes()
+            .put("bulkimport", "unknown");
+
+        routeProfileManager.applyProfiles();
+
+        assertNull(getProperty("smartcosmos-edge-bulkimport.ribbon.ReadTimeout"));
+    }
+
+    private static Object getProperty(String key) {
+
+        return ConfigurationManager.getConfigInstance()
+            .getProperty(key);
+    }
+}
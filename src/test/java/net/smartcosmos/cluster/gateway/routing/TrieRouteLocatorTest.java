@@ -0,0 +1,106 @@
+package net.smartcosmos.cluster.gateway.routing;
+
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.*;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.cloud.netflix.zuul.filters.Route;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties;
+import org.springframework.cloud.netflix.zuul.filters.ZuulProperties.ZuulRoute;
+import org.springframework.cloud.netflix.zuul.filters.discovery.DiscoveryClientRouteLocator;
+import org.springframework.cloud.netflix.zuul.filters.discovery.SimpleServiceRouteMapper;
+
+import static org.junit.Assert.*;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TrieRouteLocatorTest {
+
+    private static final List<String> PATHS = Arrays.asList("/", "/things", "/things/1", "/things/1/metadata", "/local/test", "/local",
+                                                            "/metadata/things/1", "/smartcosmos-users/1", "/smartcosmos-edge/x/y",
+                                                            "/oauth/token", "/ignored/1", "/unknown", "/users/1/roles", "//things/1");
+
+    private DiscoveryClient discoveryClient;
+    private ZuulProperties zuulProperties;
+
+    @Before
+    public void setUp() {
+
+        discoveryClient = mock(DiscoveryClient.class);
+        when(discoveryClient.getServices()).thenReturn(Arrays.asList("smartcosmos-users", "smartcosmos-edge", "smartcosmos-things"));
+
+        zuulProperties = new ZuulProperties();
+        zuulProperties.getIgnoredPatterns()
+            .add("/ignored/**");
+        addRoute("local", "/local/**", null, "forward:/");
+        addRoute("things", "/things/**", "smartcosmos-things", null);
+        addRoute("metadata", "/metadata/**", "smartcosmos-metadata", null);
+        addRoute("users", "/users/*/roles", "smartcosmos-users", null);
+        addRoute("auth", "/oauth/**", "smartcosmos-auth-server", null);
+    }
+
+    @Test
+    public void thatRoutesMatchDiscoveryClientRouteLocator() {
+
+        DiscoveryClientRouteLocator expected = new DiscoveryClientRouteLocator("", discoveryClient, zuulProperties, new SimpleServiceRouteMapper());
+        TrieRouteLocator actual = new TrieRouteLocator("", discoveryClient, zuulProperties, new SimpleServiceRouteMapper());
+
+        for (String path : PATHS) {
+            assertRouteEquals(path, expected.getMatchingRoute(path), actual.getMatchingRoute(path));
+        }
+    }
+
+    @Test
+    public void thatRoutesMatchDiscoveryClientRouteLocatorWithDefaultRoute() {
+
+        addRoute("default", "/**", "smartcosmos-default", null);
+
+        DiscoveryClientRouteLocator expected = new DiscoveryClientRouteLocator("", discoveryClient, zuulProperties, new SimpleServiceRouteMapper());
+        TrieRouteLocator actual = new TrieRouteLocator("", discoveryClient, zuulProperties, new SimpleServiceRouteMapper());
+
+        for (String path : PATHS) {
+            assertRouteEquals(path, expected.getMatchingRoute(path), actual.getMatchingRoute(path));
+        }
+    }
+
+    @Test
+    public void thatRefreshedRoutesAreUsed() {
+
+        TrieRouteLocator locator = new TrieRouteLocator("", discoveryClient, zuulProperties, new SimpleServiceRouteMapper());
+        assertEquals("smartcosmos-things", locator.getMatchingRoute("/things/1")
+            .getLocation());
+
+        addRoute("things-v2", "/things/**", "smartcosmos-things-v2", null);
+        zuulProperties.getRoutes()
+            .remove("things");
+        locator.refresh();
+
+        assertEquals("smartcosmos-things-v2", locator.getMatchingRoute("/things/1")
+            .getLocation());
+    }
+
+    private void addRoute(String id, String path, String serviceId, String url) {
+
+        ZuulRoute route = new ZuulRoute();
+        route.setId(id);
+        route.setPath(path);
+        route.setServiceId(serviceId);
+        route.setUrl(url);
+        zuulProperties.getRoutes()
+            .put(id, route);
+    }
+
+    private static void assertRouteEquals(String path, Route expected, Route actual) {
+
+        if (expected == null) {
+            assertNull(path, actual);
+            return;
+        }
+        assertNotNull(path, actual);
+        assertEquals(path, expected.getId(), actual.getId());
+        assertEquals(path, expected.getLocation(), actual.getLocation());
+        assertEquals(path, expected.getPath(), actual.getPath());
+        assertEquals(path, expected.getPrefix(), actual.getPrefix());
+    }
+}
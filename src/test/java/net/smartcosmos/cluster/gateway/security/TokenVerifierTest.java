@@ -0,0 +1,174 @@
+package net.smartcosmos.cluster.gateway.security;
+
+import java.security.KeyPair;
+import java.security.KeyPairGenerator;
+import java.security.interfaces.RSAPrivateKey;
+import java.security.interfaces.RSAPublicKey;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.*;
+import org.springframework.security.jwt.JwtHelper;
+import org.springframework.security.jwt.crypto.sign.RsaSigner;
+import org.springframework.security.oauth2.common.exceptions.InvalidTokenException;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import net.smartcosmos.cluster.gateway.config.JwtValidationProperties;
+
+import static org.junit.Assert.*;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+public class TokenVerifierTest {
+
+    private static final String JWK_SET_URI = "http://smartcosmos-auth-server/oauth/jwks";
+
+    private static KeyPair keyPair;
+    private static KeyPair otherKeyPair;
+
+    private JwtValidationProperties properties;
+
+    private RestTemplate restTemplate;
+
+    private TokenVerifier tokenVerifier;
+
+    @BeforeClass
+    public static void generateKeys() throws Exception {
+
+        KeyPairGenerator generator = KeyPairGenerator.getInstance("RSA");
+        generator.initialize(1024);
+        keyPair = generator.generateKeyPair();
+        otherKeyPair = generator.generateKeyPair();
+    }
+
+    @Before
+    public void setUp() {
+
+        properties = new JwtValidationProperties();
+        properties.setJwkSetUri(JWK_SET_URI);
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.getForObject(eq(JWK_SET_URI), eq(String.class))).thenReturn(keySet((RSAPublicKey) keyPair.getPublic()));
+
+        tokenVerifier = new TokenVerifier(properties, restTemplate);
+    }
+
+    private static String keySet(RSAPublicKey publicKey) {
+
+        return "{\"keys\":[" + jwk(publicKey, null) + "]}";
+    }
+
+    private static String jwk(RSAPublicKey publicKey, String keyId) {
+
+        Base64.Encoder encoder = Base64.getUrlEncoder()
+            .withoutPadding();
+        return "{\"kty\":\"RSA\",\"use\":\"sig\",\"alg\":\"RS256\","
+               + (keyId != null ? "\"kid\":\"" + keyId + "\"," : "")
+               + "\"n\":\"" + encoder.encodeToString(publicKey.getModulus()
+                                                         .toByteArray()) + "\","
+               + "\"e\":\"" + encoder.encodeToString(publicKey.getPublicExponent()
+                                                         .toByteArray()) + "\"}";
+    }
+
+    private static String token(KeyPair signingKeyPair, long expiresInSeconds) {
+
+        long exp = TimeUnit.MILLISECONDS.toSeconds(System.currentTimeMillis()) + expiresInSeconds;
+        return JwtHelper.encode("{\"user_name\":\"user\",\"tenantUrn\":\"urn:tenant:uuid:1\",\"exp\":" + exp + "}",
+                                new RsaSigner((RSAPrivateKey) signingKeyPair.getPrivate()))
+            .getEncoded();
+    }
+
+    @Test
+    public void thatValidTokenIsAccepted() {
+
+        Map<String, Object> claims = tokenVerifier.verify(token(keyPair, 60));
+
+        assertEquals("user", claims.get("user_name"));
+        assertEquals("urn:tenant:uuid:1", claims.get("tenantUrn"));
+    }
+
+    @Test
+    public void thatKeySetIsRequestedOnce() {
+
+        tokenVerifier.verify(token(keyPair, 60));
+        tokenVerifier.verify(token(keyPair, 60));
+
+        verify(restTemplate, times(1)).getForObject(eq(JWK_SET_URI), eq(String.class));
+    }
+
+    @Test(expected = InvalidTokenException.class)
+    public void thatExpiredTokenIsRejected() {
+
+        tokenVerifier.verify(token(keyPair, -60));
+    }
+
+    @Test(expected = InvalidTokenException.class)
+    public void thatTokenWithForeignSignatureIsRejected() {
+
+        tokenVerifier.verify(token(otherKeyPair, 60));
+    }
+
+    @Test(expected = InvalidTokenException.class)
+    public void thatMalformedTokenIsRejected() {
+
+        tokenVerifier.verify("not-a-jwt");
+    }
+
+    @Test(expected = KeySetUnavailableException.class)
+    public void thatUnavailableKeySetDoesNotRejectTokenAsInvalid() {
+
+        when(restTemplate.getForObject(eq(JWK_SET_URI), eq(String.class))).thenThrow(new ResourceAccessException("Connection refused"));
+
+        tokenVerifier.verify(token(keyPair, 60));
+    }
+
+    @Test
+    public void thatKeySetIsRequestedAgainAfterFailure() {
+
+        properties.setJwkSetRefreshInterval(0);
+        when(restTemplate.getForObject(eq(JWK_SET_URI), eq(String.class))).thenThrow(new ResourceAccessException("Connection refused"))
+            .thenReturn(keySet((RSAPublicKey) keyPair.getPublic()));
+
+        try {
+            tokenVerifier.verify(token(keyPair, 60));
+            fail("Token verified without key set");
+        } catch (KeySetUnavailableException e) {
+            // expected
+        }
+        assertEquals("user", tokenVerifier.verify(token(keyPair, 60))
+            .get("user_name"));
+    }
+
+    @Test
+    public void thatKeySetVersionChangesOnlyWithKeySet() {
+
+        properties.setJwkSetRefreshInterval(0);
+        // two keys with key IDs, so that tokens without key ID refer to an unknown key and cause a request
+        String rotatedKeySet = "{\"keys\":[" + jwk((RSAPublicKey) otherKeyPair.getPublic(), "a") + ","
+                               + jwk((RSAPublicKey) otherKeyPair.getPublic(), "b") + "]}";
+        when(restTemplate.getForObject(eq(JWK_SET_URI), eq(String.class))).thenReturn(rotatedKeySet, rotatedKeySet,
+                                                                                        keySet((RSAPublicKey) keyPair.getPublic()));
+
+        for (int i = 0; i < 2; i++) {
+            try {
+                tokenVerifier.verify(token(keyPair, 60));
+                fail("Token with unknown key accepted");
+            } catch (InvalidTokenException e) {
+                assertEquals(1, tokenVerifier.getKeySetVersion());
+            }
+        }
+        tokenVerifier.verify(token(keyPair, 60));
+        assertEquals(2, tokenVerifier.getKeySetVersion());
+    }
+
+    @Test
+    public void thatTokenWithoutExpiryDoesNotExpire() {
+
+        assertFalse(TokenVerifier.isExpired(Collections.<String, Object>emptyMap()));
+    }
+}